@@ -0,0 +1,195 @@
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generador de carga para la API y la web. Lanza un número fijo de clientes concurrentes (hilos
+ * virtuales) que piden rutas en bucle durante un tiempo y escribe una línea JSON con las
+ * peticiones por segundo y los percentiles de latencia, en total y por ruta.
+ *
+ * <p>Las rutas se dan con {@code --rutas}, separadas por comas y con el mismo peso, o con
+ * {@code --mezcla}, un fichero con una línea {@code peso ruta} por ruta; cada petición elige
+ * la ruta al azar según los pesos.
+ *
+ * <pre>
+ * java bench/ApiLoad.java --url http://localhost:8080 --concurrencia 256 --segundos 30 \
+ *     --rutas /api/hoteles/provincia/Valencia,/api/hoteles/estrellas?limit=100
+ * java bench/ApiLoad.java --url http://localhost:8080 --mezcla bench/mezcla.txt
+ * </pre>
+ */
+public class ApiLoad {
+
+    public static void main(String[] args) throws Exception {
+        String url = opcion(args, "--url", "http://localhost:8080");
+        int concurrencia = Integer.parseInt(opcion(args, "--concurrencia", "64"));
+        int segundos = Integer.parseInt(opcion(args, "--segundos", "30"));
+        int calentamiento = Integer.parseInt(opcion(args, "--calentamiento", "5"));
+        String etiqueta = opcion(args, "--etiqueta", url);
+        String fichero = opcion(args, "--mezcla", null);
+        Mezcla mezcla = fichero != null
+                ? Mezcla.leer(Path.of(fichero))
+                : Mezcla.uniforme(opcion(args, "--rutas", "/api/hoteles").split(","));
+        List<URI> uris = mezcla.rutas().stream().map(r -> URI.create(url + r)).toList();
+
+        HttpClient cliente = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+
+        ejecutar(cliente, uris, mezcla, concurrencia, calentamiento);
+        Resultado resultado = ejecutar(cliente, uris, mezcla, concurrencia, segundos);
+
+        StringBuilder porRuta = new StringBuilder();
+        long[][] latenciasPorRuta = resultado.latenciasPorRuta();
+        for (int r = 0; r < latenciasPorRuta.length; r++) {
+            long[] latencias = latenciasPorRuta[r];
+            Arrays.sort(latencias);
+            if (r > 0) porRuta.append(',');
+            porRuta.append(String.format(Locale.ROOT,
+                    "{\"ruta\":\"%s\",\"peticiones\":%d,\"p50Ms\":%.2f,\"p99Ms\":%.2f,\"p999Ms\":%.2f}",
+                    mezcla.rutas().get(r), latencias.length,
+                    percentil(latencias, 0.50), percentil(latencias, 0.99), percentil(latencias, 0.999)));
+        }
+        long[] latencias = Arrays.stream(latenciasPorRuta).flatMapToLong(Arrays::stream).sorted().toArray();
+        System.out.printf(Locale.ROOT,
+                "{\"etiqueta\":\"%s\",\"concurrencia\":%d,\"segundos\":%d,\"peticiones\":%d,\"errores\":%d,"
+                        + "\"peticionesPorSegundo\":%.1f,\"p50Ms\":%.2f,\"p95Ms\":%.2f,\"p99Ms\":%.2f,\"p999Ms\":%.2f,"
+                        + "\"rutas\":[%s]}%n",
+                etiqueta, concurrencia, segundos, latencias.length, resultado.errores(),
+                latencias.length / (double) segundos,
+                percentil(latencias, 0.50), percentil(latencias, 0.95), percentil(latencias, 0.99),
+                percentil(latencias, 0.999), porRuta);
+    }
+
+    private static Resultado ejecutar(HttpClient cliente, List<URI> uris, Mezcla mezcla, int concurrencia, int segundos)
+            throws InterruptedException, ExecutionException {
+        long fin = System.nanoTime() + segundos * 1_000_000_000L;
+        AtomicLong errores = new AtomicLong();
+        List<Future<Medidas>> clientes = new ArrayList<>();
+        try (ExecutorService ejecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < concurrencia; c++) {
+                clientes.add(ejecutor.submit(() -> {
+                    Medidas medidas = new Medidas(uris.size());
+                    while (System.nanoTime() < fin) {
+                        int ruta = mezcla.elegir(ThreadLocalRandom.current());
+                        HttpRequest peticion = HttpRequest.newBuilder(uris.get(ruta))
+                                .header("Accept-Encoding", "gzip")
+                                .timeout(Duration.ofSeconds(30))
+                                .build();
+                        long inicio = System.nanoTime();
+                        try {
+                            HttpResponse<Void> respuesta = cliente.send(peticion, HttpResponse.BodyHandlers.discarding());
+                            if (respuesta.statusCode() >= 400) errores.incrementAndGet();
+                        } catch (IOException e) {
+                            errores.incrementAndGet();
+                            continue;
+                        }
+                        medidas.anadir(ruta, System.nanoTime() - inicio);
+                    }
+                    return medidas;
+                }));
+            }
+        }
+        List<Medidas> porCliente = new ArrayList<>();
+        for (Future<Medidas> c : clientes) porCliente.add(c.get());
+        long[][] latenciasPorRuta = new long[uris.size()][];
+        for (int r = 0; r < latenciasPorRuta.length; r++) {
+            int ruta = r;
+            latenciasPorRuta[r] = porCliente.stream().flatMapToLong(m -> Arrays.stream(m.latencias(ruta))).toArray();
+        }
+        return new Resultado(latenciasPorRuta, errores.get());
+    }
+
+    private static double percentil(long[] ordenadas, double p) {
+        if (ordenadas.length == 0) return 0;
+        return ordenadas[(int) Math.min(ordenadas.length - 1, Math.ceil(p * ordenadas.length) - 1)] / 1_000_000.0;
+    }
+
+    private static String opcion(String[] args, String nombre, String porDefecto) {
+        for (int i = 0; i < args.length - 1; i++) {
+            if (args[i].equals(nombre)) return args[i + 1];
+        }
+        return porDefecto;
+    }
+
+    /**
+     * Rutas con su peso acumulado, para elegir una al azar en proporción a su peso.
+     */
+    private record Mezcla(List<String> rutas, int[] acumulados) {
+
+        static Mezcla uniforme(String[] rutas) {
+            int[] acumulados = new int[rutas.length];
+            for (int i = 0; i < rutas.length; i++) acumulados[i] = i + 1;
+            return new Mezcla(List.of(rutas), acumulados);
+        }
+
+        /**
+         * Lee un fichero con una línea {@code peso ruta} por ruta. Se ignoran las líneas vacías
+         * y las que empiezan por #.
+         */
+        static Mezcla leer(Path fichero) throws IOException {
+            List<String> rutas = new ArrayList<>();
+            List<Integer> acumulados = new ArrayList<>();
+            int total = 0;
+            for (String linea : Files.readAllLines(fichero)) {
+                linea = linea.strip();
+                if (linea.isEmpty() || linea.startsWith("#")) continue;
+                String[] partes = linea.split("\\s+", 2);
+                int peso = Integer.parseInt(partes[0]);
+                if (partes.length < 2 || peso <= 0) throw new IllegalArgumentException("Línea de mezcla no válida: " + linea);
+                total += peso;
+                rutas.add(partes[1]);
+                acumulados.add(total);
+            }
+            if (rutas.isEmpty()) throw new IllegalArgumentException("La mezcla " + fichero + " no tiene rutas");
+            return new Mezcla(rutas, acumulados.stream().mapToInt(Integer::intValue).toArray());
+        }
+
+        int elegir(ThreadLocalRandom azar) {
+            int posicion = Arrays.binarySearch(acumulados, azar.nextInt(acumulados[acumulados.length - 1]) + 1);
+            return posicion >= 0 ? posicion : -posicion - 1;
+        }
+    }
+
+    /**
+     * Latencias de un cliente, separadas por ruta.
+     */
+    private static class Medidas {
+
+        private final long[][] latencias;
+        private final int[] cuantas;
+
+        Medidas(int rutas) {
+            latencias = new long[rutas][256];
+            cuantas = new int[rutas];
+        }
+
+        void anadir(int ruta, long nanos) {
+            if (cuantas[ruta] == latencias[ruta].length) latencias[ruta] = Arrays.copyOf(latencias[ruta], cuantas[ruta] * 2);
+            latencias[ruta][cuantas[ruta]++] = nanos;
+        }
+
+        long[] latencias(int ruta) {
+            return Arrays.copyOf(latencias[ruta], cuantas[ruta]);
+        }
+    }
+
+    private record Resultado(long[][] latenciasPorRuta, long errores) {
+    }
+}
@@ -0,0 +1,175 @@
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generador de carga de sesiones web repartidas entre varias instancias, como detrás de un
+ * balanceador sin afinidad. Cada cliente (hilo virtual) inicia sesión en una instancia al azar
+ * y visita después {@code --vistas} páginas, cada una en una instancia al azar, con las cookies
+ * que ha recibido. Escribe una línea JSON con los inicios de sesión y las páginas por segundo,
+ * sus percentiles de latencia y cuántas páginas se mostraron sin el usuario porque la
+ * instancia que las atendió no reconoció la sesión.
+ *
+ * <pre>
+ * java bench/SesionLoad.java --urls http://localhost:8085,http://localhost:8086 \
+ *     --concurrencia 64 --segundos 30 --vistas 10
+ * </pre>
+ */
+public class SesionLoad {
+
+    public static void main(String[] args) throws Exception {
+        List<URI> instancias = Arrays.stream(opcion(args, "--urls", "http://localhost:8080").split(","))
+                .map(URI::create).toList();
+        int concurrencia = Integer.parseInt(opcion(args, "--concurrencia", "64"));
+        int segundos = Integer.parseInt(opcion(args, "--segundos", "30"));
+        int calentamiento = Integer.parseInt(opcion(args, "--calentamiento", "5"));
+        int vistas = Integer.parseInt(opcion(args, "--vistas", "10"));
+        String pagina = opcion(args, "--pagina", "/web/?limit=20");
+        String formulario = "user=" + opcion(args, "--usuario", "offline") + "&email=" + opcion(args, "--email", "offline@localhost");
+        String etiqueta = opcion(args, "--etiqueta", "sesiones");
+
+        HttpClient cliente = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        Carga carga = new Carga(cliente, instancias, formulario, pagina, vistas);
+
+        carga.ejecutar(concurrencia, calentamiento);
+        Resultado resultado = carga.ejecutar(concurrencia, segundos);
+
+        long[] logins = resultado.logins();
+        long[] paginas = resultado.vistas();
+        Arrays.sort(logins);
+        Arrays.sort(paginas);
+        System.out.printf(Locale.ROOT,
+                "{\"etiqueta\":\"%s\",\"instancias\":%d,\"concurrencia\":%d,\"segundos\":%d,\"vistasPorSesion\":%d,"
+                        + "\"loginsPorSegundo\":%.1f,\"loginP50Ms\":%.2f,\"loginP99Ms\":%.2f,"
+                        + "\"vistasPorSegundo\":%.1f,\"vistaP50Ms\":%.2f,\"vistaP99Ms\":%.2f,"
+                        + "\"vistasSinUsuario\":%d,\"errores\":%d}%n",
+                etiqueta, instancias.size(), concurrencia, segundos, vistas,
+                logins.length / (double) segundos, percentil(logins, 0.50), percentil(logins, 0.99),
+                paginas.length / (double) segundos, percentil(paginas, 0.50), percentil(paginas, 0.99),
+                resultado.sinUsuario(), resultado.errores());
+    }
+
+    private static double percentil(long[] ordenadas, double p) {
+        if (ordenadas.length == 0) return 0;
+        return ordenadas[(int) Math.min(ordenadas.length - 1, Math.ceil(p * ordenadas.length) - 1)] / 1_000_000.0;
+    }
+
+    private static String opcion(String[] args, String nombre, String porDefecto) {
+        for (int i = 0; i < args.length - 1; i++) {
+            if (args[i].equals(nombre)) return args[i + 1];
+        }
+        return porDefecto;
+    }
+
+    private record Carga(HttpClient cliente, List<URI> instancias, String formulario, String pagina, int vistas) {
+
+        Resultado ejecutar(int concurrencia, int segundos) throws InterruptedException, ExecutionException {
+            long fin = System.nanoTime() + segundos * 1_000_000_000L;
+            AtomicLong errores = new AtomicLong();
+            AtomicLong sinUsuario = new AtomicLong();
+            List<Future<Medidas>> clientes = new ArrayList<>();
+            try (ExecutorService ejecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int c = 0; c < concurrencia; c++) {
+                    clientes.add(ejecutor.submit(() -> {
+                        Medidas medidas = new Medidas();
+                        while (System.nanoTime() < fin) {
+                            try {
+                                long inicio = System.nanoTime();
+                                HttpResponse<Void> login = cliente.send(HttpRequest.newBuilder(instancia().resolve("/login"))
+                                        .header("Content-Type", "application/x-www-form-urlencoded")
+                                        .POST(HttpRequest.BodyPublishers.ofString(formulario))
+                                        .timeout(Duration.ofSeconds(30))
+                                        .build(), HttpResponse.BodyHandlers.discarding());
+                                if (login.statusCode() != 302) {
+                                    errores.incrementAndGet();
+                                    continue;
+                                }
+                                medidas.logins.anadir(System.nanoTime() - inicio);
+                                String cookies = cookies(login, null);
+                                for (int v = 0; v < vistas && System.nanoTime() < fin; v++) {
+                                    inicio = System.nanoTime();
+                                    HttpRequest.Builder vista = HttpRequest.newBuilder(instancia().resolve(pagina))
+                                            .timeout(Duration.ofSeconds(30));
+                                    if (cookies != null) vista.header("Cookie", cookies);
+                                    HttpResponse<String> respuesta = cliente.send(vista.build(), HttpResponse.BodyHandlers.ofString());
+                                    if (respuesta.statusCode() >= 400) {
+                                        errores.incrementAndGet();
+                                        continue;
+                                    }
+                                    medidas.vistas.anadir(System.nanoTime() - inicio);
+                                    if (!respuesta.body().contains("class=\"usuario\"")) sinUsuario.incrementAndGet();
+                                    cookies = cookies(respuesta, cookies);
+                                }
+                            } catch (IOException e) {
+                                errores.incrementAndGet();
+                            }
+                        }
+                        return medidas;
+                    }));
+                }
+            }
+            List<Medidas> porCliente = new ArrayList<>();
+            for (Future<Medidas> c : clientes) porCliente.add(c.get());
+            return new Resultado(
+                    porCliente.stream().flatMapToLong(m -> Arrays.stream(m.logins.valores())).toArray(),
+                    porCliente.stream().flatMapToLong(m -> Arrays.stream(m.vistas.valores())).toArray(),
+                    sinUsuario.get(), errores.get());
+        }
+
+        private URI instancia() {
+            return instancias.get(ThreadLocalRandom.current().nextInt(instancias.size()));
+        }
+
+        /**
+         * Cabecera Cookie con las cookies que fija la respuesta o, si no fija ninguna, las anteriores.
+         */
+        private static String cookies(HttpResponse<?> respuesta, String anteriores) {
+            List<String> nuevas = respuesta.headers().allValues("Set-Cookie").stream()
+                    .map(c -> c.split(";", 2)[0])
+                    .toList();
+            return nuevas.isEmpty() ? anteriores : String.join("; ", nuevas);
+        }
+    }
+
+    private static class Medidas {
+
+        final Latencias logins = new Latencias();
+        final Latencias vistas = new Latencias();
+    }
+
+    private static class Latencias {
+
+        private long[] valores = new long[256];
+        private int cuantas;
+
+        void anadir(long nanos) {
+            if (cuantas == valores.length) valores = Arrays.copyOf(valores, cuantas * 2);
+            valores[cuantas++] = nanos;
+        }
+
+        long[] valores() {
+            return Arrays.copyOf(valores, cuantas);
+        }
+    }
+
+    private record Resultado(long[] logins, long[] vistas, long sinUsuario, long errores) {
+    }
+}
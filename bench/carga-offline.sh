@@ -0,0 +1,31 @@
+#!/bin/sh
+# Lanza la mezcla de rutas de bench/mezcla.txt contra la aplicación arrancada con el perfil
+# offline, sin MongoDB, a distintas concurrencias.
+#
+#   sh bench/carga-offline.sh [segundos] [concurrencias...]
+#
+# OFFLINE_ARGS añade argumentos al arrancar (por ejemplo, --hoteles.offline.sinteticos=100000).
+# MEZCLA cambia el fichero de rutas.
+# Los resultados se escriben, una línea JSON por ejecución, en bench/resultados-offline.ndjson.
+set -e
+cd "$(dirname "$0")/.."
+
+SEGUNDOS=${1:-30}
+[ $# -gt 0 ] && shift
+CONCURRENCIAS=${*:-16 64 256}
+MEZCLA=${MEZCLA:-bench/mezcla.txt}
+SALIDA=bench/resultados-offline.ndjson
+JAR=target/HotelesApi-0.0.1-SNAPSHOT.jar
+PUERTO=8082
+
+./mvnw -q -B -DskipTests package
+: > "$SALIDA"
+
+java -jar "$JAR" --spring.profiles.active=offline --server.port="$PUERTO" $OFFLINE_ARGS > bench/offline.log 2>&1 &
+pid=$!
+trap 'kill "$pid" 2>/dev/null || true' EXIT
+until curl -sf -o /dev/null "http://localhost:$PUERTO/api/hoteles?limit=1"; do sleep 1; done
+for c in $CONCURRENCIAS; do
+    java bench/ApiLoad.java --url "http://localhost:$PUERTO" --mezcla "$MEZCLA" \
+        --concurrencia "$c" --segundos "$SEGUNDOS" --etiqueta offline | tee -a "$SALIDA"
+done
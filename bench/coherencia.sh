@@ -0,0 +1,51 @@
+#!/bin/sh
+# Comprueba que un alta hecha en una instancia se ve en otra. Arranca un MongoDB local en
+# Docker, dos instancias de la aplicación contra él, calienta la caché de la segunda, crea un
+# hotel en la primera y mide cuánto tarda en aparecer en la segunda.
+#
+#   sh bench/coherencia.sh            # réplica de un nodo: change streams
+#   sh bench/coherencia.sh sondeo     # servidor sin réplica: consulta de versión
+set -e
+cd "$(dirname "$0")/.."
+
+MODO=${1:-replica}
+JAR=target/HotelesApi-0.0.1-SNAPSHOT.jar
+CONTENEDOR=hoteles-coherencia
+PROVINCIA="Coherencia$(date +%s)"
+
+./mvnw -q -B -DskipTests package
+
+if [ "$MODO" = sondeo ]; then
+    docker run -d --rm --name "$CONTENEDOR" -p 27017:27017 mongo:7 > /dev/null
+    URI="mongodb://localhost:27017/turismo"
+else
+    docker run -d --rm --name "$CONTENEDOR" -p 27017:27017 mongo:7 --replSet rs0 --bind_ip_all > /dev/null
+    until docker exec "$CONTENEDOR" mongosh --quiet --eval 'db.runCommand({ping: 1})' > /dev/null 2>&1; do sleep 1; done
+    docker exec "$CONTENEDOR" mongosh --quiet --eval 'rs.initiate({_id: "rs0", members: [{_id: 0, host: "localhost:27017"}]})' > /dev/null
+    URI="mongodb://localhost:27017/turismo?replicaSet=rs0"
+fi
+
+arrancar() {
+    java -jar "$JAR" --server.port="$1" --spring.data.mongodb.uri="$URI" --hoteles.migracion.enabled=false \
+        > "bench/coherencia-$1.log" 2>&1 &
+    echo $!
+}
+A=$(arrancar 8083)
+B=$(arrancar 8084)
+trap 'kill "$A" "$B" 2>/dev/null; docker stop "$CONTENEDOR" > /dev/null' EXIT
+for puerto in 8083 8084; do
+    until curl -sf -o /dev/null "http://localhost:$puerto/api/hoteles?limit=1"; do sleep 1; done
+done
+
+curl -sf "http://localhost:8084/api/hoteles/provincia/$PROVINCIA" > /dev/null
+curl -sf -H 'Content-Type: application/json' -d "{\"name\":\"Hotel Coherencia\",\"provinces\":\"$PROVINCIA\",\"categories\":\"3 ESTRELLAS\"}" \
+    http://localhost:8083/api/ > /dev/null
+inicio=$(date +%s%N)
+until curl -sf "http://localhost:8084/api/hoteles/provincia/$PROVINCIA" | grep -q "Hotel Coherencia"; do
+    if [ $(( ($(date +%s%N) - inicio) / 1000000 )) -gt 10000 ]; then
+        echo "La instancia 8084 no ha visto el alta en 10 s" >&2
+        exit 1
+    fi
+    sleep 0.01
+done
+echo "{\"modo\":\"$MODO\",\"ms\":$(( ($(date +%s%N) - inicio) / 1000000 ))}"
@@ -0,0 +1,42 @@
+#!/bin/sh
+# Compara el modo servlet y el modo reactivo de la API con la misma carga y distintas
+# concurrencias. Necesita las variables MONGO_USER y MONGO_PWD como la aplicación.
+#
+#   sh bench/comparar-servlet-reactivo.sh [segundos] [concurrencias...]
+#
+# SERVLET_ARGS añade argumentos al arrancar el modo servlet (por ejemplo, para desactivar las cachés) y
+# APP_ARGS a los dos modos. Con MONGO_URI se usa esa base en lugar de la de application.properties.
+# Los límites por cliente del modo servlet se desactivan, porque toda la carga sale de la misma IP
+# y el modo reactivo no los tiene.
+# Los resultados se escriben, una línea JSON por ejecución, en bench/resultados-servlet-reactivo.ndjson.
+set -e
+cd "$(dirname "$0")/.."
+
+SEGUNDOS=${1:-30}
+[ $# -gt 0 ] && shift
+CONCURRENCIAS=${*:-64 256 1024}
+RUTAS=/api/hoteles/provincia/Valencia,/api/hoteles/estrellas?limit=100,/api/hoteles/modalidad/Hotel/estrellas,/api/hoteles/lujo,/api/hoteles/provincia/Alicante/modalidad/Hotel/estrellas/4
+SALIDA=bench/resultados-servlet-reactivo.ndjson
+JAR=target/HotelesApi-0.0.1-SNAPSHOT.jar
+APP_ARGS="--hoteles.migracion.enabled=false --hoteles.limites.lecturas.por-segundo=0 ${MONGO_URI:+--spring.data.mongodb.uri=$MONGO_URI} $APP_ARGS"
+
+${MVN:-./mvnw} -q -B -Preactive -DskipTests package
+: > "$SALIDA"
+
+medir() {
+    modo=$1
+    puerto=$2
+    shift 2
+    java -jar "$JAR" --server.port="$puerto" $APP_ARGS "$@" > "bench/$modo.log" 2>&1 &
+    pid=$!
+    until curl -sf -o /dev/null "http://localhost:$puerto/api/hoteles?limit=1"; do sleep 1; done
+    for c in $CONCURRENCIAS; do
+        java bench/ApiLoad.java --url "http://localhost:$puerto" --rutas "$RUTAS" \
+            --concurrencia "$c" --segundos "$SEGUNDOS" --etiqueta "$modo" | tee -a "$SALIDA"
+    done
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+}
+
+medir servlet 8080 $SERVLET_ARGS
+medir reactivo 8081 --spring.profiles.active=reactive
@@ -0,0 +1,51 @@
+#!/bin/sh
+# Compara las sesiones web firmadas con las de HttpSession repartiendo inicios de sesión y
+# visitas entre varias instancias del perfil offline sin afinidad de sesión. Cada instancia
+# crea el usuario offline, con el que inician sesión los clientes.
+#
+#   sh bench/sesiones.sh [instancias] [segundos] [concurrencias...]
+#
+# Los resultados se escriben, una línea JSON por ejecución, en bench/resultados-sesiones.ndjson.
+set -e
+cd "$(dirname "$0")/.."
+
+INSTANCIAS=${1:-3}
+[ $# -gt 0 ] && shift
+SEGUNDOS=${1:-30}
+[ $# -gt 0 ] && shift
+CONCURRENCIAS=${*:-16 64 256}
+SALIDA=bench/resultados-sesiones.ndjson
+JAR=target/HotelesApi-0.0.1-SNAPSHOT.jar
+SECRETO=$(head -c 48 /dev/urandom | base64)
+
+./mvnw -q -B -DskipTests package
+: > "$SALIDA"
+
+medir() {
+    modo=$1
+    pids=""
+    urls=""
+    i=0
+    while [ "$i" -lt "$INSTANCIAS" ]; do
+        puerto=$((8085 + i))
+        java -jar "$JAR" --spring.profiles.active=offline --server.port="$puerto" \
+            --hoteles.offline.token=sesiones --hoteles.sesion.modo="$modo" --hoteles.sesion.secreto="$SECRETO" \
+            > "bench/sesiones-$puerto.log" 2>&1 &
+        pids="$pids $!"
+        urls="$urls${urls:+,}http://localhost:$puerto"
+        i=$((i + 1))
+    done
+    trap 'kill $pids 2>/dev/null || true' EXIT
+    for url in $(echo "$urls" | tr ',' ' '); do
+        until curl -sf -o /dev/null "$url/api/hoteles?limit=1"; do sleep 1; done
+    done
+    for c in $CONCURRENCIAS; do
+        java bench/SesionLoad.java --urls "$urls" --concurrencia "$c" --segundos "$SEGUNDOS" \
+            --etiqueta "$modo" | tee -a "$SALIDA"
+    done
+    kill $pids
+    for pid in $pids; do wait "$pid" 2>/dev/null || true; done
+}
+
+medir firmada
+medir servlet
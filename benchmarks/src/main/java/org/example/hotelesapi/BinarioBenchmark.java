@@ -0,0 +1,87 @@
+package org.example.hotelesapi;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Codificación y decodificación de listas de hoteles en JSON con Jackson y en el formato de
+ * {@link HotelBinaryCodec}. Al preparar cada tamaño escribe en la salida lo que ocupan los
+ * dos formatos, sin comprimir y con gzip.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BinarioBenchmark {
+
+    private static final TypeReference<List<Hotel>> LISTA_HOTELES = new TypeReference<>() {
+    };
+
+    @Param({"100", "1000", "10000"})
+    int hoteles;
+
+    private List<Hotel> lista;
+    private ObjectMapper objectMapper;
+    private byte[] json;
+    private byte[] binario;
+
+    @Setup
+    public void preparar() throws IOException {
+        lista = DatosSinteticos.generar(hoteles, 42);
+        // La misma configuración que el ObjectMapper de Spring Boot.
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        json = objectMapper.writeValueAsBytes(lista);
+        binario = HotelBinaryCodec.codificar(lista, HotelProjection.FULL);
+        System.out.printf("%n%d hoteles: JSON %d bytes (gzip %d), binario %d bytes (gzip %d)%n",
+                hoteles, json.length, gzip(json).length, binario.length, gzip(binario).length);
+    }
+
+    @Benchmark
+    public byte[] codificarJson() throws IOException {
+        return objectMapper.writeValueAsBytes(lista);
+    }
+
+    @Benchmark
+    public byte[] codificarBinario() {
+        return HotelBinaryCodec.codificar(lista, HotelProjection.FULL);
+    }
+
+    @Benchmark
+    public List<Hotel> decodificarJson() throws IOException {
+        return objectMapper.readValue(json, LISTA_HOTELES);
+    }
+
+    @Benchmark
+    public List<Hotel> decodificarBinario() throws IOException {
+        return HotelBinaryCodec.decodificar(new ByteArrayInputStream(binario));
+    }
+
+    private static byte[] gzip(byte[] datos) throws IOException {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream(datos.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(salida)) {
+            gzip.write(datos);
+        }
+        return salida.toByteArray();
+    }
+}
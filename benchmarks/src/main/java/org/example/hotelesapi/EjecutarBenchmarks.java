@@ -0,0 +1,25 @@
+package org.example.hotelesapi;
+
+import org.openjdk.jmh.Main;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Punto de entrada de benchmarks.jar. Igual que el Main de JMH, pero si no se indica formato
+ * de resultados los escribe en JSON en resultados-AAAAMMDD-HHMMSS.json para poder comparar ejecuciones.
+ */
+public class EjecutarBenchmarks {
+
+    public static void main(String[] args) throws Exception {
+        List<String> argumentos = new ArrayList<>(Arrays.asList(args));
+        if (!argumentos.contains("-rf") && !argumentos.contains("-h") && !argumentos.contains("-l")) {
+            String fecha = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+            argumentos.addAll(List.of("-rf", "json", "-rff", "resultados-" + fecha + ".json"));
+        }
+        Main.main(argumentos.toArray(new String[0]));
+    }
+}
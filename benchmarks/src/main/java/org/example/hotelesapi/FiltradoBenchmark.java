@@ -0,0 +1,66 @@
+package org.example.hotelesapi;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filtrado, orden y paginación en memoria con {@link HotelQuery#aplicar} para cada forma de
+ * consulta de la API, sobre catálogos de distinto tamaño.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class FiltradoBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    int hoteles;
+
+    @Param({"todos", "provincia", "provinciaRara", "modalidad", "provinciaModalidad", "estrellas", "lujo",
+            "ordenada", "provinciaOrdenada", "provinciaModalidadOrdenada", "provinciaModalidadEstrellas",
+            "paginaOrdenada"})
+    String forma;
+
+    private List<Hotel> catalogo;
+    private HotelQuery consulta;
+
+    @Setup
+    public void preparar() {
+        catalogo = DatosSinteticos.generar(hoteles, 42);
+        String provincia = DatosSinteticos.provinciaFrecuente();
+        consulta = switch (forma) {
+            case "todos" -> HotelQuery.todos();
+            case "provincia" -> HotelQuery.porProvincia(provincia);
+            case "provinciaRara" -> HotelQuery.porProvincia(DatosSinteticos.provinciaRara());
+            case "modalidad" -> HotelQuery.porModalidad("Hotel");
+            case "provinciaModalidad" -> HotelQuery.porProvincia(provincia).conModalidad("Hotel");
+            case "estrellas" -> HotelQuery.todos().conEstrellas(4);
+            case "lujo" -> HotelQuery.todos().soloLujo();
+            case "ordenada" -> HotelQuery.todos().ordenadaPorEstrellas();
+            case "provinciaOrdenada" -> HotelQuery.porProvincia(provincia).ordenadaPorEstrellas();
+            case "provinciaModalidadOrdenada" -> HotelQuery.porProvincia(provincia).conModalidad("Hotel").ordenadaPorEstrellas();
+            case "provinciaModalidadEstrellas" -> HotelQuery.porProvincia(provincia).conModalidad("Hotel").conEstrellas(4);
+            case "paginaOrdenada" -> HotelQuery.todos().ordenadaPorEstrellas().conPagina(new Pagina("0.4." + String.format("%024x", 0x65a0_0000_0000L), 100));
+            default -> throw new IllegalArgumentException("Forma desconocida: " + forma);
+        };
+    }
+
+    @Benchmark
+    public List<Hotel> aplicar() {
+        return consulta.aplicar(catalogo);
+    }
+}
@@ -0,0 +1,68 @@
+package org.example.hotelesapi;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cálculo de los campos derivados de un hotel: {@link Hotel#extraerNumero},
+ * {@link Hotel#esGranLujo}, {@link Hotel#extraerPosicion} y {@link Hotel#normalizar}.
+ * Cada llamada usa el siguiente hotel de un catálogo sintético para no medir siempre la misma cadena.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NormalizacionBenchmark {
+
+    private static final int TAMANO = 4096;
+
+    private Hotel[] hoteles;
+    private int siguiente;
+
+    @Setup
+    public void preparar() {
+        List<Hotel> catalogo = DatosSinteticos.generar(TAMANO, 7);
+        hoteles = catalogo.toArray(new Hotel[0]);
+    }
+
+    private Hotel siguiente() {
+        return hoteles[siguiente++ & (TAMANO - 1)];
+    }
+
+    @Benchmark
+    public int extraerNumero() {
+        return Hotel.extraerNumero(siguiente().getCategories());
+    }
+
+    @Benchmark
+    public boolean esGranLujo() {
+        return Hotel.esGranLujo(siguiente().getCategories());
+    }
+
+    @Benchmark
+    public GeoJsonPoint extraerPosicion() {
+        Hotel hotel = siguiente();
+        return Hotel.extraerPosicion(hotel.getCoord_x(), hotel.getCoord_y());
+    }
+
+    @Benchmark
+    public Hotel normalizar() {
+        Hotel hotel = siguiente();
+        hotel.normalizar();
+        return hotel;
+    }
+}
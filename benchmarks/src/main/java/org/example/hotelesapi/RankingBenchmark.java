@@ -0,0 +1,85 @@
+package org.example.hotelesapi;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Los K mejores hoteles por lujo y estrellas obtenidos de {@link HotelRankingIndex} frente a
+ * filtrar y ordenar el catálogo con {@link HotelQuery#aplicar}, y el coste de mantener los
+ * rankings al cambiar un hotel.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class RankingBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    int hoteles;
+
+    @Param({"10", "100"})
+    int k;
+
+    @Param({"ordenada", "provinciaOrdenada", "modalidadOrdenada", "provinciaModalidadOrdenada"})
+    String forma;
+
+    private List<Hotel> catalogo;
+    private HotelQuery consulta;
+    private HotelRankingIndex rankings;
+    private Hotel cambiado;
+    private boolean alternar;
+
+    @Setup
+    public void preparar() {
+        catalogo = DatosSinteticos.generar(hoteles, 42);
+        String provincia = DatosSinteticos.provinciaFrecuente();
+        HotelQuery filtros = switch (forma) {
+            case "ordenada" -> HotelQuery.todos();
+            case "provinciaOrdenada" -> HotelQuery.porProvincia(provincia);
+            case "modalidadOrdenada" -> HotelQuery.porModalidad("Hotel");
+            case "provinciaModalidadOrdenada" -> HotelQuery.porProvincia(provincia).conModalidad("Hotel");
+            default -> throw new IllegalArgumentException("Forma desconocida: " + forma);
+        };
+        consulta = filtros.ordenadaPorEstrellas().conPagina(new Pagina(null, k));
+        rankings = new HotelRankingIndex(true);
+        rankings.cargar(catalogo);
+        cambiado = catalogo.get(catalogo.size() / 2);
+    }
+
+    @Benchmark
+    public List<Hotel> ordenar() {
+        return consulta.aplicar(catalogo);
+    }
+
+    @Benchmark
+    public List<Hotel> ranking() {
+        return rankings.mejores(consulta);
+    }
+
+    /**
+     * Un hotel que sube o baja de estrellas: se quita de sus cuatro rankings y se vuelve a insertar.
+     */
+    @Benchmark
+    public void actualizar() {
+        Hotel actual = new Hotel();
+        actual.set_id(cambiado.get_id());
+        actual.setProvinces(cambiado.getProvinces());
+        actual.setModalities(cambiado.getModalities());
+        actual.setStars((alternar = !alternar) ? 5 : 1);
+        rankings.hotelCambiado(new HotelCambiadoEvent(null, actual));
+    }
+}
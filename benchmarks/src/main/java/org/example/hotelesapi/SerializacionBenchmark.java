@@ -0,0 +1,76 @@
+package org.example.hotelesapi;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialización con Jackson de listas de hoteles tal como la hace la API: el JSON completo,
+ * el JSON más su variante gzip que guarda {@link HotelResponseCache} y la salida NDJSON.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializacionBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    int hoteles;
+
+    private List<Hotel> lista;
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void preparar() {
+        lista = DatosSinteticos.generar(hoteles, 42);
+        // La misma configuración que el ObjectMapper de Spring Boot.
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    }
+
+    @Benchmark
+    public byte[] json() throws IOException {
+        return objectMapper.writeValueAsBytes(lista);
+    }
+
+    @Benchmark
+    public byte[] jsonGzip() throws IOException {
+        byte[] json = objectMapper.writeValueAsBytes(lista);
+        ByteArrayOutputStream salida = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(salida)) {
+            gzip.write(json);
+        }
+        return salida.toByteArray();
+    }
+
+    @Benchmark
+    public void ndjson() throws IOException {
+        try (OutputStream salida = OutputStream.nullOutputStream();
+             JsonGenerator generador = objectMapper.getFactory().createGenerator(salida)) {
+            generador.setRootValueSeparator(null);
+            for (Hotel hotel : lista) {
+                objectMapper.writeValue(generador, hotel);
+                generador.writeRaw('\n');
+            }
+        }
+    }
+}
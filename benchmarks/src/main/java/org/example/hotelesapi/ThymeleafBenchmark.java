@@ -0,0 +1,72 @@
+package org.example.hotelesapi;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.context.IExpressionContext;
+import org.thymeleaf.linkbuilder.StandardLinkBuilder;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.io.Writer;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renderizado de la plantilla index.html con el mismo motor (SpringTemplateEngine con SpEL)
+ * que usa la aplicación, para listados de distinto tamaño.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ThymeleafBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    int hoteles;
+
+    private SpringTemplateEngine motor;
+    private Context contexto;
+
+    @Setup
+    public void preparar() {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding("UTF-8");
+        resolver.setCacheable(true);
+
+        motor = new SpringTemplateEngine();
+        motor.setTemplateResolver(resolver);
+        motor.setEnableSpringELCompiler(true);
+        // Fuera de una petición web no hay context path; los enlaces se dejan tal cual.
+        motor.setLinkBuilder(new StandardLinkBuilder() {
+            @Override
+            protected String computeContextPath(IExpressionContext context, String base, Map<String, Object> parameters) {
+                return "";
+            }
+        });
+
+        contexto = new Context();
+        contexto.setVariable("titulo", "Listado de hoteles");
+        contexto.setVariable("hoteles", DatosSinteticos.generar(hoteles, 42));
+    }
+
+    @Benchmark
+    public void index() {
+        motor.process("index", contexto, Writer.nullWriter());
+    }
+}
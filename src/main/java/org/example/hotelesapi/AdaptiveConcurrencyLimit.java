@@ -0,0 +1,79 @@
+package org.example.hotelesapi;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Límite de peticiones en curso que se ajusta con la latencia (AIMD). Una petición que
+ * termina por encima de la latencia objetivo reduce el límite un 10%, como mucho una vez por
+ * cada intervalo de esa latencia para que una tanda de peticiones lentas simultáneas no lo
+ * hunda de golpe. Mientras las peticiones terminan a tiempo y el límite se está usando, crece
+ * en una petición por cada límite completado. Cuando MongoDB se satura las peticiones esperan
+ * por una conexión del pool, la latencia sube y el límite baja hasta que las que sobran se
+ * rechazan sin llegar a ocupar una conexión.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    private final int minimo;
+    private final int maximo;
+    private final long objetivoNanos;
+    private final AtomicInteger limite;
+    private final AtomicInteger enCurso = new AtomicInteger();
+    private final AtomicLong ultimoRecorte = new AtomicLong(System.nanoTime());
+
+    /**
+     * @param minimo Límite por debajo del que nunca se baja.
+     * @param maximo Límite inicial y máximo.
+     * @param objetivoMs Latencia a partir de la cual se reduce el límite.
+     */
+    public AdaptiveConcurrencyLimit(int minimo, int maximo, long objetivoMs) {
+        this.minimo = Math.max(1, minimo);
+        this.maximo = Math.max(this.minimo, maximo);
+        this.objetivoNanos = TimeUnit.MILLISECONDS.toNanos(objetivoMs);
+        this.limite = new AtomicInteger(this.maximo);
+    }
+
+    /**
+     * Reserva un hueco para una petición.
+     *
+     * @return true si hay hueco; en ese caso hay que llamar a {@link #liberar} al terminar.
+     */
+    public boolean adquirir() {
+        while (true) {
+            int actuales = enCurso.get();
+            if (actuales >= limite.get()) return false;
+            if (enCurso.compareAndSet(actuales, actuales + 1)) return true;
+        }
+    }
+
+    /**
+     * Libera el hueco de una petición y ajusta el límite con su latencia.
+     *
+     * @param nanos Duración de la petición.
+     */
+    public void liberar(long nanos) {
+        int actuales = enCurso.getAndDecrement();
+        if (nanos > objetivoNanos) {
+            long ahora = System.nanoTime();
+            long anterior = ultimoRecorte.get();
+            if (ahora - anterior >= objetivoNanos && ultimoRecorte.compareAndSet(anterior, ahora)) {
+                limite.updateAndGet(l -> Math.max(minimo, l - Math.max(1, l / 10)));
+            }
+        } else {
+            int l = limite.get();
+            if (l < maximo && actuales * 2 >= l && ThreadLocalRandom.current().nextInt(l) == 0) {
+                limite.compareAndSet(l, l + 1);
+            }
+        }
+    }
+
+    public int limite() {
+        return limite.get();
+    }
+
+    public int enCurso() {
+        return enCurso.get();
+    }
+}
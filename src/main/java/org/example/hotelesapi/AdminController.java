@@ -0,0 +1,170 @@
+package org.example.hotelesapi;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+/**
+ * Controlador REST con información interna del servicio para operación y ajuste. Todas las rutas
+ * requieren un token válido, como las escrituras.
+ */
+@RestController
+@RequestMapping("/admin")
+public class AdminController {
+
+    @Autowired
+    HotelService hotelService;
+
+    @Autowired
+    SecurityService securityService;
+
+    @Autowired
+    HotelFacetService hotelFacetService;
+
+    @Autowired
+    HotelResponseCache hotelResponseCache;
+
+    @Autowired
+    SlowCommandLog slowCommandLog;
+
+    @Autowired
+    ObjectProvider<RateLimitInterceptor> rateLimitInterceptor;
+
+    @Autowired
+    ObjectProvider<HotelFragmentCache> hotelFragmentCache;
+
+    @Autowired
+    ObjectProvider<HotelWriteBehindQueue> hotelWriteBehindQueue;
+
+    @Autowired
+    ObjectProvider<CatalogSnapshot> catalogSnapshot;
+
+    @Autowired
+    ObjectProvider<IndexProvisioner> indexProvisioner;
+
+    @Autowired
+    ObjectProvider<IndexAdvisor> indexAdvisor;
+
+    /**
+     * Obtiene los contadores de aciertos, fallos y expulsiones de las cachés de hoteles, respuestas, facetas,
+     * fragmentos web y tokens.
+     *
+     * @param token Token de seguridad.
+     * @return Estadísticas por caché.
+     */
+    @GetMapping("/cache")
+    public ResponseEntity<Map<String, TtlCache.Estadisticas>> cache(@RequestParam String token) {
+        return autorizado(token, () -> {
+            Map<String, TtlCache.Estadisticas> estadisticas = new TreeMap<>(hotelService.estadisticas());
+            estadisticas.putAll(securityService.estadisticas());
+            estadisticas.put("facetas", hotelFacetService.estadisticas());
+            estadisticas.put("respuestas", hotelResponseCache.estadisticas());
+            hotelFragmentCache.ifAvailable(fragmentos -> estadisticas.put("fragmentos", fragmentos.estadisticas()));
+            return estadisticas;
+        });
+    }
+
+    /**
+     * Obtiene los comandos de MongoDB recientes que superaron el umbral de lentitud.
+     *
+     * @param token Token de seguridad.
+     * @param limit Número máximo de comandos.
+     * @return Comandos lentos, del más lento al más rápido.
+     */
+    @GetMapping("/comandos-lentos")
+    public ResponseEntity<List<SlowCommandLog.ComandoLento>> comandosLentos(@RequestParam String token,
+                                                                           @RequestParam(defaultValue = "20") int limit) {
+        return autorizado(token, () -> slowCommandLog.comandos(limit));
+    }
+
+    /**
+     * Obtiene el límite de concurrencia actual y las peticiones rechazadas por los límites.
+     *
+     * @param token Token de seguridad.
+     * @return Estadísticas de los límites, o null si la aplicación no se sirve con Spring MVC.
+     */
+    @GetMapping("/limites")
+    public ResponseEntity<RateLimitInterceptor.Estadisticas> limites(@RequestParam String token) {
+        return autorizado(token, () -> {
+            RateLimitInterceptor limites = rateLimitInterceptor.getIfAvailable();
+            return limites != null ? limites.estadisticas() : null;
+        });
+    }
+
+    /**
+     * Obtiene el estado de la cola de escrituras asíncronas.
+     *
+     * @param token Token de seguridad.
+     * @return Estadísticas de la cola, o null si las escrituras son síncronas.
+     */
+    @GetMapping("/escrituras")
+    public ResponseEntity<HotelWriteBehindQueue.Estadisticas> escrituras(@RequestParam String token) {
+        return autorizado(token, () -> {
+            HotelWriteBehindQueue cola = hotelWriteBehindQueue.getIfAvailable();
+            return cola != null ? cola.estadisticas() : null;
+        });
+    }
+
+    /**
+     * Obtiene la edad, el tamaño y el tiempo de carga de la instantánea del catálogo en disco.
+     *
+     * @param token Token de seguridad.
+     * @return Estado de la instantánea, o null si está desactivada.
+     */
+    @GetMapping("/instantanea")
+    public ResponseEntity<CatalogSnapshot.Estadisticas> instantanea(@RequestParam String token) {
+        return autorizado(token, () -> {
+            CatalogSnapshot instantanea = catalogSnapshot.getIfAvailable();
+            return instantanea != null ? instantanea.estadisticas() : null;
+        });
+    }
+
+    /**
+     * Obtiene los índices creados al arrancar y las consultas de los repositorios que no tienen índice.
+     *
+     * @param token Token de seguridad.
+     * @return Resultado de la creación de índices, o null si está desactivada o no ha terminado.
+     */
+    @GetMapping("/indices")
+    public ResponseEntity<IndexProvisioner.Resultado> indices(@RequestParam String token) {
+        return autorizado(token, () -> {
+            IndexProvisioner indices = indexProvisioner.getIfAvailable();
+            return indices != null ? indices.resultado() : null;
+        });
+    }
+
+    /**
+     * Obtiene el plan, los documentos examinados por devuelto y el índice sugerido de cada forma
+     * de consulta muestreada.
+     *
+     * @param token Token de seguridad.
+     * @return Análisis por forma, los peores primero, o una lista vacía si el asesor está desactivado.
+     */
+    @GetMapping("/indices/consejos")
+    public ResponseEntity<List<IndexAdvisor.Consejo>> consejosIndices(@RequestParam String token) {
+        return autorizado(token, () -> {
+            IndexAdvisor asesor = indexAdvisor.getIfAvailable();
+            return asesor != null ? asesor.consejos() : List.of();
+        });
+    }
+
+    /**
+     * Devuelve lo que calcula {@code respuesta} si el token es válido, o 401 sin calcularlo.
+     */
+    private <T> ResponseEntity<T> autorizado(String token, Supplier<T> respuesta) {
+        if (!securityService.requestValidation(token)) {
+            return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
+        }
+        return ResponseEntity.ok(respuesta.get());
+    }
+}
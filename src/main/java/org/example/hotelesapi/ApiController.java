@@ -1,21 +1,36 @@
 package org.example.hotelesapi;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * Controlador REST para gestionar las operaciones relacionadas con los hoteles.
  */
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api")
 public class ApiController {
 
     @Autowired
-    HotelRepository hotelRepository;
+    HotelService hotelService;
 
     @Autowired
     UserRepository userRepository;
@@ -23,14 +38,68 @@ public class ApiController {
     @Autowired
     SecurityService securityService;
 
+    @Autowired
+    HotelGeoIndex hotelGeoIndex;
+
+    @Autowired
+    HotelSearchIndex hotelSearchIndex;
+
+    @Autowired
+    HotelFacetService hotelFacetService;
+
+    @Autowired
+    HotelBulkImporter hotelBulkImporter;
+
+    @Autowired
+    HotelResponseCache hotelResponseCache;
+
+    @Autowired
+    ObjectProvider<HotelWriteBehindQueue> hotelWriteBehindQueue;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    HttpServletRequest request;
+
+    /**
+     * Número de hoteles que se escriben en una respuesta NDJSON antes de enviarlos al cliente.
+     */
+    private static final int LINEAS_POR_ENVIO = 100;
+
     /**
      * Obtiene todos los hoteles.
      *
+     * @param pagina Cursor y tamaño de página opcionales.
      * @return Lista de todos los hoteles.
      */
     @GetMapping("/hoteles")
-    public List<Hotel> all() {
-        return hotelRepository.findAll();
+    public ResponseEntity<?> all(Pagina pagina) {
+        return listar(HotelQuery.todos(), pagina);
+    }
+
+    /**
+     * Consulta hoteles con cualquier combinación de filtros. Las rutas de listado de esta
+     * API son atajos de esta misma consulta.
+     *
+     * @param provincia Provincia a filtrar.
+     * @param modalidad Modalidad a filtrar.
+     * @param estrellas Número de estrellas a filtrar.
+     * @param lujo true para solo gran lujo, false para excluirlos.
+     * @param orden "estrellas" para ordenar por lujo y estrellas, o "id" para el orden por defecto.
+     * @param pagina Cursor y tamaño de página opcionales.
+     * @return Lista de hoteles que cumplen los filtros o BAD_REQUEST si el orden no es válido.
+     */
+    @GetMapping("/hoteles/consulta")
+    public ResponseEntity<?> consulta(@RequestParam(required = false) String provincia,
+                                      @RequestParam(required = false) String modalidad,
+                                      @RequestParam(required = false) Integer estrellas,
+                                      @RequestParam(required = false) Boolean lujo,
+                                      @RequestParam(defaultValue = "id") String orden,
+                                      Pagina pagina) {
+        if (!orden.equals("id") && !orden.equals("estrellas")) return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        return listar(new HotelQuery(provincia, modalidad, estrellas, lujo, orden.equals("estrellas"), null, null,
+                HotelProjection.FULL), pagina);
     }
 
     /**
@@ -41,9 +110,9 @@ public class ApiController {
      */
     @GetMapping("/hoteles/id/{id}")
     public ResponseEntity<Hotel> findById(@PathVariable String id) {
-        if (hotelRepository.existsById(id)) {
-            var hotel = hotelRepository.findById(id).get();
-            return (new ResponseEntity<Hotel>(hotel, HttpStatus.OK));
+        var hotel = hotelService.findById(id);
+        if (hotel.isPresent()) {
+            return (new ResponseEntity<Hotel>(hotel.get(), HttpStatus.OK));
         } else return new ResponseEntity<>(HttpStatus.NOT_FOUND);
     }
 
@@ -51,77 +120,35 @@ public class ApiController {
      * Busca hoteles por provincia.
      *
      * @param provinces Provincia de los hoteles.
+     * @param pagina Cursor y tamaño de página opcionales.
      * @return Lista de hoteles en la provincia especificada.
      */
     @GetMapping ("/hoteles/provincia/{provinces}")
-    public List<Hotel> findByProvinces(@PathVariable String provinces) {
-        return hotelRepository.findHotelesByProvinces(provinces);
+    public ResponseEntity<?> findByProvinces(@PathVariable String provinces, Pagina pagina) {
+        return listar(HotelQuery.porProvincia(provinces), pagina);
     }
 
     /**
      * Obtiene hoteles ordenados por estrellas.
      *
+     * @param pagina Cursor y tamaño de página opcionales.
      * @return Lista de hoteles ordenados por estrellas.
      */
     @GetMapping("/hoteles/estrellas")
-    public List<Hotel> getHotelesOrdenadosPorEstrellas() {
-        List<Hotel> hoteles = hotelRepository.findAll();
-        return hoteles.stream()
-                .sorted((h1, h2) -> {
-                    boolean h1EsLujo = esGranLujo(h1.getCategories());
-                    boolean h2EsLujo = esGranLujo(h2.getCategories());
-                    if (h1EsLujo && !h2EsLujo) return -1;
-                    if (!h1EsLujo && h2EsLujo) return 1;
-                    int estrellas1 = extraerNumero(h1.getCategories());
-                    int estrellas2 = extraerNumero(h2.getCategories());
-                    return Integer.compare(estrellas2, estrellas1);
-                })
-                .toList();
-    }
-
-
-
-    /**
-     * Verifica si una categoría es de gran lujo.
-     *
-     * @param category Categoría del hotel.
-     * @return true si es de gran lujo, false en caso contrario.
-     */
-    private boolean esGranLujo(String category) {
-        if (category == null) return false;
-        return category.toLowerCase().contains("lujo");
-    }
-
-    /**
-     * Extrae el número de estrellas de una categoría.
-     *
-     * @param category Categoría del hotel.
-     * @return Número de estrellas.
-     */
-    private int extraerNumero(String category) {
-        if (category == null || category.isEmpty()) {
-            return 0;
-        }
-        String[] partes = category.split(" ");
-        try {
-            return Integer.parseInt(partes[0]);
-        } catch (NumberFormatException e) {
-            return -1;
-        }
+    public ResponseEntity<?> getHotelesOrdenadosPorEstrellas(Pagina pagina) {
+        return listar(HotelQuery.todos().ordenadaPorEstrellas(), pagina);
     }
 
     /**
      * Obtiene hoteles por número de estrellas.
      *
      * @param estrellas Número de estrellas.
+     * @param pagina Cursor y tamaño de página opcionales.
      * @return Lista de hoteles con el número de estrellas especificado.
      */
     @GetMapping("/hoteles/estrellas/{estrellas}")
-    public List<Hotel> getHotelesPorEstrellas(@PathVariable int estrellas) {
-        List<Hotel> hoteles = hotelRepository.findAll();
-        return hoteles.stream()
-                .filter(h -> extraerNumero(h.getCategories()) == estrellas)
-                .toList();
+    public ResponseEntity<?> getHotelesPorEstrellas(@PathVariable int estrellas, Pagina pagina) {
+        return listar(HotelQuery.todos().conEstrellas(estrellas), pagina);
     }
 
     /**
@@ -129,99 +156,71 @@ public class ApiController {
      *
      * @param provinces Provincia de los hoteles.
      * @param estrellas Número de estrellas.
+     * @param pagina Cursor y tamaño de página opcionales.
      * @return Lista de hoteles en la provincia especificada con el número de estrellas especificado.
      */
     @GetMapping("/hoteles/provincia/{provinces}/estrellas/{estrellas}")
-    public List<Hotel> getHotelesPorProvinciaYEstrellas(@PathVariable String provinces, @PathVariable int estrellas) {
-        List<Hotel> hoteles = hotelRepository.findHotelesByProvinces(provinces);
-        return hoteles.stream()
-                .filter(h -> extraerNumero(h.getCategories()) == estrellas)
-                .toList();
+    public ResponseEntity<?> getHotelesPorProvinciaYEstrellas(@PathVariable String provinces, @PathVariable int estrellas, Pagina pagina) {
+        return listar(HotelQuery.porProvincia(provinces).conEstrellas(estrellas), pagina);
     }
 
     /**
      * Obtiene hoteles por provincia ordenados por estrellas.
      *
      * @param provincies Provincia de los hoteles.
+     * @param pagina Cursor y tamaño de página opcionales.
      * @return Lista de hoteles en la provincia especificada ordenados por estrellas.
      */
     @GetMapping("hoteles/provincia/{provincies}/estrellas")
-    public List<Hotel> getHotelesPorProvinciaOrdenadosPorEstrellas(@PathVariable String provincies) {
-        List<Hotel> hoteles = hotelRepository.findHotelesByProvinces(provincies);
-        return hoteles.stream()
-                .sorted((h1, h2) -> {
-                    boolean h1EsLujo = esGranLujo(h1.getCategories());
-                    boolean h2EsLujo = esGranLujo(h2.getCategories());
-                    if (h1EsLujo && !h2EsLujo) return -1;
-                    if (!h1EsLujo && h2EsLujo) return 1;
-                    int estrellas1 = extraerNumero(h1.getCategories());
-                    int estrellas2 = extraerNumero(h2.getCategories());
-                    return Integer.compare(estrellas2, estrellas1);
-                })
-                .toList();
+    public ResponseEntity<?> getHotelesPorProvinciaOrdenadosPorEstrellas(@PathVariable String provincies, Pagina pagina) {
+        return listar(HotelQuery.porProvincia(provincies).ordenadaPorEstrellas(), pagina);
     }
 
     /**
      * Obtiene hoteles de lujo.
      *
+     * @param pagina Cursor y tamaño de página opcionales.
      * @return Lista de hoteles de lujo.
      */
     @GetMapping("/hoteles/lujo")
-    public List<Hotel> getHotelesDeLujo() {
-        List<Hotel> hoteles = hotelRepository.findAll();
-        return hoteles.stream()
-                .filter(h -> esGranLujo(h.getCategories()))
-                .toList();
+    public ResponseEntity<?> getHotelesDeLujo(Pagina pagina) {
+        return listar(HotelQuery.todos().soloLujo(), pagina);
     }
 
     /**
      * Obtiene hoteles de lujo por provincia.
      *
      * @param provinces Provincia de los hoteles.
+     * @param pagina Cursor y tamaño de página opcionales.
      * @return Lista de hoteles de lujo en la provincia especificada.
      */
     @GetMapping("/hoteles/provincia/{provinces}/lujo")
-    public List<Hotel> getHotelesDeLujoPorProvincia(@PathVariable String provinces) {
-        List<Hotel> hoteles = hotelRepository.findHotelesByProvinces(provinces);
-        return hoteles.stream()
-                .filter(h -> esGranLujo(h.getCategories()))
-                .toList();
+    public ResponseEntity<?> getHotelesDeLujoPorProvincia(@PathVariable String provinces, Pagina pagina) {
+        return listar(HotelQuery.porProvincia(provinces).soloLujo(), pagina);
     }
 
     /**
      * Obtiene hoteles por modalidad.
      *
      * @param modalities Modalidad de los hoteles.
+     * @param pagina Cursor y tamaño de página opcionales.
      * @return Lista de hoteles con la modalidad especificada.
      */
     @GetMapping("/hoteles/modalidad/{modalities}")
-    public List<Hotel> getHotelesPorModalidad(@PathVariable String modalities) {
-        List<Hotel> hoteles = hotelRepository.findHotelesByModalities(modalities);
-        return hoteles.stream()
-                .filter(h -> h.getModalities().contains(modalities))
-                .toList();
+    public ResponseEntity<?> getHotelesPorModalidad(@PathVariable String modalities, Pagina pagina) {
+        return listar(HotelQuery.porModalidad(modalities), pagina);
     }
 
     /**
      * Obtiene hoteles por modalidad ordenados por estrellas.
      *
      * @param modalities Modalidad de los hoteles.
+     * @param pagina Cursor y tamaño de página opcionales.
      * @return Lista de hoteles con la modalidad especificada ordenados por estrellas.
      */
     @GetMapping("/hoteles/modalidad/{modalities}/estrellas")
-    public List<Hotel> getHotelesPorModalidadOrdenadosPorEstrellas(@PathVariable String modalities) {
-        List<Hotel> hoteles = hotelRepository.findHotelesByModalities(modalities);
-        return hoteles.stream()
-                .sorted((h1, h2) -> {
-                    boolean h1EsLujo = esGranLujo(h1.getCategories());
-                    boolean h2EsLujo = esGranLujo(h2.getCategories());
-                    if (h1EsLujo && !h2EsLujo) return -1;
-                    if (!h1EsLujo && h2EsLujo) return 1;
-                    int estrellas1 = extraerNumero(h1.getCategories());
-                    int estrellas2 = extraerNumero(h2.getCategories());
-                    return Integer.compare(estrellas2, estrellas1);
-                })
-                .toList();
+    public ResponseEntity<?> getHotelesPorModalidadOrdenadosPorEstrellas(@PathVariable String modalities, Pagina pagina) {
+        return listar(HotelQuery.porModalidad(modalities).ordenadaPorEstrellas(), pagina);
     }
 
     /**
@@ -229,15 +228,12 @@ public class ApiController {
      *
      * @param modalities Modalidad de los hoteles.
      * @param estrellas Número de estrellas.
+     * @param pagina Cursor y tamaño de página opcionales.
      * @return Lista de hoteles con la modalidad y número de estrellas especificados.
      */
     @GetMapping("/hoteles/modalidad/{modalities}/estrellas/{estrellas}")
-    public List<Hotel> getHotelesPorModalidadYEstrellas(@PathVariable String modalities, @PathVariable int estrellas) {
-        List<Hotel> hoteles = hotelRepository.findHotelesByModalities(modalities);
-        return hoteles.stream()
-                .filter(h -> h.getModalities() != null && h.getModalities().contains(modalities))
-                .filter(h -> extraerNumero(h.getCategories()) == estrellas)
-                .toList();
+    public ResponseEntity<?> getHotelesPorModalidadYEstrellas(@PathVariable String modalities, @PathVariable int estrellas, Pagina pagina) {
+        return listar(HotelQuery.porModalidad(modalities).conEstrellas(estrellas), pagina);
     }
 
     /**
@@ -245,14 +241,12 @@ public class ApiController {
      *
      * @param provinces Provincia de los hoteles.
      * @param modalities Modalidad de los hoteles.
+     * @param pagina Cursor y tamaño de página opcionales.
      * @return Lista de hoteles en la provincia especificada con la modalidad especificada.
      */
     @GetMapping("/hoteles/provincia/{provinces}/modalidad/{modalities}")
-    public List<Hotel> getHotelesPorProvinciaYModalidad(@PathVariable String provinces, @PathVariable String modalities) {
-        List<Hotel> hoteles = hotelRepository.findHotelesByProvinces(provinces);
-        return hoteles.stream()
-                .filter(h -> h.getModalities().contains(modalities))
-                .toList();
+    public ResponseEntity<?> getHotelesPorProvinciaYModalidad(@PathVariable String provinces, @PathVariable String modalities, Pagina pagina) {
+        return listar(HotelQuery.porProvincia(provinces).conModalidad(modalities), pagina);
     }
 
     /**
@@ -261,15 +255,12 @@ public class ApiController {
      * @param provinces Provincia de los hoteles.
      * @param modalities Modalidad de los hoteles.
      * @param estrellas Número de estrellas.
+     * @param pagina Cursor y tamaño de página opcionales.
      * @return Lista de hoteles en la provincia especificada con la modalidad y número de estrellas especificados.
      */
     @GetMapping("/hoteles/provincia/{provinces}/modalidad/{modalities}/estrellas/{estrellas}")
-    public List<Hotel> getHotelesPorProvinciaModalidadYEstrellas(@PathVariable String provinces, @PathVariable String modalities, @PathVariable int estrellas) {
-        List<Hotel> hoteles = hotelRepository.findHotelesByProvinces(provinces);
-        return hoteles.stream()
-                .filter(h -> h.getModalities() != null && h.getModalities().contains(modalities))
-                .filter(h -> extraerNumero(h.getCategories()) == estrellas)
-                .toList();
+    public ResponseEntity<?> getHotelesPorProvinciaModalidadYEstrellas(@PathVariable String provinces, @PathVariable String modalities, @PathVariable int estrellas, Pagina pagina) {
+        return listar(HotelQuery.porProvincia(provinces).conModalidad(modalities).conEstrellas(estrellas), pagina);
     }
 
     /**
@@ -277,23 +268,12 @@ public class ApiController {
      *
      * @param provinces Provincia de los hoteles.
      * @param modalities Modalidad de los hoteles.
+     * @param pagina Cursor y tamaño de página opcionales.
      * @return Lista de hoteles en la provincia especificada con la modalidad especificada ordenados por estrellas.
      */
     @GetMapping("/hoteles/provincia/{provinces}/modalidad/{modalities}/estrellas")
-    public List<Hotel> getHotelesPorProvinciaModalidadYEstrellas(@PathVariable String provinces, @PathVariable String modalities) {
-        List<Hotel> hoteles = hotelRepository.findHotelesByProvinces(provinces);
-        return hoteles.stream()
-                .filter(h -> h.getModalities() != null && h.getModalities().contains(modalities))
-                .sorted((h1, h2) -> {
-                    boolean h1EsLujo = esGranLujo(h1.getCategories());
-                    boolean h2EsLujo = esGranLujo(h2.getCategories());
-                    if (h1EsLujo && !h2EsLujo) return -1;
-                    if (!h1EsLujo && h2EsLujo) return 1;
-                    int estrellas1 = extraerNumero(h1.getCategories());
-                    int estrellas2 = extraerNumero(h2.getCategories());
-                    return Integer.compare(estrellas2, estrellas1);
-                })
-                .toList();
+    public ResponseEntity<?> getHotelesPorProvinciaModalidadYEstrellas(@PathVariable String provinces, @PathVariable String modalities, Pagina pagina) {
+        return listar(HotelQuery.porProvincia(provinces).conModalidad(modalities).ordenadaPorEstrellas(), pagina);
     }
 
     /**
@@ -301,15 +281,170 @@ public class ApiController {
      *
      * @param provinces Provincia de los hoteles.
      * @param modalities Modalidad de los hoteles.
+     * @param pagina Cursor y tamaño de página opcionales.
      * @return Lista de hoteles en la provincia especificada con la modalidad especificada y de lujo.
      */
     @GetMapping("/hoteles/provincia/{provinces}/modalidad/{modalities}/lujo")
-    public List<Hotel> getHotelesPorProvinciaModalidadYLujo(@PathVariable String provinces, @PathVariable String modalities) {
-        List<Hotel> hoteles = hotelRepository.findHotelesByProvinces(provinces);
-        return hoteles.stream()
-                .filter(h -> h.getModalities() != null && h.getModalities().contains(modalities))
-                .filter(h -> esGranLujo(h.getCategories()))
-                .toList();
+    public ResponseEntity<?> getHotelesPorProvinciaModalidadYLujo(@PathVariable String provinces, @PathVariable String modalities, Pagina pagina) {
+        return listar(HotelQuery.porProvincia(provinces).conModalidad(modalities).soloLujo(), pagina);
+    }
+
+    /**
+     * Busca los hoteles más cercanos a un punto, opcionalmente filtrados.
+     *
+     * @param lat Latitud del punto.
+     * @param lon Longitud del punto.
+     * @param radio Distancia máxima en kilómetros.
+     * @param limit Número máximo de hoteles.
+     * @param provincia Provincia de los hoteles (opcional).
+     * @param modalidad Modalidad de los hoteles (opcional).
+     * @param estrellas Número de estrellas (opcional).
+     * @return ResponseEntity con los hoteles y su distancia, del más cercano al más lejano, o BAD_REQUEST si los parámetros no son válidos.
+     */
+    @GetMapping("/hoteles/cerca")
+    public ResponseEntity<List<HotelCercano>> cerca(@RequestParam double lat, @RequestParam double lon,
+                                                    @RequestParam(defaultValue = "10") double radio,
+                                                    @RequestParam(defaultValue = "10") int limit,
+                                                    @RequestParam(required = false) String provincia,
+                                                    @RequestParam(required = false) String modalidad,
+                                                    @RequestParam(required = false) Integer estrellas) {
+        if (lat < -90 || lat > 90 || lon < -180 || lon > 180 || radio <= 0 || limit <= 0) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        HotelQuery filtros = HotelQuery.todos().conProvincia(provincia).conModalidad(modalidad).conEstrellas(estrellas);
+        var hoteles = hotelGeoIndex.cercanos(lat, lon, radio, Math.min(limit, HotelQuery.LIMITE_MAXIMO), filtros);
+        return new ResponseEntity<>(hoteles, HttpStatus.OK);
+    }
+
+    /**
+     * Cuenta los hoteles por provincia, modalidad, estrellas y lujo, opcionalmente dentro de unos filtros.
+     *
+     * @param provincia Provincia de los hoteles (opcional).
+     * @param modalidad Modalidad de los hoteles (opcional).
+     * @param estrellas Número de estrellas (opcional).
+     * @param lujo true para contar solo los de gran lujo (opcional).
+     * @return Recuentos por faceta.
+     */
+    @GetMapping("/hoteles/facetas")
+    public Facetas facetas(@RequestParam(required = false) String provincia,
+                           @RequestParam(required = false) String modalidad,
+                           @RequestParam(required = false) Integer estrellas,
+                           @RequestParam(required = false) Boolean lujo) {
+        return hotelFacetService.facetas(new HotelQuery(provincia, modalidad, estrellas, lujo, false, null, null, HotelProjection.FULL));
+    }
+
+    /**
+     * Busca hoteles por texto en el nombre, el municipio, la calle y la dirección, sin
+     * distinguir mayúsculas ni tildes.
+     *
+     * @param q Texto buscado.
+     * @param limit Número máximo de hoteles.
+     * @return Lista de hoteles de más a menos relevante.
+     */
+    @GetMapping("/hoteles/buscar/texto")
+    public List<Hotel> buscarTexto(@RequestParam String q, @RequestParam(defaultValue = "20") int limit) {
+        return hotelSearchIndex.buscar(q, Math.max(1, Math.min(limit, HotelQuery.LIMITE_MAXIMO)));
+    }
+
+    /**
+     * Propone hoteles a partir de lo que el usuario lleva escrito de su nombre.
+     *
+     * @param prefijo Texto escrito hasta el momento.
+     * @param limit Número máximo de sugerencias.
+     * @return Lista de sugerencias.
+     */
+    @GetMapping("/hoteles/autocompletar")
+    public List<Sugerencia> autocompletar(@RequestParam String prefijo, @RequestParam(defaultValue = "10") int limit) {
+        return hotelSearchIndex.autocompletar(prefijo, Math.max(1, Math.min(limit, 50)));
+    }
+
+    /**
+     * Responde con el resultado de una consulta de listado. Si se pide un cursor o un límite
+     * devuelve solo esa página y, cuando puede haber más, la cabecera Link con la siguiente.
+     * Si el cliente acepta application/x-ndjson los hoteles se escriben uno por línea a medida
+     * que salen del cursor de MongoDB, sin construir la lista en memoria. En otro caso se
+     * escribe el cuerpo ya serializado de la caché de respuestas, en el formato binario de
+     * {@link HotelBinaryCodec} si el cliente lo acepta o en JSON, y comprimido con gzip si el
+     * cliente lo acepta. El parámetro fields elige los campos que se leen y se devuelven:
+     * "summary", "full" o una lista de propiedades separadas por comas.
+     *
+     * @param consulta Filtros y orden del listado.
+     * @param pagina Cursor y tamaño de página pedidos.
+     * @return ResponseEntity con los hoteles o BAD_REQUEST si el cursor o los campos no son válidos.
+     */
+    private ResponseEntity<?> listar(HotelQuery consulta, Pagina pagina) {
+        HotelQuery paginada;
+        try {
+            paginada = consulta.conPagina(pagina).conCampos(HotelProjection.parse(request.getParameter("fields")));
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        if (acepta(MediaType.APPLICATION_NDJSON)) {
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(ndjson(paginada));
+        }
+        boolean binario = acepta(HotelBinaryCodec.MEDIA_TYPE);
+        RespuestaSerializada cuerpo = binario ? hotelResponseCache.obtenerBinario(paginada) : hotelResponseCache.obtener(paginada);
+        HandlerObservationInterceptor.devueltos(request, cuerpo.hoteles());
+        var respuesta = ResponseEntity.ok()
+                .contentType(binario ? HotelBinaryCodec.MEDIA_TYPE : MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (cuerpo.siguiente() != null) {
+            String siguiente = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("after", cuerpo.siguiente())
+                    .replaceQueryParam("limit", paginada.limit())
+                    .toUriString();
+            respuesta.header(HttpHeaders.LINK, "<" + siguiente + ">; rel=\"next\"");
+        }
+        if (cuerpo.gzip() != null && aceptaGzip()) {
+            return respuesta.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(cuerpo.gzip());
+        }
+        return respuesta.body(cuerpo.cuerpo());
+    }
+
+    private boolean aceptaGzip() {
+        String aceptadas = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (aceptadas == null) return false;
+        for (String codificacion : aceptadas.split(",")) {
+            String[] partes = codificacion.split(";");
+            if (!partes[0].trim().equalsIgnoreCase("gzip")) continue;
+            return partes.length < 2 || !partes[1].replace(" ", "").matches("q=0(\\.0*)?");
+        }
+        return false;
+    }
+
+    private boolean acepta(MediaType tipo) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept == null) return false;
+        return MediaType.parseMediaTypes(accept).stream()
+                .anyMatch(tipo::equalsTypeAndSubtype);
+    }
+
+    /**
+     * Escribe los hoteles de la consulta en formato NDJSON, vaciando el búfer cada cierto
+     * número de líneas para que el cliente los reciba mientras se leen.
+     */
+    private StreamingResponseBody ndjson(HotelQuery consulta) {
+        ObjectWriter escritor = hotelResponseCache.escritor(consulta.campos());
+        return salida -> {
+            int[] escritos = {0};
+            try (JsonGenerator generador = objectMapper.getFactory().createGenerator(salida)) {
+                generador.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generador.setRootValueSeparator(null);
+                hotelService.recorrer(consulta, hotel -> {
+                    try {
+                        escritor.writeValue(generador, hotel);
+                        generador.writeRaw('\n');
+                        if (++escritos[0] % LINEAS_POR_ENVIO == 0) generador.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            } finally {
+                HandlerObservationInterceptor.devueltos(request, escritos[0]);
+            }
+        };
     }
 
     /**
@@ -320,24 +455,86 @@ public class ApiController {
      * @return ResponseEntity con el estado de la operación.
      */
     @DeleteMapping("/hoteles/{id}")
-    public ResponseEntity delete(@PathVariable String id, @RequestParam String token) {
+    public ResponseEntity delete(@PathVariable String id, @RequestParam String token,
+                                 @RequestHeader(value = "Idempotency-Key", required = false) String clave) {
         if (securityService.requestValidation(token)) {
-            hotelRepository.deleteById(id);
+            HotelWriteBehindQueue cola = hotelWriteBehindQueue.getIfAvailable();
+            if (cola != null) return aceptada(() -> cola.encolarBaja(id, clave));
+            hotelService.deleteById(id);
             return new ResponseEntity(HttpStatus.OK);
         }else{
             return new ResponseEntity(HttpStatus.UNAUTHORIZED);
         }
     }
 
+    /**
+     * Importa hoteles en bloque desde NDJSON o CSV, creando o actualizando cada uno según su registration_code.
+     *
+     * @param token Token de seguridad.
+     * @param contentType Tipo del cuerpo: application/x-ndjson o text/csv.
+     * @param entrada Cuerpo de la petición.
+     * @return ResponseEntity con el resumen de la importación o UNAUTHORIZED si el token no es válido.
+     * @throws IOException si falla la lectura del cuerpo.
+     */
+    @PostMapping(value = "/hoteles/bulk", consumes = {"application/x-ndjson", "text/csv"})
+    public ResponseEntity<ResultadoImportacion> bulk(@RequestParam String token,
+                                                     @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                                     InputStream entrada) throws IOException {
+        if (!securityService.requestValidation(token)) {
+            return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
+        }
+        var resultado = MediaType.APPLICATION_NDJSON.equalsTypeAndSubtype(contentType)
+                ? hotelBulkImporter.importarNdjson(entrada)
+                : hotelBulkImporter.importarCsv(entrada);
+        return new ResponseEntity<>(resultado, HttpStatus.OK);
+    }
+
     /**
      * Crea un nuevo hotel.
      *
      * @param hotel Objeto Hotel a crear.
-     * @return ResponseEntity con el hotel creado.
+     * @param clave Clave de idempotencia opcional, solo con escrituras asíncronas.
+     * @return ResponseEntity con el hotel creado o, con escrituras asíncronas, ACCEPTED con la operación encolada.
      */
     @PostMapping("/")
-    public ResponseEntity<Hotel> create(@RequestBody Hotel hotel) {
-            hotelRepository.save(hotel);
+    public ResponseEntity<?> create(@RequestBody Hotel hotel,
+                                    @RequestHeader(value = "Idempotency-Key", required = false) String clave) {
+            HotelWriteBehindQueue cola = hotelWriteBehindQueue.getIfAvailable();
+            if (cola != null) return aceptada(() -> cola.encolarAlta(hotel, clave));
+            hotelService.save(hotel);
             return new ResponseEntity<>(hotel, HttpStatus.CREATED);
         }
+
+    /**
+     * Consulta el estado de un alta o una baja aceptada con escrituras asíncronas.
+     *
+     * @param id Identificador de la operación.
+     * @return La operación o NOT_FOUND si no existe o ya no se guarda.
+     */
+    @GetMapping("/operaciones/{id}")
+    public ResponseEntity<OperacionEscritura> operacion(@PathVariable String id) {
+        HotelWriteBehindQueue cola = hotelWriteBehindQueue.getIfAvailable();
+        OperacionEscritura operacion = cola != null ? cola.operacion(id) : null;
+        return operacion != null ? ResponseEntity.ok(operacion) : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Encola una escritura y responde ACCEPTED con la operación y su dirección en Location,
+     * UNPROCESSABLE_ENTITY si la clave de idempotencia ya se usó con otra petición o
+     * SERVICE_UNAVAILABLE si la cola está llena.
+     */
+    private ResponseEntity<?> aceptada(Supplier<OperacionEscritura> encolar) {
+        OperacionEscritura operacion;
+        try {
+            operacion = encolar.get();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.unprocessableEntity().body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(e.getMessage());
+        }
+        return ResponseEntity.accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentContextPath()
+                        .path("/api/operaciones/{id}").buildAndExpand(operacion.id()).toUri())
+                .body(operacion);
+    }
 }
@@ -0,0 +1,364 @@
+package org.example.hotelesapi;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.FullDocumentBeforeChange;
+import jakarta.annotation.PreDestroy;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mantiene las cachés e índices en memoria de esta instancia al día con los cambios que hacen
+ * otras instancias en los hoteles y los usuarios. Escucha un change stream de MongoDB sobre
+ * las dos colecciones y aplica cada cambio como si se hubiera hecho aquí; guarda el resume
+ * token de cada instancia para continuar donde lo dejó tras un reinicio.
+ *
+ * <p>Si el servidor no admite change streams (un MongoDB sin réplica), consulta cada cierto
+ * tiempo un contador de versión por colección que todas las instancias incrementan al
+ * escribir, y vacía las cachés cuando cambia. Cada instancia sube el contador desde el mismo
+ * hilo que lo consulta, una vez por colección y consulta aunque haya escrito muchos documentos,
+ * y no lo sube mientras recibe los cambios por el change stream.
+ */
+@Component
+@ConditionalOnProperty(name = "hoteles.cambios.enabled", havingValue = "true", matchIfMissing = true)
+public class CatalogChangeSubscriber {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogChangeSubscriber.class);
+
+    private static final String HOTELES = "hoteles";
+    private static final String USUARIOS = "users";
+    private static final String TOKENS = "cambios";
+    private static final String VERSIONES = "versiones";
+
+    /**
+     * Códigos de error de MongoDB con los que no se puede abrir un change stream o no se puede
+     * reanudar desde el token guardado.
+     */
+    private static final Set<Integer> SIN_CHANGE_STREAMS = Set.of(40573, 40324, 115);
+    private static final Set<Integer> HISTORIAL_PERDIDO = Set.of(286, 280);
+
+    /**
+     * Tiempo durante el que se ignora el eco en el change stream de un cambio hecho aquí.
+     */
+    private static final long ECO_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    @Autowired
+    MongoTemplate mongoTemplate;
+
+    @Autowired
+    HotelService hotelService;
+
+    @Autowired
+    SecurityService securityService;
+
+    private final String nodo;
+    private final int maxLote;
+    private final long intervaloSondeoMs;
+    private final boolean preImagenes;
+
+    private final Map<String, Long> versionesVistas = new ConcurrentHashMap<>();
+    private final Map<String, Long> propios = new ConcurrentHashMap<>();
+
+    /**
+     * Colecciones escritas desde esta instancia cuya versión compartida queda por subir.
+     */
+    private final Set<String> sinSubir = ConcurrentHashMap.newKeySet();
+    private volatile boolean conChangeStreams;
+    private volatile boolean activo = true;
+    private volatile boolean sondeando;
+    private volatile Thread hilo;
+    private volatile MongoChangeStreamCursor<?> cursor;
+
+    public CatalogChangeSubscriber(@Value("${hoteles.cambios.nodo:}") String nodo,
+                                   @Value("${server.port:8080}") int puerto,
+                                   @Value("${hoteles.cambios.max-lote:100}") int maxLote,
+                                   @Value("${hoteles.cambios.intervalo-sondeo-ms:1000}") long intervaloSondeoMs,
+                                   @Value("${hoteles.cambios.pre-imagenes:true}") boolean preImagenes) {
+        this.nodo = nodo.isBlank() ? nombreEquipo() + ":" + puerto : nodo;
+        this.maxLote = maxLote;
+        this.intervaloSondeoMs = intervaloSondeoMs;
+        this.preImagenes = preImagenes;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        hilo = Thread.ofPlatform().daemon().name("cambios-catalogo").start(this::ejecutar);
+    }
+
+    @PreDestroy
+    public void detener() {
+        activo = false;
+        MongoChangeStreamCursor<?> abierto = cursor;
+        if (abierto != null) abierto.close();
+        if (hilo != null) hilo.interrupt();
+    }
+
+    /**
+     * Anota los hoteles cambiados desde esta instancia para no aplicar dos veces su eco, y
+     * deja pendiente subir la versión compartida del catálogo para las instancias que la
+     * consultan.
+     */
+    @EventListener
+    public void hotelCambiado(HotelCambiadoEvent event) {
+        if (Thread.currentThread() == hilo) return;
+        Hotel hotel = event.actual() != null ? event.actual() : event.anterior();
+        if (!sondeando && hotel != null && hotel.get_id() != null) propios.put(hotel.get_id(), System.nanoTime());
+        marcarCambio(HOTELES);
+    }
+
+    @EventListener(CatalogoRecargadoEvent.class)
+    public void catalogoRecargado() {
+        if (Thread.currentThread() != hilo) marcarCambio(HOTELES);
+    }
+
+    @EventListener
+    public void documentoGuardado(AfterSaveEvent<?> event) {
+        if (USUARIOS.equals(event.getCollectionName())) marcarCambio(USUARIOS);
+    }
+
+    @EventListener
+    public void documentoEliminado(AfterDeleteEvent<?> event) {
+        if (USUARIOS.equals(event.getCollectionName())) marcarCambio(USUARIOS);
+    }
+
+    /**
+     * Deja pendiente subir la versión de una colección, salvo que ya se sepa que las instancias
+     * reciben los cambios por el change stream. Hasta saberlo se anota igual, por si el servidor
+     * resulta no admitirlos.
+     */
+    private void marcarCambio(String coleccion) {
+        if (!conChangeStreams) sinSubir.add(coleccion);
+    }
+
+    private void ejecutar() {
+        BsonDocument token = null;
+        try {
+            if (preImagenes) activarPreImagenes();
+            token = leerToken();
+        } catch (MongoException e) {
+            log.warn("No se pudo leer el resume token guardado: {}", e.getMessage());
+        }
+        while (activo) {
+            try {
+                token = escuchar(token);
+            } catch (MongoCommandException e) {
+                if (SIN_CHANGE_STREAMS.contains(e.getErrorCode())) {
+                    log.info("El servidor no admite change streams; se consulta la versión del catálogo cada {} ms", intervaloSondeoMs);
+                    sondeando = true;
+                    propios.clear();
+                    sondear();
+                    return;
+                }
+                if (HISTORIAL_PERDIDO.contains(e.getErrorCode())) {
+                    log.warn("No se puede continuar desde el resume token guardado; se recarga el catálogo");
+                    token = null;
+                    recargarHoteles();
+                    securityService.usuarioEliminado(null);
+                    continue;
+                }
+                esperarTrasError(e);
+            } catch (MongoException e) {
+                esperarTrasError(e);
+            }
+        }
+    }
+
+    /**
+     * Escucha el change stream hasta que se cierra y aplica los cambios por lotes: todos los
+     * que ya han llegado, hasta {@code hoteles.cambios.max-lote}.
+     *
+     * @return Resume token del último lote aplicado.
+     */
+    private BsonDocument escuchar(BsonDocument token) {
+        var flujo = mongoTemplate.getDb()
+                .watch(List.of(Aggregates.match(Filters.in("ns.coll", HOTELES, USUARIOS))))
+                .fullDocument(FullDocument.UPDATE_LOOKUP)
+                .fullDocumentBeforeChange(FullDocumentBeforeChange.WHEN_AVAILABLE);
+        if (token != null) flujo = flujo.startAfter(token);
+        try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> abierto = flujo.cursor()) {
+            cursor = abierto;
+            conChangeStreams = true;
+            sinSubir.clear();
+            while (activo) {
+                List<ChangeStreamDocument<Document>> lote = new ArrayList<>();
+                lote.add(abierto.next());
+                while (lote.size() < maxLote && abierto.available() > 0) lote.add(abierto.next());
+                aplicar(lote);
+                token = lote.get(lote.size() - 1).getResumeToken();
+                guardarToken(token);
+            }
+        } catch (IllegalStateException e) {
+            // El cursor se ha cerrado al detener la aplicación.
+            if (activo) throw e;
+        } finally {
+            cursor = null;
+        }
+        return token;
+    }
+
+    /**
+     * Aplica un lote de cambios. Si son demasiados hoteles, o alguno cambió sin que el servidor
+     * diera su versión anterior y no se sabe qué consultas afecta, se recarga el catálogo entero
+     * una sola vez.
+     */
+    private void aplicar(List<ChangeStreamDocument<Document>> lote) {
+        List<HotelCambiadoEvent> hoteles = new ArrayList<>();
+        boolean recargar = false;
+        for (ChangeStreamDocument<Document> cambio : lote) {
+            if (cambio.getNamespace() == null) {
+                recargar = true;
+                continue;
+            }
+            String id = id(cambio.getDocumentKey());
+            if (USUARIOS.equals(cambio.getNamespace().getCollectionName())) {
+                User usuario = leer(User.class, cambio.getFullDocument());
+                if (usuario != null) securityService.usuarioModificado(usuario);
+                else securityService.usuarioEliminado(id);
+                continue;
+            }
+            Long propio = id != null ? propios.remove(id) : null;
+            if (propio != null && System.nanoTime() - propio < ECO_NANOS) continue;
+            Hotel anterior = leer(Hotel.class, cambio.getFullDocumentBeforeChange());
+            Hotel actual = leer(Hotel.class, cambio.getFullDocument());
+            boolean alta = "insert".equals(cambio.getOperationTypeString());
+            if (anterior == null && !alta) recargar = true;
+            else hoteles.add(new HotelCambiadoEvent(anterior, actual));
+        }
+        if (recargar || hoteles.size() > maxLote) recargarHoteles();
+        else hoteles.forEach(cambio -> hotelService.cambioExterno(cambio.anterior(), cambio.actual()));
+    }
+
+    /**
+     * Sube las versiones pendientes y consulta las compartidas hasta que se detiene la
+     * aplicación. La primera lectura solo sirve de referencia.
+     */
+    private void sondear() {
+        while (activo) {
+            try {
+                for (String coleccion : List.of(HOTELES, USUARIOS)) {
+                    if (sinSubir.remove(coleccion)) subirVersion(coleccion);
+                }
+                comprobarVersion(HOTELES, this::recargarHoteles);
+                comprobarVersion(USUARIOS, () -> securityService.usuarioEliminado(null));
+                Thread.sleep(intervaloSondeoMs);
+            } catch (InterruptedException e) {
+                return;
+            } catch (MongoException e) {
+                esperarTrasError(e);
+            }
+        }
+    }
+
+    private void comprobarVersion(String coleccion, Runnable invalidar) {
+        Document documento = mongoTemplate.getCollection(VERSIONES).find(Filters.eq("_id", coleccion)).first();
+        long version = documento != null ? documento.get("version", Number.class).longValue() : 0;
+        Long vista = versionesVistas.putIfAbsent(coleccion, version);
+        if (vista != null && version > vista && versionesVistas.replace(coleccion, vista, version)) invalidar.run();
+    }
+
+    /**
+     * Incrementa la versión compartida de una colección. Si nadie más la ha cambiado desde la
+     * última consulta se da por vista, para no vaciar las cachés por un cambio propio.
+     */
+    private void subirVersion(String coleccion) {
+        try {
+            Document documento = mongoTemplate.getCollection(VERSIONES).findOneAndUpdate(
+                    Filters.eq("_id", coleccion), Updates.inc("version", 1L),
+                    new FindOneAndUpdateOptions().upsert(true).returnDocument(ReturnDocument.AFTER));
+            long version = documento.get("version", Number.class).longValue();
+            versionesVistas.computeIfPresent(coleccion, (c, vista) -> vista == version - 1 ? version : vista);
+        } catch (MongoException e) {
+            sinSubir.add(coleccion);
+            log.warn("No se pudo subir la versión de {}: {}", coleccion, e.getMessage());
+        }
+    }
+
+    private void recargarHoteles() {
+        propios.clear();
+        hotelService.catalogoRecargado();
+    }
+
+    /**
+     * Pide a MongoDB que guarde la versión anterior de los hoteles cambiados, para poder
+     * invalidar solo las consultas afectadas. Necesita MongoDB 6 y permiso para collMod.
+     */
+    private void activarPreImagenes() {
+        try {
+            mongoTemplate.executeCommand(new Document("collMod", HOTELES)
+                    .append("changeStreamPreAndPostImages", new Document("enabled", true)));
+        } catch (RuntimeException e) {
+            log.info("No se pudieron activar las pre-imágenes de {}: los cambios sin ellas recargan el catálogo", HOTELES);
+        }
+    }
+
+    private BsonDocument leerToken() {
+        Document documento = mongoTemplate.getCollection(TOKENS).find(Filters.eq("_id", nodo)).first();
+        return documento != null ? documento.get("token", Document.class).toBsonDocument() : null;
+    }
+
+    private void guardarToken(BsonDocument token) {
+        mongoTemplate.getCollection(TOKENS).replaceOne(Filters.eq("_id", nodo),
+                new Document("_id", nodo).append("token", token).append("fecha", new Date()),
+                new ReplaceOptions().upsert(true));
+    }
+
+    private <T> T leer(Class<T> tipo, Document documento) {
+        return documento != null ? mongoTemplate.getConverter().read(tipo, documento) : null;
+    }
+
+    private static String id(BsonDocument clave) {
+        BsonValue id = clave != null ? clave.get("_id") : null;
+        if (id == null) return null;
+        return id.isObjectId() ? id.asObjectId().getValue().toHexString() : id.isString() ? id.asString().getValue() : null;
+    }
+
+    private void esperarTrasError(MongoException e) {
+        if (!activo) return;
+        log.warn("Error en el change stream del catálogo, se reintenta: {}", e.getMessage());
+        try {
+            Thread.sleep(intervaloSondeoMs);
+        } catch (InterruptedException ignored) {
+            Thread.currentThread().interrupt();
+            activo = false;
+        }
+    }
+
+    private static String nombreEquipo() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "localhost";
+        }
+    }
+}
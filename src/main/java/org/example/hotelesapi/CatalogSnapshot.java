@@ -0,0 +1,324 @@
+package org.example.hotelesapi;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Instantánea del catálogo de hoteles en disco para arrancar sin esperar a MongoDB. Un hilo
+ * escribe cada {@code hoteles.instantanea.intervalo-segundos} el catálogo entero en
+ * {@code hoteles.instantanea.ruta} si ha cambiado desde la última vez. Al arrancar se proyecta
+ * el fichero en memoria y, si es válido, las lecturas de {@link HotelService} se sirven de él
+ * hasta que se ha vuelto a leer el catálogo de MongoDB en segundo plano; entonces se descarta
+ * y se publica un {@link CatalogoRecargadoEvent} para que las cachés e índices se rehagan con
+ * los datos actuales. Mientras se sirve, cada {@link HotelCambiadoEvent} se aplica también a
+ * la instantánea.
+ * <p>
+ * El fichero empieza con una cabecera de {@value #TAMANO_CABECERA} bytes: los bytes
+ * {@code HTLC}, la versión del formato, el momento en que se leyó el catálogo, el número de
+ * hoteles, la longitud y el CRC32 del cuerpo. El cuerpo son los hoteles con todos sus campos
+ * en el formato de {@link HotelBinaryCodec}. Se descarta una instantánea de otra versión, más
+ * antigua que {@code hoteles.instantanea.max-edad-segundos} o cuyo cuerpo no cuadra con la
+ * cabecera. Se escribe en un fichero temporal que luego se renombra, así que una escritura
+ * interrumpida no estropea la anterior.
+ */
+@Component
+@ConditionalOnProperty(name = "hoteles.instantanea.enabled", havingValue = "true")
+public class CatalogSnapshot {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogSnapshot.class);
+
+    private static final byte[] MAGICO = {'H', 'T', 'L', 'C'};
+    private static final int VERSION = 1;
+    static final int TAMANO_CABECERA = 32;
+
+    @Autowired
+    HotelRepository hotelRepository;
+
+    @Autowired
+    HotelService hotelService;
+
+    @Autowired
+    CatalogVersion catalogVersion;
+
+    @Autowired
+    ObjectProvider<ObservationRegistry> observationRegistry;
+
+    private final Path ruta;
+    private final long intervaloMs;
+    private final Duration maxEdad;
+
+    /**
+     * Hoteles de la instantánea por ID mientras se sirven lecturas de ella; null después.
+     * Ordenados por ID, como los devuelve MongoDB sin otro orden.
+     */
+    private volatile Map<String, Hotel> catalogo;
+    private volatile Estado estado = new Estado(null, 0, 0, null, null);
+    private volatile boolean activo = true;
+    private volatile Thread hilo;
+    private long versionEscrita = -1;
+
+    public CatalogSnapshot(@Value("${hoteles.instantanea.ruta:hoteles-catalogo.bin}") String ruta,
+                           @Value("${hoteles.instantanea.intervalo-segundos:300}") long intervaloSegundos,
+                           @Value("${hoteles.instantanea.max-edad-segundos:86400}") long maxEdadSegundos) {
+        this.ruta = Path.of(ruta);
+        this.intervaloMs = TimeUnit.SECONDS.toMillis(intervaloSegundos);
+        this.maxEdad = Duration.ofSeconds(maxEdadSegundos);
+    }
+
+    /**
+     * Carga la instantánea antes de que el servidor acepte peticiones.
+     */
+    @PostConstruct
+    public void cargar() {
+        if (!Files.exists(ruta)) {
+            log.info("No hay instantánea del catálogo en {}", ruta);
+            return;
+        }
+        long inicio = System.nanoTime();
+        try {
+            Leida leida = observar("carga", () -> leer(ruta));
+            Map<String, Hotel> porId = new ConcurrentSkipListMap<>();
+            for (Hotel hotel : leida.hoteles()) porId.put(hotel.get_id(), hotel);
+            catalogo = porId;
+            long ms = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+            estado = new Estado(leida.creada(), porId.size(), Files.size(ruta), ms, null);
+            log.info("Cargados {} hoteles de la instantánea del {} en {} ms", porId.size(), leida.creada(), ms);
+        } catch (IOException | RuntimeException e) {
+            estado = new Estado(null, 0, 0, null, e.getMessage());
+            log.warn("Se descarta la instantánea del catálogo en {}: {}", ruta, e.getMessage());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        hilo = Thread.ofPlatform().daemon().name("instantanea-catalogo").start(this::ejecutar);
+    }
+
+    @PreDestroy
+    public void detener() {
+        activo = false;
+        if (hilo != null) hilo.interrupt();
+    }
+
+    /**
+     * Resuelve una consulta con la instantánea si todavía se sirve de ella.
+     *
+     * @param consulta Filtros, orden y página del listado.
+     * @return Hoteles de la consulta, o null si ya se lee de MongoDB.
+     */
+    public List<Hotel> buscar(HotelQuery consulta) {
+        Map<String, Hotel> hoteles = catalogo;
+        return hoteles != null ? consulta.aplicar(hoteles.values()) : null;
+    }
+
+    /**
+     * Busca un hotel en la instantánea si todavía se sirve de ella.
+     *
+     * @param id ID del hotel.
+     * @return El hotel o vacío si no está, o null si ya se lee de MongoDB.
+     */
+    public Optional<Hotel> findById(String id) {
+        Map<String, Hotel> hoteles = catalogo;
+        return hoteles != null ? Optional.ofNullable(hoteles.get(id)) : null;
+    }
+
+    @EventListener
+    public void hotelCambiado(HotelCambiadoEvent event) {
+        Map<String, Hotel> hoteles = catalogo;
+        if (hoteles == null) return;
+        if (event.anterior() != null && event.anterior().get_id() != null) hoteles.remove(event.anterior().get_id());
+        if (event.actual() != null && event.actual().get_id() != null) hoteles.put(event.actual().get_id(), event.actual());
+    }
+
+    public Estadisticas estadisticas() {
+        Estado actual = estado;
+        Long edad = actual.creada() != null ? Duration.between(actual.creada(), Instant.now()).toSeconds() : null;
+        return new Estadisticas(ruta.toString(), catalogo != null, actual.creada(), edad, actual.hoteles(),
+                actual.bytes(), actual.cargaMs(), actual.rechazo());
+    }
+
+    private void ejecutar() {
+        while (activo) {
+            try {
+                long version = catalogVersion.version();
+                if (version != versionEscrita) {
+                    escribir();
+                    versionEscrita = version;
+                }
+                if (catalogo != null) {
+                    alcanzar();
+                    // La recarga sube la versión; si no ha cambiado nada más, lo escrito sigue al día.
+                    if (catalogVersion.version() == version + 1) versionEscrita = version + 1;
+                }
+            } catch (RuntimeException | IOException e) {
+                log.warn("No se ha podido escribir la instantánea del catálogo en {}", ruta, e);
+            }
+            try {
+                Thread.sleep(intervaloMs);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Deja de servir la instantánea una vez que se ha leído el catálogo de MongoDB, y avisa
+     * para que lo que se haya calculado con ella se vuelva a calcular.
+     */
+    private void alcanzar() {
+        catalogo = null;
+        hotelService.catalogoRecargado();
+        log.info("Catálogo leído de MongoDB; deja de servirse la instantánea");
+    }
+
+    /**
+     * Lee el catálogo de MongoDB y lo escribe en el fichero temporal, que luego sustituye a la
+     * instantánea anterior.
+     */
+    private void escribir() throws IOException {
+        Path temporal = ruta.resolveSibling(ruta.getFileName() + ".tmp");
+        Instant creada = Instant.now();
+        int hoteles = observar("escritura", () -> {
+            try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                CRC32 crc = new CRC32();
+                canal.position(TAMANO_CABECERA);
+                OutputStream cuerpo = new CheckedOutputStream(Channels.newOutputStream(canal), crc);
+                HotelBinaryCodec.Escritor escritor = new HotelBinaryCodec.Escritor(cuerpo, HotelProjection.FULL);
+                int escritos = 0;
+                try (Stream<Hotel> todos = hotelRepository.recorrer(HotelQuery.todos())) {
+                    Iterator<Hotel> cursor = todos.iterator();
+                    while (cursor.hasNext()) {
+                        escritor.escribir(cursor.next());
+                        escritos++;
+                    }
+                }
+                escritor.terminar();
+                ByteBuffer cabecera = ByteBuffer.allocate(TAMANO_CABECERA)
+                        .put(MAGICO)
+                        .putInt(VERSION)
+                        .putLong(creada.toEpochMilli())
+                        .putInt(escritos)
+                        .putLong(canal.position() - TAMANO_CABECERA)
+                        .putInt((int) crc.getValue())
+                        .flip();
+                while (cabecera.hasRemaining()) canal.write(cabecera, cabecera.position());
+                canal.force(true);
+                return escritos;
+            }
+        });
+        Files.move(temporal, ruta, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Estado anterior = estado;
+        estado = new Estado(creada, hoteles, Files.size(ruta), anterior.cargaMs(), anterior.rechazo());
+        log.debug("Escrita la instantánea del catálogo con {} hoteles en {}", hoteles, ruta);
+    }
+
+    /**
+     * Proyecta el fichero en memoria, comprueba la cabecera y el CRC del cuerpo y decodifica los hoteles.
+     *
+     * @throws IOException si el fichero no es una instantánea válida y reciente.
+     */
+    private Leida leer(Path fichero) throws IOException {
+        try (FileChannel canal = FileChannel.open(fichero, StandardOpenOption.READ)) {
+            long tamano = canal.size();
+            if (tamano < TAMANO_CABECERA) throw new IOException("Fichero demasiado corto");
+            MappedByteBuffer datos = canal.map(FileChannel.MapMode.READ_ONLY, 0, tamano);
+            byte[] magico = new byte[MAGICO.length];
+            datos.get(magico);
+            if (!Arrays.equals(magico, MAGICO)) throw new IOException("No es una instantánea del catálogo");
+            int version = datos.getInt();
+            if (version != VERSION) throw new IOException("Versión no soportada: " + version);
+            Instant creada = Instant.ofEpochMilli(datos.getLong());
+            if (creada.plus(maxEdad).isBefore(Instant.now())) throw new IOException("Instantánea caducada del " + creada);
+            int hoteles = datos.getInt();
+            long longitud = datos.getLong();
+            int crcEsperado = datos.getInt();
+            if (longitud != tamano - TAMANO_CABECERA) throw new IOException("Longitud del cuerpo incorrecta");
+            CRC32 crc = new CRC32();
+            crc.update(datos.slice());
+            if ((int) crc.getValue() != crcEsperado) throw new IOException("CRC del cuerpo incorrecto");
+            List<Hotel> leidos = HotelBinaryCodec.decodificar(datos);
+            if (leidos.size() != hoteles) throw new IOException("Se esperaban " + hoteles + " hoteles y hay " + leidos.size());
+            return new Leida(creada, leidos);
+        }
+    }
+
+    private <T> T observar(String operacion, Accion<T> accion) throws IOException {
+        Observation observacion = Observation.createNotStarted("hoteles.instantanea",
+                        observationRegistry.getIfAvailable(() -> ObservationRegistry.NOOP))
+                .lowCardinalityKeyValue("operacion", operacion)
+                .start();
+        try (Observation.Scope ignorado = observacion.openScope()) {
+            return accion.ejecutar();
+        } catch (IOException | RuntimeException e) {
+            observacion.error(e);
+            throw e;
+        } finally {
+            observacion.stop();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Accion<T> {
+        T ejecutar() throws IOException;
+    }
+
+    private record Leida(Instant creada, List<Hotel> hoteles) {
+    }
+
+    /**
+     * Datos de la última instantánea leída o escrita.
+     */
+    private record Estado(Instant creada, int hoteles, long bytes, Long cargaMs, String rechazo) {
+    }
+
+    /**
+     * Estado de la instantánea del catálogo.
+     *
+     * @param ruta Fichero de la instantánea.
+     * @param sirviendo Si las lecturas se sirven todavía de la instantánea cargada al arrancar.
+     * @param creada Momento en que se leyó de MongoDB el catálogo de la última instantánea, o null si no hay.
+     * @param edadSegundos Segundos desde ese momento, o null si no hay instantánea.
+     * @param hoteles Hoteles de la última instantánea.
+     * @param bytes Tamaño del fichero.
+     * @param cargaMs Milisegundos que tardó en cargarse al arrancar, o null si no se cargó.
+     * @param rechazo Motivo por el que se descartó la instantánea al arrancar, o null.
+     */
+    public record Estadisticas(String ruta, boolean sirviendo, Instant creada, Long edadSegundos, int hoteles,
+                               long bytes, Long cargaMs, String rechazo) {
+    }
+}
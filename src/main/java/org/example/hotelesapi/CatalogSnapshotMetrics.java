@@ -0,0 +1,39 @@
+package org.example.hotelesapi;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publica la edad y el número de hoteles de la instantánea del catálogo en disco como
+ * {@code hoteles.instantanea.edad} y {@code hoteles.instantanea.hoteles}. Los tiempos de
+ * carga y escritura ya se miden con la observación {@code hoteles.instantanea}.
+ */
+@Component
+public class CatalogSnapshotMetrics {
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    ObjectProvider<CatalogSnapshot> catalogSnapshot;
+
+    @PostConstruct
+    public void registrar() {
+        catalogSnapshot.ifAvailable(instantanea -> {
+            Gauge.builder("hoteles.instantanea.edad", instantanea, i -> {
+                        Long edad = i.estadisticas().edadSegundos();
+                        return edad != null ? edad : Double.NaN;
+                    })
+                    .baseUnit("segundos")
+                    .description("Segundos desde que se leyó de MongoDB el catálogo de la última instantánea")
+                    .register(meterRegistry);
+            Gauge.builder("hoteles.instantanea.hoteles", instantanea, i -> i.estadisticas().hoteles())
+                    .baseUnit("hoteles")
+                    .register(meterRegistry);
+        });
+    }
+}
@@ -0,0 +1,80 @@
+package org.example.hotelesapi;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+
+/**
+ * Versión del catálogo de hoteles. Aumenta con cada alta, borrado o recarga, de modo que
+ * cualquier respuesta calculada con una versión sigue siendo válida mientras no cambie.
+ */
+@Component
+public class CatalogVersion {
+
+    /**
+     * Empieza en el instante de arranque para que las ETag de dos instancias no coincidan
+     * aunque hayan visto el mismo número de cambios.
+     */
+    private volatile Estado estado = new Estado(System.currentTimeMillis(), Instant.now().truncatedTo(ChronoUnit.SECONDS));
+
+    @EventListener({HotelCambiadoEvent.class, CatalogoRecargadoEvent.class})
+    public synchronized void incrementar() {
+        estado = new Estado(estado.version() + 1, Instant.now().truncatedTo(ChronoUnit.SECONDS));
+    }
+
+    /**
+     * @return Número de versión actual.
+     */
+    public long version() {
+        return estado.version();
+    }
+
+    /**
+     * @return Momento del último cambio, con precisión de segundos como la cabecera Last-Modified.
+     */
+    public Instant modificado() {
+        return estado.modificado();
+    }
+
+    /**
+     * Calcula la ETag de una respuesta: la versión del catálogo con una huella SHA-256 de la
+     * ruta, los parámetros y el tipo y la codificación de respuesta aceptados, para que cada
+     * variante tenga la suya. Un hash de 32 bits podía dar la misma ETag a dos variantes y
+     * responder 304 con el cuerpo de la otra.
+     *
+     * @param version Versión del catálogo con la que se responde.
+     * @param variante Ruta, parámetros y cabeceras que distinguen la respuesta.
+     * @return ETag entre comillas.
+     */
+    public String etag(long version, Object... variante) {
+        MessageDigest huella = sha256();
+        for (Object parte : variante) {
+            // Cada parte va precedida de su longitud (-1 si falta) para que no se confundan al concatenarlas.
+            byte[] bytes = parte != null ? parte.toString().getBytes(StandardCharsets.UTF_8) : null;
+            huella.update(ByteBuffer.allocate(Integer.BYTES).putInt(bytes != null ? bytes.length : -1).array());
+            if (bytes != null) huella.update(bytes);
+        }
+        return "\"" + version + "-" + Base64.getUrlEncoder().withoutPadding().encodeToString(huella.digest()) + "\"";
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Versión y momento se guardan juntos para leerlos siempre de forma coherente.
+     */
+    private record Estado(long version, Instant modificado) {
+    }
+}
@@ -0,0 +1,9 @@
+package org.example.hotelesapi;
+
+/**
+ * Evento que se publica cuando ha cambiado una parte del catálogo que no se puede detallar
+ * hotel a hotel, como tras una importación masiva. Quien lo reciba debe recargar todo lo
+ * que tenga en memoria.
+ */
+public record CatalogoRecargadoEvent() {
+}
@@ -0,0 +1,36 @@
+package org.example.hotelesapi;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Añade ETag y Last-Modified a las respuestas GET de la API a partir de la versión del
+ * catálogo y de la petición, y responde 304 a los If-None-Match / If-Modified-Since que
+ * siguen vigentes antes de llegar al controlador, sin consultar MongoDB ni serializar nada.
+ * {@link ValidatorHeadersFilter} quita después la ETag y Last-Modified si la respuesta es un error.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ConditionalGetInterceptor implements HandlerInterceptor {
+
+    @Autowired
+    CatalogVersion catalogVersion;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!"GET".equals(request.getMethod()) && !"HEAD".equals(request.getMethod())) return true;
+        long version = catalogVersion.version();
+        long modificado = catalogVersion.modificado().toEpochMilli();
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        String etag = catalogVersion.etag(version, request.getRequestURI(), request.getQueryString(),
+                request.getHeader(HttpHeaders.ACCEPT), request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        return !new ServletWebRequest(request, response).checkNotModified(etag, modificado);
+    }
+}
@@ -0,0 +1,117 @@
+package org.example.hotelesapi;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Genera catálogos de hoteles sintéticos con un reparto de provincias, modalidades y
+ * categorías parecido al real: muchos hoteles en las provincias de costa e islas, mayoría de
+ * hoteles de 3 y 4 estrellas, pocos de gran lujo y algunas categorías vacías o mal escritas.
+ * Con la misma semilla se obtiene siempre el mismo catálogo.
+ */
+public final class DatosSinteticos {
+
+    private static final String[] PROVINCIAS = {
+            "Illes Balears", "Barcelona", "Madrid", "Las Palmas", "Santa Cruz de Tenerife", "Málaga",
+            "Alicante", "Girona", "Valencia", "Tarragona", "Cádiz", "Granada", "Sevilla", "Asturias",
+            "Cantabria", "Castellón", "Almería", "Huesca", "Murcia", "A Coruña", "Navarra", "Toledo",
+            "Salamanca", "Cáceres", "Soria"};
+    private static final int[] PESOS_PROVINCIAS = {
+            140, 95, 85, 75, 70, 70, 60, 40, 40, 35, 30, 28, 28, 25, 20, 18, 18, 15, 15, 15, 12, 10, 10, 8, 3};
+
+    private static final String[] MODALIDADES = {"Hotel", "Hostal", "Hotel Apartamento", "Pensión", "Hotel Rural"};
+    private static final int[] PESOS_MODALIDADES = {55, 20, 10, 10, 5};
+
+    private static final String[] CATEGORIAS = {
+            "1 estrella", "2 estrellas", "3 estrellas", "4 estrellas", "5 estrellas", "5 estrellas Gran Lujo",
+            "", "Sin categoría"};
+    private static final int[] PESOS_CATEGORIAS = {9, 17, 30, 30, 10, 2, 1, 1};
+
+    /**
+     * Centro aproximado (latitud, longitud) de cada provincia, en el mismo orden que PROVINCIAS.
+     */
+    private static final double[][] CENTROS = {
+            {39.6, 2.9}, {41.4, 2.1}, {40.4, -3.7}, {28.1, -15.4}, {28.3, -16.6}, {36.7, -4.4},
+            {38.3, -0.5}, {42.0, 2.8}, {39.5, -0.4}, {41.1, 1.2}, {36.5, -6.3}, {37.2, -3.6}, {37.4, -6.0},
+            {43.4, -5.8}, {43.5, -3.8}, {40.0, -0.05}, {36.8, -2.5}, {42.1, -0.4}, {38.0, -1.1}, {43.4, -8.4},
+            {42.8, -1.6}, {39.9, -4.0}, {40.96, -5.7}, {39.5, -6.4}, {41.8, -2.5}};
+
+    private static final String[] NOMBRES = {
+            "Mar", "Sol", "Playa", "Centro", "Plaza", "Palacio", "Jardín", "Puerto", "Montaña", "Río",
+            "Real", "Costa", "Bahía", "Castillo", "Mirador", "Alameda", "Catedral", "Olivo", "Faro", "Brisa"};
+
+    private DatosSinteticos() {
+    }
+
+    /**
+     * Genera un catálogo con los campos derivados ya normalizados, como estarían en MongoDB.
+     *
+     * @param cantidad Número de hoteles.
+     * @param semilla Semilla del generador aleatorio.
+     * @return Lista de hoteles.
+     */
+    public static List<Hotel> generar(int cantidad, long semilla) {
+        SplittableRandom azar = new SplittableRandom(semilla);
+        List<Hotel> hoteles = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            int provincia = elegir(azar, PESOS_PROVINCIAS);
+            String modalidad = MODALIDADES[elegir(azar, PESOS_MODALIDADES)];
+            String categoria = CATEGORIAS[elegir(azar, PESOS_CATEGORIAS)];
+            if (modalidad.equals("Hostal") || modalidad.equals("Pensión")) categoria = CATEGORIAS[azar.nextInt(2)];
+            double lat = CENTROS[provincia][0] + (azar.nextDouble() - 0.5) * 0.8;
+            double lon = CENTROS[provincia][1] + (azar.nextDouble() - 0.5) * 0.8;
+            // Parte de los datos de origen usa coma decimal en las coordenadas.
+            boolean comaDecimal = azar.nextInt(4) == 0;
+
+            Hotel hotel = new Hotel();
+            hotel.set_id(String.format("%024x", 0x65a0_0000_0000L + i));
+            hotel.setName(modalidad + " " + NOMBRES[azar.nextInt(NOMBRES.length)] + " " + NOMBRES[azar.nextInt(NOMBRES.length)] + " " + i);
+            hotel.setCategories(categoria);
+            hotel.setModalities(modalidad);
+            hotel.setProvinces(PROVINCIAS[provincia]);
+            hotel.setMunicipalities(PROVINCIAS[provincia] + " " + (1 + azar.nextInt(40)));
+            hotel.setRoad_name("Calle " + NOMBRES[azar.nextInt(NOMBRES.length)]);
+            hotel.setEstablishment_address("Calle " + NOMBRES[azar.nextInt(NOMBRES.length)] + ", " + (1 + azar.nextInt(200)));
+            hotel.setPostal_code(String.format("%05d", 1000 + azar.nextInt(51000)));
+            hotel.setPhone(String.valueOf(600_000_000 + azar.nextInt(100_000_000)));
+            hotel.setRegistration_code("H-" + PROVINCIAS[provincia].substring(0, 2).toUpperCase(Locale.ROOT) + "-" + i);
+            hotel.setCoord_x(coordenada(lon, comaDecimal));
+            hotel.setCoord_y(coordenada(lat, comaDecimal));
+            hotel.normalizar();
+            hoteles.add(hotel);
+        }
+        return hoteles;
+    }
+
+    /**
+     * @return Provincia con más hoteles del catálogo generado.
+     */
+    public static String provinciaFrecuente() {
+        return PROVINCIAS[0];
+    }
+
+    /**
+     * @return Provincia con menos hoteles del catálogo generado.
+     */
+    public static String provinciaRara() {
+        return PROVINCIAS[PROVINCIAS.length - 1];
+    }
+
+    private static String coordenada(double valor, boolean comaDecimal) {
+        String texto = String.format(Locale.ROOT, "%.6f", valor);
+        return comaDecimal ? texto.replace('.', ',') : texto;
+    }
+
+    private static int elegir(SplittableRandom azar, int[] pesos) {
+        int total = 0;
+        for (int peso : pesos) total += peso;
+        int valor = azar.nextInt(total);
+        for (int i = 0; i < pesos.length; i++) {
+            valor -= pesos[i];
+            if (valor < 0) return i;
+        }
+        return pesos.length - 1;
+    }
+}
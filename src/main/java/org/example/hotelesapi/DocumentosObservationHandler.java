@@ -0,0 +1,44 @@
+package org.example.hotelesapi;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Registra los documentos de cada {@link HotelObservationContext} como un histograma
+ * {@code <observación>.documentos} con las mismas etiquetas que su temporizador: los leídos
+ * en {@code hoteles.repositorio.documentos} y los devueltos en {@code hoteles.peticion.documentos}.
+ */
+@Component
+public class DocumentosObservationHandler implements ObservationHandler<HotelObservationContext> {
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Override
+    public void onStop(HotelObservationContext context) {
+        List<Tag> etiquetas = new ArrayList<>();
+        for (KeyValue clave : context.getLowCardinalityKeyValues()) {
+            etiquetas.add(Tag.of(clave.getKey(), clave.getValue()));
+        }
+        DistributionSummary.builder(context.getName() + ".documentos")
+                .baseUnit("documentos")
+                .tags(etiquetas)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(context.getDocumentos());
+    }
+
+    @Override
+    public boolean supportsContext(Observation.Context context) {
+        return context instanceof HotelObservationContext;
+    }
+}
@@ -0,0 +1,23 @@
+package org.example.hotelesapi;
+
+import java.util.List;
+
+/**
+ * Resultado de escribir un lote de hoteles por registration_code.
+ *
+ * @param insertadas Hoteles nuevos.
+ * @param actualizadas Hoteles que ya existían y se han actualizado.
+ * @param duplicadas Hoteles no escritos porque otro posterior del lote tiene el mismo registration_code.
+ * @param errores Hoteles que no se han podido escribir.
+ */
+public record EscrituraLote(long insertadas, long actualizadas, long duplicadas, List<Fallo> errores) {
+
+    /**
+     * Hotel del lote que no se ha podido escribir.
+     *
+     * @param posicion Posición del hotel en el lote, empezando por 0.
+     * @param motivo Motivo del error.
+     */
+    public record Fallo(int posicion, String motivo) {
+    }
+}
@@ -0,0 +1,16 @@
+package org.example.hotelesapi;
+
+import java.util.Map;
+
+/**
+ * Número de hoteles por cada valor de provincia, modalidad, estrellas y lujo.
+ *
+ * @param total Número total de hoteles que cumplen los filtros.
+ * @param provincias Hoteles por provincia.
+ * @param modalidades Hoteles por modalidad.
+ * @param estrellas Hoteles por número de estrellas.
+ * @param lujo Hoteles de gran lujo (true) y del resto (false).
+ */
+public record Facetas(long total, Map<String, Long> provincias, Map<String, Long> modalidades,
+                      Map<Integer, Long> estrellas, Map<Boolean, Long> lujo) {
+}
@@ -0,0 +1,183 @@
+package org.example.hotelesapi;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice espacial en memoria para el perfil offline. Reparte los hoteles en una rejilla de
+ * celdas de latitud y longitud y, en cada búsqueda, solo calcula distancias para los hoteles
+ * de las celdas que cubre el radio. Se carga al arrancar, se actualiza con cada
+ * {@link HotelCambiadoEvent} y se vuelve a cargar con cada {@link CatalogoRecargadoEvent}.
+ */
+@Component
+@Profile("offline")
+public class GridHotelGeoIndex implements HotelGeoIndex {
+
+    private static final double RADIO_TIERRA_KM = 6371.0088;
+    private static final double KM_POR_GRADO = 111.32;
+
+    @Autowired
+    HotelService hotelService;
+
+    private final double tamanoCelda;
+    private final Map<Long, List<Hotel>> celdas = new HashMap<>();
+    private final Map<String, Long> celdaPorHotel = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public GridHotelGeoIndex(@Value("${hoteles.geo.celda-grados:0.1}") double tamanoCelda) {
+        this.tamanoCelda = tamanoCelda;
+    }
+
+    @EventListener({ApplicationReadyEvent.class, CatalogoRecargadoEvent.class})
+    public void cargar() {
+        lock.writeLock().lock();
+        try {
+            celdas.clear();
+            celdaPorHotel.clear();
+            hotelService.findAll().forEach(this::anadir);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener
+    public void hotelCambiado(HotelCambiadoEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (event.anterior() != null) quitar(event.anterior().get_id());
+            if (event.actual() != null) anadir(event.actual());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Recorre las celdas que cubre el radio. La ventana de longitudes que pasa de ±180° se parte
+     * en dos, y si el radio llega a un polo abarca todas las longitudes. Si cubre más celdas de
+     * las que tienen algún hotel, como con un radio de miles de kilómetros, se recorren las
+     * celdas ocupadas en lugar de la rejilla.
+     */
+    @Override
+    public List<HotelCercano> cercanos(double lat, double lon, double radioKm, int limit, HotelQuery filtros) {
+        double margenLat = radioKm / KM_POR_GRADO;
+        double latMin = Math.max(lat - margenLat, -90), latMax = Math.min(lat + margenLat, 90);
+        // Los grados de longitud son más cortos en el extremo de la ventana más cercano al polo.
+        double cosLat = Math.cos(Math.toRadians(Math.max(Math.abs(latMin), Math.abs(latMax))));
+        double margenLon = cosLat > 1e-6 ? radioKm / (KM_POR_GRADO * cosLat) : 180;
+        int filaMin = fila(latMin), filaMax = fila(latMax);
+        List<int[]> columnas = new ArrayList<>(2);
+        if (margenLon >= 180) {
+            columnas.add(new int[]{columna(-180), columna(180)});
+        } else {
+            double desde = lon - margenLon, hasta = lon + margenLon;
+            if (desde < -180) {
+                columnas.add(new int[]{columna(desde + 360), columna(180)});
+                desde = -180;
+            }
+            if (hasta > 180) {
+                columnas.add(new int[]{columna(-180), columna(hasta - 360)});
+                hasta = 180;
+            }
+            columnas.add(new int[]{columna(desde), columna(hasta)});
+        }
+        long cubiertas = 0;
+        for (int[] rango : columnas) cubiertas += (long) (filaMax - filaMin + 1) * (rango[1] - rango[0] + 1);
+
+        // Montículo de máximos con los k más cercanos vistos hasta ahora.
+        PriorityQueue<HotelCercano> mejores = new PriorityQueue<>(
+                Comparator.comparingDouble(HotelCercano::distanciaKm).reversed());
+        lock.readLock().lock();
+        try {
+            if (cubiertas > celdas.size()) {
+                for (List<Hotel> celda : celdas.values()) considerar(celda, lat, lon, radioKm, limit, filtros, mejores);
+            } else {
+                for (int[] rango : columnas) {
+                    for (int f = filaMin; f <= filaMax; f++) {
+                        for (int c = rango[0]; c <= rango[1]; c++) {
+                            List<Hotel> celda = celdas.get(clave(f, c));
+                            if (celda != null) considerar(celda, lat, lon, radioKm, limit, filtros, mejores);
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<HotelCercano> resultado = new ArrayList<>(mejores);
+        resultado.sort(Comparator.comparingDouble(HotelCercano::distanciaKm));
+        return resultado;
+    }
+
+    /**
+     * Añade a los mejores los hoteles de una celda que están dentro del radio y son más
+     * cercanos que el más lejano de los que ya hay.
+     */
+    private static void considerar(List<Hotel> celda, double lat, double lon, double radioKm, int limit,
+                                   HotelQuery filtros, PriorityQueue<HotelCercano> mejores) {
+        for (Hotel hotel : celda) {
+            if (!filtros.incluye(hotel)) continue;
+            double distancia = distanciaKm(lat, lon, hotel.getLocation().getY(), hotel.getLocation().getX());
+            if (distancia > radioKm) continue;
+            if (mejores.size() < limit) {
+                mejores.add(new HotelCercano(hotel, distancia));
+            } else if (distancia < mejores.peek().distanciaKm()) {
+                mejores.poll();
+                mejores.add(new HotelCercano(hotel, distancia));
+            }
+        }
+    }
+
+    private void anadir(Hotel hotel) {
+        GeoJsonPoint posicion = hotel.getLocation();
+        if (posicion == null || hotel.get_id() == null) return;
+        long clave = clave(fila(posicion.getY()), columna(posicion.getX()));
+        celdas.computeIfAbsent(clave, k -> new ArrayList<>()).add(hotel);
+        celdaPorHotel.put(hotel.get_id(), clave);
+    }
+
+    private void quitar(String id) {
+        Long clave = celdaPorHotel.remove(id);
+        if (clave == null) return;
+        List<Hotel> celda = celdas.get(clave);
+        celda.removeIf(h -> id.equals(h.get_id()));
+        if (celda.isEmpty()) celdas.remove(clave);
+    }
+
+    private int fila(double lat) {
+        return (int) Math.floor(lat / tamanoCelda);
+    }
+
+    private int columna(double lon) {
+        return (int) Math.floor(lon / tamanoCelda);
+    }
+
+    private static long clave(int fila, int columna) {
+        return ((long) fila << 32) | (columna & 0xffffffffL);
+    }
+
+    /**
+     * Distancia sobre la esfera terrestre con la fórmula del semiverseno.
+     */
+    static double distanciaKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * RADIO_TIERRA_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+}
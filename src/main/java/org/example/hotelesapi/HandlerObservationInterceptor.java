@@ -0,0 +1,91 @@
+package org.example.hotelesapi;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+
+import java.util.Collection;
+
+/**
+ * Observa cada petición a un controlador como {@code hoteles.peticion}, con el controlador
+ * y el método que la atienden, y el renderizado de la vista como {@code hoteles.vista}.
+ * Como documentos devueltos cuenta los que el controlador o la vista anotan con
+ * {@link #devueltos} o, en las vistas, los hoteles del modelo.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class HandlerObservationInterceptor implements HandlerInterceptor {
+
+    private static final String PETICION = HandlerObservationInterceptor.class.getName() + ".peticion";
+    private static final String VISTA = HandlerObservationInterceptor.class.getName() + ".vista";
+    private static final String DEVUELTOS = HandlerObservationInterceptor.class.getName() + ".devueltos";
+
+    @Autowired
+    ObjectProvider<ObservationRegistry> observationRegistry;
+
+    /**
+     * Anota el número de hoteles que se envían en la respuesta de la petición.
+     *
+     * @param request Petición en curso.
+     * @param hoteles Número de hoteles devueltos.
+     */
+    public static void devueltos(HttpServletRequest request, long hoteles) {
+        request.setAttribute(DEVUELTOS, hoteles);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod metodo)) return true;
+        Observation peticion = Observation.createNotStarted("hoteles.peticion", HotelObservationContext::new, registro())
+                .lowCardinalityKeyValue("controlador", metodo.getBeanType().getSimpleName())
+                .lowCardinalityKeyValue("metodo", metodo.getMethod().getName())
+                .start();
+        request.setAttribute(PETICION, peticion);
+        return true;
+    }
+
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler,
+                           ModelAndView modelAndView) {
+        if (modelAndView == null) return;
+        String nombre = modelAndView.getViewName();
+        if (nombre == null && modelAndView.getView() instanceof HotelFragmentCache.Vista listado) nombre = listado.plantilla();
+        if (nombre == null) return;
+        Object hoteles = modelAndView.getModel().get("hoteles");
+        if (hoteles instanceof Collection<?> lista) devueltos(request, lista.size());
+        else if (modelAndView.getModel().get("hotel") != null) devueltos(request, 1);
+        Observation vista = Observation.createNotStarted("hoteles.vista", registro())
+                .lowCardinalityKeyValue("vista", nombre)
+                .start();
+        request.setAttribute(VISTA, vista);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(VISTA) instanceof Observation vista) {
+            if (ex != null) vista.error(ex);
+            vista.stop();
+        }
+        if (request.getAttribute(PETICION) instanceof Observation peticion) {
+            if (request.getAttribute(DEVUELTOS) instanceof Long hoteles
+                    && peticion.getContext() instanceof HotelObservationContext contexto) {
+                contexto.setDocumentos(hoteles);
+            }
+            peticion.lowCardinalityKeyValue("estado", String.valueOf(response.getStatus()));
+            if (ex != null) peticion.error(ex);
+            peticion.stop();
+        }
+    }
+
+    private ObservationRegistry registro() {
+        return observationRegistry.getIfAvailable(() -> ObservationRegistry.NOOP);
+    }
+}
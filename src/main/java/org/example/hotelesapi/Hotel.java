@@ -1,13 +1,47 @@
 package org.example.hotelesapi;
 
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.GeoSpatialIndexType;
+import org.springframework.data.mongodb.core.index.GeoSpatialIndexed;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import java.util.Comparator;
+
 @Document(collection = "hoteles")
+@CompoundIndexes({
+        @CompoundIndex(name = "provincia_modalidad_estrellas", def = "{'provinces': 1, 'modalities': 1, 'luxury': -1, 'stars': -1, '_id': 1}"),
+        @CompoundIndex(name = "provincia_estrellas", def = "{'provinces': 1, 'luxury': -1, 'stars': -1, '_id': 1}"),
+        @CompoundIndex(name = "modalidad_estrellas", def = "{'modalities': 1, 'luxury': -1, 'stars': -1, '_id': 1}"),
+        @CompoundIndex(name = "estrellas", def = "{'luxury': -1, 'stars': -1, '_id': 1}")
+})
 @Data
 public class Hotel {
+
+    /**
+     * Orden de los listados "por estrellas": primero gran lujo y después de más a menos estrellas.
+     */
+    public static final Sort ORDEN_ESTRELLAS = Sort.by(Sort.Direction.DESC, "luxury", "stars").and(Sort.by("_id"));
+
+    /**
+     * Mismo orden que {@link #ORDEN_ESTRELLAS} para ordenar hoteles en memoria.
+     */
+    public static final Comparator<Hotel> COMPARADOR_ESTRELLAS = Comparator.comparing(Hotel::isLuxury).reversed()
+            .thenComparing(Comparator.comparingInt(Hotel::getStars).reversed())
+            .thenComparing(Hotel::get_id, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    /**
+     * Orden por _id, el de los listados paginados sin ordenar.
+     */
+    public static final Comparator<Hotel> COMPARADOR_ID = Comparator.comparing(Hotel::get_id, Comparator.nullsLast(Comparator.naturalOrder()));
+
     @Id
     private String _id;
     private String categories;
@@ -25,6 +59,82 @@ public class Hotel {
     private String phone;
     private String postal_code;
     private String provinces;
+    @Indexed(unique = true, sparse = true)
     private String registration_code;
     private String road_name;
+
+    /**
+     * Número de estrellas obtenido de categories al guardar el hotel.
+     */
+    private int stars;
+
+    /**
+     * Indica si la categoría es de gran lujo, calculado al guardar el hotel.
+     */
+    private boolean luxury;
+
+    /**
+     * Posición GeoJSON obtenida de coord_x (longitud) y coord_y (latitud) al guardar el hotel,
+     * o null si las coordenadas no son válidas.
+     */
+    @JsonIgnore
+    @GeoSpatialIndexed(type = GeoSpatialIndexType.GEO_2DSPHERE)
+    private GeoJsonPoint location;
+
+    /**
+     * Recalcula los campos derivados de categories y de las coordenadas.
+     */
+    public void normalizar() {
+        this.stars = extraerNumero(categories);
+        this.luxury = esGranLujo(categories);
+        this.location = extraerPosicion(coord_x, coord_y);
+    }
+
+    /**
+     * Verifica si una categoría es de gran lujo.
+     *
+     * @param category Categoría del hotel.
+     * @return true si es de gran lujo, false en caso contrario.
+     */
+    public static boolean esGranLujo(String category) {
+        if (category == null) return false;
+        return category.toLowerCase().contains("lujo");
+    }
+
+    /**
+     * Extrae el número de estrellas de una categoría.
+     *
+     * @param category Categoría del hotel.
+     * @return Número de estrellas, 0 si no hay categoría o -1 si no se puede extraer.
+     */
+    public static int extraerNumero(String category) {
+        if (category == null || category.isEmpty()) {
+            return 0;
+        }
+        String[] partes = category.split(" ");
+        try {
+            return Integer.parseInt(partes[0]);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Convierte las coordenadas de texto en un punto GeoJSON. Admite coma o punto decimal.
+     *
+     * @param x Longitud.
+     * @param y Latitud.
+     * @return El punto o null si falta alguna coordenada o está fuera de rango.
+     */
+    public static GeoJsonPoint extraerPosicion(String x, String y) {
+        if (x == null || y == null || x.isBlank() || y.isBlank()) return null;
+        try {
+            double lon = Double.parseDouble(x.trim().replace(',', '.'));
+            double lat = Double.parseDouble(y.trim().replace(',', '.'));
+            if (lon < -180 || lon > 180 || lat < -90 || lat > 90) return null;
+            return new GeoJsonPoint(lon, lat);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
 }
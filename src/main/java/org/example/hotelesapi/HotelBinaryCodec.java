@@ -0,0 +1,389 @@
+package org.example.hotelesapi;
+
+import org.springframework.http.MediaType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Codificación binaria compacta de hoteles, alternativa al JSON para los consumidores que
+ * descargan el catálogo a menudo. El formato, en su versión 1, es:
+ * <ul>
+ *     <li>Cabecera: los bytes {@code HTL}, la versión y el esquema: el número de campos y, por
+ *     cada uno, su nombre y su tipo ({@code S} texto, {@code D} texto de diccionario,
+ *     {@code I} entero o {@code B} booleano).</li>
+ *     <li>Cada hotel: un byte 1 seguido de los valores en el orden del esquema. Un byte 0
+ *     marca el final.</li>
+ * </ul>
+ * Los enteros y longitudes van como varint sin signo, y los enteros con signo en zigzag. Un
+ * texto es 0 si es null o la longitud más uno seguida de los bytes UTF-8. Los textos de
+ * diccionario, para valores muy repetidos como la provincia o la modalidad, son 0 si es null,
+ * 1 seguido del texto la primera vez que aparece o la posición en el diccionario más dos las
+ * siguientes veces. El diccionario se construye a medida que se escribe, así que no hace falta
+ * conocer el listado entero de antemano.
+ * <p>
+ * Un campo conserva siempre su nombre y su tipo. Los campos nuevos se añaden al esquema y
+ * los lectores ignoran los que no conocen, así que el formato solo cambia de versión si se
+ * rompe esa regla.
+ * <p>
+ * La entrada puede venir de un cliente, así que al leer se rechaza con {@link IOException}
+ * cualquier número de campos, longitud o referencia que no quepa en los datos recibidos antes
+ * de reservar memoria para ella.
+ */
+public final class HotelBinaryCodec {
+
+    public static final MediaType MEDIA_TYPE = new MediaType("application", "vnd.hoteles.v1+bin");
+
+    private static final byte[] MAGICO = {'H', 'T', 'L'};
+    private static final int VERSION = 1;
+
+    /**
+     * Campos desconocidos que se admiten en el esquema además de los de {@link #CAMPOS}, para
+     * que un emisor más nuevo pueda añadir algunos sin que un número absurdo de campos reserve
+     * memoria antes de leer ningún hotel.
+     */
+    private static final int MARGEN_CAMPOS = 16;
+
+    private static final Map<String, Campo> CAMPOS = campos(
+            texto("_id", Hotel::get_id, Hotel::set_id),
+            diccionario("categories", Hotel::getCategories, Hotel::setCategories),
+            diccionario("category_id", Hotel::getCategory_id, Hotel::setCategory_id),
+            texto("coord_x", Hotel::getCoord_x, Hotel::setCoord_x),
+            texto("coord_y", Hotel::getCoord_y, Hotel::setCoord_y),
+            texto("establishment_address", Hotel::getEstablishment_address, Hotel::setEstablishment_address),
+            diccionario("group", Hotel::getGroup, Hotel::setGroup),
+            texto("holder", Hotel::getHolder, Hotel::setHolder),
+            texto("identification_doc_num", Hotel::getIdentification_doc_num, Hotel::setIdentification_doc_num),
+            texto("mobile", Hotel::getMobile, Hotel::setMobile),
+            diccionario("modalities", Hotel::getModalities, Hotel::setModalities),
+            diccionario("municipalities", Hotel::getMunicipalities, Hotel::setMunicipalities),
+            texto("name", Hotel::getName, Hotel::setName),
+            texto("phone", Hotel::getPhone, Hotel::setPhone),
+            diccionario("postal_code", Hotel::getPostal_code, Hotel::setPostal_code),
+            diccionario("provinces", Hotel::getProvinces, Hotel::setProvinces),
+            texto("registration_code", Hotel::getRegistration_code, Hotel::setRegistration_code),
+            texto("road_name", Hotel::getRoad_name, Hotel::setRoad_name),
+            new Campo("stars", 'I', Hotel::getStars, (hotel, valor) -> hotel.setStars((Integer) valor)),
+            new Campo("luxury", 'B', Hotel::isLuxury, (hotel, valor) -> hotel.setLuxury((Boolean) valor)));
+
+    private HotelBinaryCodec() {
+    }
+
+    /**
+     * Codifica una lista de hoteles.
+     *
+     * @param hoteles Hoteles a codificar.
+     * @param campos Campos que se incluyen.
+     * @return Bytes codificados.
+     */
+    public static byte[] codificar(List<Hotel> hoteles, HotelProjection campos) {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream(Math.max(64, hoteles.size() * 128));
+        try {
+            Escritor escritor = new Escritor(salida, campos);
+            for (Hotel hotel : hoteles) escritor.escribir(hotel);
+            escritor.terminar();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return salida.toByteArray();
+    }
+
+    /**
+     * Decodifica todos los hoteles de una entrada.
+     *
+     * @param entrada Bytes en el formato de esta clase.
+     * @return Hoteles leídos, con null en los campos que no venían.
+     * @throws IOException si la entrada no tiene el formato esperado o no se puede leer.
+     */
+    public static List<Hotel> decodificar(InputStream entrada) throws IOException {
+        return decodificar(ByteBuffer.wrap(entrada.readAllBytes()));
+    }
+
+    /**
+     * Decodifica todos los hoteles de un búfer, desde su posición, sin copiarlo antes a un
+     * array. Sirve para leer directamente un fichero proyectado en memoria.
+     *
+     * @param datos Bytes en el formato de esta clase.
+     * @return Hoteles leídos, con null en los campos que no venían.
+     * @throws IOException si los datos no tienen el formato esperado.
+     */
+    public static List<Hotel> decodificar(ByteBuffer datos) throws IOException {
+        Lector lector = new Lector(datos);
+        if (!Arrays.equals(lector.bytes(MAGICO.length), MAGICO)) throw new IOException("No es una lista de hoteles en binario");
+        int version = lector.octeto();
+        if (version != VERSION) throw new IOException("Versión no soportada: " + version);
+        int numCampos = lector.natural();
+        if (numCampos > CAMPOS.size() + MARGEN_CAMPOS) throw new IOException("Demasiados campos en el esquema: " + numCampos);
+        char[] tipos = new char[numCampos];
+        Campo[] campos = new Campo[numCampos];
+        for (int i = 0; i < numCampos; i++) {
+            String nombre = lector.texto(lector.natural());
+            tipos[i] = (char) lector.octeto();
+            Campo campo = CAMPOS.get(nombre);
+            if (campo != null && campo.tipo() == tipos[i]) campos[i] = campo;
+        }
+        List<String> diccionario = new ArrayList<>();
+        List<Hotel> hoteles = new ArrayList<>();
+        while (lector.octeto() == 1) {
+            Hotel hotel = new Hotel();
+            for (int i = 0; i < numCampos; i++) {
+                Object valor = switch (tipos[i]) {
+                    case 'S' -> {
+                        int longitud = lector.natural();
+                        yield longitud == 0 ? null : lector.texto(longitud - 1);
+                    }
+                    case 'D' -> lector.diccionario(diccionario);
+                    case 'I' -> {
+                        int n = lector.varint();
+                        yield (n >>> 1) ^ -(n & 1);
+                    }
+                    case 'B' -> lector.octeto() != 0;
+                    default -> throw new IOException("Tipo de campo desconocido: " + tipos[i]);
+                };
+                if (campos[i] != null) campos[i].escribir().accept(hotel, valor);
+            }
+            hoteles.add(hotel);
+        }
+        return hoteles;
+    }
+
+    /**
+     * Escribe hoteles uno a uno en una salida, empezando por la cabecera. Acumula los bytes en
+     * un búfer propio y los pasa a la salida en bloques.
+     */
+    public static final class Escritor {
+
+        private static final int TAMANO_BUFER = 8192;
+
+        private final OutputStream salida;
+        private final List<Campo> campos = new ArrayList<>();
+        private final Map<String, Integer> diccionario = new HashMap<>();
+        private final byte[] bufer = new byte[TAMANO_BUFER];
+        private int posicion;
+
+        /**
+         * Escribe la cabecera con el esquema de los campos indicados.
+         *
+         * @param salida Salida en la que escribir.
+         * @param proyeccion Campos que se incluyen.
+         * @throws IOException si falla la escritura.
+         */
+        public Escritor(OutputStream salida, HotelProjection proyeccion) throws IOException {
+            this.salida = salida;
+            for (String nombre : proyeccion.campos()) {
+                Campo campo = CAMPOS.get(nombre);
+                if (campo != null) campos.add(campo);
+            }
+            bytes(MAGICO);
+            octeto(VERSION);
+            varint(campos.size());
+            for (Campo campo : campos) {
+                byte[] nombre = campo.nombre().getBytes(StandardCharsets.UTF_8);
+                varint(nombre.length);
+                bytes(nombre);
+                octeto(campo.tipo());
+            }
+        }
+
+        /**
+         * Escribe un hotel con los campos del esquema.
+         *
+         * @param hotel Hotel a escribir.
+         * @throws IOException si falla la escritura.
+         */
+        public void escribir(Hotel hotel) throws IOException {
+            octeto(1);
+            for (Campo campo : campos) {
+                Object valor = campo.leer().apply(hotel);
+                switch (campo.tipo()) {
+                    case 'S' -> texto((String) valor);
+                    case 'D' -> diccionario((String) valor);
+                    case 'I' -> {
+                        int n = (Integer) valor;
+                        varint((n << 1) ^ (n >> 31));
+                    }
+                    default -> octeto((Boolean) valor ? 1 : 0);
+                }
+            }
+        }
+
+        /**
+         * Marca el final de la lista y pasa a la salida lo que quede en el búfer. No cierra la salida.
+         *
+         * @throws IOException si falla la escritura.
+         */
+        public void terminar() throws IOException {
+            octeto(0);
+            vaciar();
+        }
+
+        private void texto(String texto) throws IOException {
+            if (texto == null) {
+                octeto(0);
+                return;
+            }
+            byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+            varint(bytes.length + 1);
+            bytes(bytes);
+        }
+
+        private void diccionario(String texto) throws IOException {
+            if (texto == null) {
+                octeto(0);
+                return;
+            }
+            Integer indice = diccionario.get(texto);
+            if (indice != null) {
+                varint(indice + 2);
+                return;
+            }
+            diccionario.put(texto, diccionario.size());
+            octeto(1);
+            byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+            varint(bytes.length);
+            bytes(bytes);
+        }
+
+        private void varint(int valor) throws IOException {
+            if (posicion + 5 > bufer.length) vaciar();
+            while ((valor & ~0x7F) != 0) {
+                bufer[posicion++] = (byte) ((valor & 0x7F) | 0x80);
+                valor >>>= 7;
+            }
+            bufer[posicion++] = (byte) valor;
+        }
+
+        private void octeto(int valor) throws IOException {
+            if (posicion == bufer.length) vaciar();
+            bufer[posicion++] = (byte) valor;
+        }
+
+        private void bytes(byte[] bytes) throws IOException {
+            if (posicion + bytes.length > bufer.length) vaciar();
+            if (bytes.length > bufer.length) {
+                salida.write(bytes);
+                return;
+            }
+            System.arraycopy(bytes, 0, bufer, posicion, bytes.length);
+            posicion += bytes.length;
+        }
+
+        private void vaciar() throws IOException {
+            salida.write(bufer, 0, posicion);
+            posicion = 0;
+        }
+    }
+
+    /**
+     * Lee los valores del formato desde un búfer, que puede estar fuera del heap.
+     */
+    private static final class Lector {
+
+        private final ByteBuffer datos;
+        private byte[] texto = new byte[64];
+
+        Lector(ByteBuffer datos) {
+            this.datos = datos;
+        }
+
+        int octeto() throws IOException {
+            if (!datos.hasRemaining()) throw new EOFException("Faltan datos");
+            return datos.get() & 0xFF;
+        }
+
+        /**
+         * Lee un varint de 32 bits sin signo, como los enteros en zigzag.
+         */
+        int varint() throws IOException {
+            int valor = 0;
+            for (int desplazamiento = 0; desplazamiento < 28; desplazamiento += 7) {
+                int b = octeto();
+                valor |= (b & 0x7F) << desplazamiento;
+                if ((b & 0x80) == 0) return valor;
+            }
+            int b = octeto();
+            if (b > 0x0F) throw new IOException("Varint de más de 32 bits");
+            return valor | b << 28;
+        }
+
+        /**
+         * Lee un varint que no puede pasar de {@link Integer#MAX_VALUE}, como las longitudes,
+         * las marcas de diccionario o el número de campos.
+         */
+        int natural() throws IOException {
+            int valor = varint();
+            if (valor < 0) throw new IOException("Valor fuera de rango: " + Integer.toUnsignedString(valor));
+            return valor;
+        }
+
+        private void comprobarLongitud(int longitud) throws IOException {
+            if (longitud < 0) throw new IOException("Longitud negativa: " + longitud);
+            if (longitud > datos.remaining()) {
+                throw new EOFException("Longitud " + longitud + " mayor que los " + datos.remaining() + " bytes restantes");
+            }
+        }
+
+        byte[] bytes(int longitud) throws IOException {
+            comprobarLongitud(longitud);
+            byte[] bytes = new byte[longitud];
+            datos.get(bytes);
+            return bytes;
+        }
+
+        String texto(int longitud) throws IOException {
+            comprobarLongitud(longitud);
+            if (datos.hasArray()) {
+                String texto = new String(datos.array(), datos.arrayOffset() + datos.position(), longitud, StandardCharsets.UTF_8);
+                datos.position(datos.position() + longitud);
+                return texto;
+            }
+            // Fuera del heap se copia a un búfer reutilizado en lugar de crear un array por texto.
+            if (longitud > texto.length) texto = new byte[Math.max(longitud, texto.length * 2)];
+            datos.get(texto, 0, longitud);
+            return new String(texto, 0, longitud, StandardCharsets.UTF_8);
+        }
+
+        String diccionario(List<String> diccionario) throws IOException {
+            int marca = natural();
+            if (marca == 0) return null;
+            if (marca == 1) {
+                String texto = texto(natural());
+                diccionario.add(texto);
+                return texto;
+            }
+            if (marca - 2 >= diccionario.size()) throw new IOException("Referencia al diccionario no válida: " + marca);
+            return diccionario.get(marca - 2);
+        }
+    }
+
+    private static Campo texto(String nombre, Function<Hotel, String> leer, BiConsumer<Hotel, String> escribir) {
+        return new Campo(nombre, 'S', leer::apply, (hotel, valor) -> escribir.accept(hotel, (String) valor));
+    }
+
+    private static Campo diccionario(String nombre, Function<Hotel, String> leer, BiConsumer<Hotel, String> escribir) {
+        return new Campo(nombre, 'D', leer::apply, (hotel, valor) -> escribir.accept(hotel, (String) valor));
+    }
+
+    private static Map<String, Campo> campos(Campo... campos) {
+        Map<String, Campo> porNombre = new LinkedHashMap<>();
+        for (Campo campo : campos) porNombre.put(campo.nombre(), campo);
+        return porNombre;
+    }
+
+    private record Campo(String nombre, char tipo, Function<Hotel, Object> leer, BiConsumer<Hotel, Object> escribir) {
+    }
+}
@@ -0,0 +1,96 @@
+package org.example.hotelesapi;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.lang.Nullable;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Lee y escribe con {@link HotelBinaryCodec} los cuerpos Hotel y List&lt;Hotel&gt; de los
+ * controladores que no pasan por la caché de respuestas, como la consulta por id o la
+ * búsqueda por texto. Se registra detrás del conversor JSON para que JSON siga siendo el
+ * formato por defecto cuando el cliente acepta cualquiera.
+ */
+public class HotelBinaryMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public HotelBinaryMessageConverter() {
+        super(HotelBinaryCodec.MEDIA_TYPE);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return Hotel.class.isAssignableFrom(clazz);
+    }
+
+    /**
+     * Spring pregunta los tipos que se pueden producir solo con la clase del cuerpo; el tipo
+     * genérico de las listas se comprueba después en {@link #canWrite(Type, Class, MediaType)}.
+     */
+    @Override
+    public List<MediaType> getSupportedMediaTypes(Class<?> clazz) {
+        return supports(clazz) || Collection.class.isAssignableFrom(clazz) ? getSupportedMediaTypes() : List.of();
+    }
+
+    @Override
+    public boolean canRead(Type type, @Nullable Class<?> contextClass, @Nullable MediaType mediaType) {
+        return esHotelOLista(type) && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(@Nullable Type type, Class<?> clazz, @Nullable MediaType mediaType) {
+        return (type != null ? esHotelOLista(type) : supports(clazz)) && canWrite(mediaType);
+    }
+
+    /**
+     * Lee el cuerpo entero y lo decodifica. Los errores de formato se devuelven como
+     * {@link HttpMessageNotReadableException}, que Spring responde con 400; los de lectura del
+     * cuerpo se propagan tal cual.
+     */
+    @Override
+    public Object read(Type type, @Nullable Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+        byte[] cuerpo = inputMessage.getBody().readAllBytes();
+        List<Hotel> hoteles;
+        try {
+            hoteles = HotelBinaryCodec.decodificar(ByteBuffer.wrap(cuerpo));
+        } catch (IOException e) {
+            throw new HttpMessageNotReadableException("Cuerpo binario no válido: " + e.getMessage(), e, inputMessage);
+        }
+        if (!Hotel.class.equals(ResolvableType.forType(type).resolve())) return hoteles;
+        if (hoteles.size() != 1) {
+            throw new HttpMessageNotReadableException("Se esperaba un hotel y hay " + hoteles.size(), inputMessage);
+        }
+        return hoteles.get(0);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        return read(clazz, null, inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(Object cuerpo, @Nullable Type type, HttpOutputMessage outputMessage) throws IOException {
+        HotelBinaryCodec.Escritor escritor = new HotelBinaryCodec.Escritor(outputMessage.getBody(), HotelProjection.FULL);
+        if (cuerpo instanceof Hotel hotel) {
+            escritor.escribir(hotel);
+        } else {
+            for (Object hotel : (Collection<?>) cuerpo) escritor.escribir((Hotel) hotel);
+        }
+        escritor.terminar();
+    }
+
+    private static boolean esHotelOLista(Type type) {
+        ResolvableType tipo = ResolvableType.forType(type);
+        if (Hotel.class.isAssignableFrom(tipo.toClass())) return true;
+        return Collection.class.isAssignableFrom(tipo.toClass())
+                && Hotel.class.isAssignableFrom(tipo.asCollection().getGeneric(0).toClass());
+    }
+}
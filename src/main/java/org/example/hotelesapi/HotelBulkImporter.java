@@ -0,0 +1,209 @@
+package org.example.hotelesapi;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Importa hoteles en bloque desde NDJSON o CSV. La entrada se lee línea a línea y se escribe
+ * en lotes con {@link HotelRepository#guardarPorCodigo}, de modo que en memoria solo hay un
+ * lote cada vez y no se lee más entrada hasta que se ha escrito el lote anterior.
+ */
+@Service
+public class HotelBulkImporter {
+
+    /**
+     * Número máximo de filas rechazadas que se detallan en el resultado.
+     */
+    private static final int MAX_ERRORES = 100;
+
+    @Autowired
+    HotelRepository hotelRepository;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    HotelService hotelService;
+
+    private final int tamanoLote;
+
+    public HotelBulkImporter(@Value("${hoteles.importacion.tamano-lote:500}") int tamanoLote) {
+        this.tamanoLote = tamanoLote;
+    }
+
+    /**
+     * Importa hoteles en formato NDJSON, un objeto JSON por línea.
+     *
+     * @param entrada Cuerpo de la petición.
+     * @return Resumen de la importación.
+     * @throws IOException si falla la lectura de la entrada.
+     */
+    public ResultadoImportacion importarNdjson(InputStream entrada) throws IOException {
+        Importacion importacion = new Importacion();
+        try (importacion; BufferedReader lector = lector(entrada)) {
+            String linea;
+            long numero = 0;
+            while ((linea = lector.readLine()) != null) {
+                numero++;
+                if (linea.isBlank()) continue;
+                try {
+                    importacion.anadir(numero, objectMapper.readValue(linea, Hotel.class));
+                } catch (JsonProcessingException e) {
+                    importacion.rechazar(numero, "JSON no válido: " + e.getOriginalMessage());
+                }
+            }
+            return importacion.terminar();
+        }
+    }
+
+    /**
+     * Importa hoteles en formato CSV. La primera línea debe tener los nombres de los campos de
+     * Hotel; el separador puede ser coma o punto y coma.
+     *
+     * @param entrada Cuerpo de la petición.
+     * @return Resumen de la importación.
+     * @throws IOException si falla la lectura de la entrada.
+     */
+    public ResultadoImportacion importarCsv(InputStream entrada) throws IOException {
+        Importacion importacion = new Importacion();
+        try (importacion; BufferedReader lector = lector(entrada)) {
+            String cabecera = lector.readLine();
+            if (cabecera == null) return importacion.terminar();
+            if (cabecera.startsWith("\uFEFF")) cabecera = cabecera.substring(1);
+            char separador = cabecera.indexOf(';') >= 0 && cabecera.indexOf(',') < 0 ? ';' : ',';
+            List<String> campos = separarCsv(cabecera, separador);
+            String linea;
+            long numero = 1;
+            while ((linea = lector.readLine()) != null) {
+                numero++;
+                if (linea.isBlank()) continue;
+                List<String> valores = separarCsv(linea, separador);
+                if (valores.size() != campos.size()) {
+                    importacion.rechazar(numero, "Se esperaban " + campos.size() + " columnas y hay " + valores.size());
+                    continue;
+                }
+                Map<String, String> fila = new LinkedHashMap<>();
+                for (int i = 0; i < campos.size(); i++) {
+                    if (!valores.get(i).isEmpty()) fila.put(campos.get(i).trim(), valores.get(i));
+                }
+                try {
+                    importacion.anadir(numero, objectMapper.convertValue(fila, Hotel.class));
+                } catch (IllegalArgumentException e) {
+                    importacion.rechazar(numero, "Fila no válida: " + e.getMessage());
+                }
+            }
+            return importacion.terminar();
+        }
+    }
+
+    private static BufferedReader lector(InputStream entrada) {
+        return new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Separa una línea CSV en campos. Admite campos entre comillas dobles con el separador
+     * dentro y comillas escapadas duplicándolas; no admite saltos de línea dentro de un campo.
+     */
+    static List<String> separarCsv(String linea, char separador) {
+        List<String> campos = new ArrayList<>();
+        StringBuilder actual = new StringBuilder();
+        boolean entreComillas = false;
+        for (int i = 0; i < linea.length(); i++) {
+            char c = linea.charAt(i);
+            if (entreComillas) {
+                if (c == '"' && i + 1 < linea.length() && linea.charAt(i + 1) == '"') {
+                    actual.append('"');
+                    i++;
+                } else if (c == '"') {
+                    entreComillas = false;
+                } else {
+                    actual.append(c);
+                }
+            } else if (c == '"') {
+                entreComillas = true;
+            } else if (c == separador) {
+                campos.add(actual.toString());
+                actual.setLength(0);
+            } else {
+                actual.append(c);
+            }
+        }
+        campos.add(actual.toString());
+        return campos;
+    }
+
+    /**
+     * Estado de una importación en curso: el lote pendiente de escribir y los contadores.
+     */
+    private class Importacion implements AutoCloseable {
+
+        private final List<Hotel> lote = new ArrayList<>();
+        private final List<Long> lineas = new ArrayList<>();
+        private long leidas;
+        private long insertadas;
+        private long actualizadas;
+        private long duplicadas;
+        private long rechazadas;
+        private final List<ResultadoImportacion.Rechazo> errores = new ArrayList<>();
+
+        void anadir(long linea, Hotel hotel) {
+            String codigo = hotel.getRegistration_code();
+            if (codigo == null || codigo.isBlank()) {
+                rechazar(linea, "Falta registration_code");
+                return;
+            }
+            leidas++;
+            hotel.set_id(null);
+            hotel.normalizar();
+            lote.add(hotel);
+            lineas.add(linea);
+            if (lote.size() == tamanoLote) escribirLote();
+        }
+
+        void rechazar(long linea, String motivo) {
+            leidas++;
+            rechazadas++;
+            if (errores.size() < MAX_ERRORES) errores.add(new ResultadoImportacion.Rechazo(linea, motivo));
+        }
+
+        ResultadoImportacion terminar() {
+            if (!lote.isEmpty()) escribirLote();
+            return new ResultadoImportacion(leidas, insertadas, actualizadas, duplicadas, rechazadas, List.copyOf(errores));
+        }
+
+        /**
+         * Avisa de que el catálogo ha cambiado si se llegó a escribir algún lote, aunque la
+         * importación no haya terminado.
+         */
+        @Override
+        public void close() {
+            if (insertadas + actualizadas > 0) hotelService.catalogoRecargado();
+        }
+
+        private void escribirLote() {
+            EscrituraLote resultado = hotelRepository.guardarPorCodigo(lote);
+            insertadas += resultado.insertadas();
+            actualizadas += resultado.actualizadas();
+            duplicadas += resultado.duplicadas();
+            rechazadas += resultado.errores().size();
+            resultado.errores().stream()
+                    .limit(Math.max(0, MAX_ERRORES - errores.size()))
+                    .forEach(error -> errores.add(new ResultadoImportacion.Rechazo(lineas.get(error.posicion()), error.motivo())));
+            lote.clear();
+            lineas.clear();
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package org.example.hotelesapi;
+
+/**
+ * Evento que se publica cuando cambia un hotel del catálogo.
+ *
+ * @param anterior Hotel antes del cambio o null si es nuevo.
+ * @param actual Hotel después del cambio o null si se ha eliminado.
+ */
+public record HotelCambiadoEvent(Hotel anterior, Hotel actual) {
+}
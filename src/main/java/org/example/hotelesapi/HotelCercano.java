@@ -0,0 +1,10 @@
+package org.example.hotelesapi;
+
+/**
+ * Hotel encontrado en una búsqueda por proximidad.
+ *
+ * @param hotel Hotel encontrado.
+ * @param distanciaKm Distancia en kilómetros al punto de búsqueda.
+ */
+public record HotelCercano(Hotel hotel, double distanciaKm) {
+}
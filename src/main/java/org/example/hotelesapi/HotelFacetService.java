@@ -0,0 +1,51 @@
+package org.example.hotelesapi;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+/**
+ * Cuenta los hoteles por provincia, modalidad, estrellas y lujo con
+ * {@link HotelRepository#facetas}. Los resultados se guardan en caché por
+ * filtros y se invalidan con cada {@link HotelCambiadoEvent} que les afecta.
+ */
+@Service
+public class HotelFacetService {
+
+    @Autowired
+    HotelRepository hotelRepository;
+
+    private final TtlCache<HotelQuery, Facetas> cache;
+
+    public HotelFacetService(@Value("${hoteles.cache.max-entradas:500}") int maxEntradas,
+                             @Value("${hoteles.cache.ttl-segundos:600}") long ttlSegundos) {
+        this.cache = new TtlCache<>(maxEntradas, ttlSegundos);
+    }
+
+    /**
+     * Obtiene los recuentos de los hoteles que cumplen los filtros.
+     *
+     * @param filtros Filtros de provincia, modalidad, estrellas y lujo; se ignoran orden y página.
+     * @return Recuentos por faceta.
+     */
+    public Facetas facetas(HotelQuery filtros) {
+        HotelQuery clave = new HotelQuery(filtros.provincia(), filtros.modalidad(), filtros.estrellas(),
+                filtros.lujo(), false, null, null, HotelProjection.FULL);
+        return cache.get(clave, () -> hotelRepository.facetas(clave));
+    }
+
+    @EventListener
+    public void hotelCambiado(HotelCambiadoEvent event) {
+        cache.invalidarSi(q -> q.incluye(event.anterior()) || q.incluye(event.actual()));
+    }
+
+    @EventListener(CatalogoRecargadoEvent.class)
+    public void catalogoRecargado() {
+        cache.invalidarTodo();
+    }
+
+    public TtlCache.Estadisticas estadisticas() {
+        return cache.estadisticas();
+    }
+}
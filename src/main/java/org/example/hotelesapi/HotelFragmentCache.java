@@ -0,0 +1,220 @@
+package org.example.hotelesapi;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.View;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.context.WebContext;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.web.servlet.JakartaServletWebApplication;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Renderiza las páginas web de listados separando la parte de cada usuario de las filas de
+ * hoteles, que son iguales para todos. Las filas se renderizan una vez por consulta y se
+ * guardan como HTML hasta que cambia algún hotel afectado o se recarga el catálogo; el resto
+ * de la página (cabecera con el usuario, enlaces de paginación) se renderiza en cada petición.
+ * <p>
+ * La plantilla de la página define las filas en un fragmento {@code filas} que solo se pinta
+ * cuando hay variable {@code hoteles}, y marca con {@code th:utext="${filas}"} dónde van.
+ * La página se escribe en orden: primero la parte anterior a las filas, que el navegador
+ * recibe enseguida; después las filas, que al renderizarse se envían a la vez que se copian
+ * para la caché; y por último el resto de la página.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class HotelFragmentCache {
+
+    /**
+     * Marca que se pinta en lugar de las filas al renderizar la página.
+     */
+    private static final String MARCA = "<!--hoteles:filas-->";
+
+    @Autowired
+    HotelService hotelService;
+
+    @Autowired
+    SpringTemplateEngine templateEngine;
+
+    private final TtlCache<Clave, Filas> fragmentos;
+
+    public HotelFragmentCache(@Value("${hoteles.web.fragmentos.max-entradas:200}") int maxEntradas,
+                              @Value("${hoteles.web.fragmentos.max-bytes:33554432}") long maxBytes,
+                              @Value("${hoteles.cache.ttl-segundos:600}") long ttlSegundos) {
+        this.fragmentos = new TtlCache<>(maxEntradas, maxBytes, ttlSegundos, filas -> filas.html().length() * 2L);
+    }
+
+    /**
+     * Crea la vista de una página de listado.
+     *
+     * @param plantilla Plantilla de la página, con el fragmento {@code filas}.
+     * @param consulta Consulta de los hoteles que se listan, ya paginada.
+     * @return Vista que se renderiza con el modelo del controlador.
+     */
+    public Vista vista(String plantilla, HotelQuery consulta) {
+        return new Vista(plantilla, consulta);
+    }
+
+    @EventListener
+    public void hotelCambiado(HotelCambiadoEvent event) {
+        fragmentos.invalidarSi(c -> c.consulta().incluye(event.anterior()) || c.consulta().incluye(event.actual()));
+    }
+
+    @EventListener(CatalogoRecargadoEvent.class)
+    public void catalogoRecargado() {
+        fragmentos.invalidarTodo();
+    }
+
+    public TtlCache.Estadisticas estadisticas() {
+        return fragmentos.estadisticas();
+    }
+
+    /**
+     * Página de listado que se renderiza con las filas de la caché o, si no están, leyendo
+     * los hoteles y guardando las filas mientras se escriben.
+     */
+    public final class Vista implements View {
+
+        private final String plantilla;
+        private final HotelQuery consulta;
+
+        private Vista(String plantilla, HotelQuery consulta) {
+            this.plantilla = plantilla;
+            this.consulta = consulta;
+        }
+
+        public String plantilla() {
+            return plantilla;
+        }
+
+        @Override
+        public String getContentType() {
+            return "text/html;charset=UTF-8";
+        }
+
+        @Override
+        public void render(Map<String, ?> model, HttpServletRequest request, HttpServletResponse response)
+                throws IOException {
+            response.setContentType(getContentType());
+            PrintWriter salida = response.getWriter();
+            String[] pagina = {null};
+            Filas filas;
+            try {
+                filas = fragmentos.get(new Clave(plantilla, consulta), () -> {
+                    List<Hotel> hoteles = hotelService.buscar(consulta);
+                    String siguiente = consulta.paginada() && hoteles.size() == consulta.limit()
+                            ? consulta.cursor(hoteles.get(hoteles.size() - 1))
+                            : null;
+                    pagina[0] = pagina(model, siguiente, request, response);
+                    salida.write(pagina[0], 0, pagina[0].indexOf(MARCA));
+                    salida.flush();
+                    StringBuilder copia = new StringBuilder();
+                    templateEngine.process(plantilla, Set.of("filas"),
+                            new Context(request.getLocale(), Map.of("hoteles", hoteles)), new Bifurcacion(salida, copia));
+                    return new Filas(copia.toString(), siguiente, hoteles.size());
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            if (pagina[0] == null) {
+                pagina[0] = pagina(model, filas.siguiente(), request, response);
+                salida.write(pagina[0], 0, pagina[0].indexOf(MARCA));
+                salida.write(filas.html());
+            }
+            int fin = pagina[0].indexOf(MARCA) + MARCA.length();
+            salida.write(pagina[0], fin, pagina[0].length() - fin);
+            HandlerObservationInterceptor.devueltos(request, filas.hoteles());
+        }
+
+        /**
+         * Renderiza la página completa con la marca en lugar de las filas.
+         */
+        private String pagina(Map<String, ?> model, String siguiente, HttpServletRequest request,
+                              HttpServletResponse response) {
+            Map<String, Object> variables = new HashMap<>(model);
+            variables.put("filas", MARCA);
+            if (siguiente != null) {
+                variables.put("siguiente", ServletUriComponentsBuilder.fromRequest(request)
+                        .replaceQueryParam("after", siguiente)
+                        .replaceQueryParam("limit", consulta.limit())
+                        .toUriString());
+            }
+            WebContext contexto = new WebContext(JakartaServletWebApplication.buildApplication(request.getServletContext())
+                    .buildExchange(request, response), request.getLocale(), variables);
+            String pagina = templateEngine.process(plantilla, contexto);
+            if (!pagina.contains(MARCA)) {
+                throw new IllegalStateException("La plantilla " + plantilla + " no marca dónde van las filas");
+            }
+            return pagina;
+        }
+    }
+
+    /**
+     * Escribe en la respuesta y a la vez en la copia que se guarda en caché.
+     */
+    private static final class Bifurcacion extends Writer {
+
+        private final Writer salida;
+        private final StringBuilder copia;
+
+        Bifurcacion(Writer salida, StringBuilder copia) {
+            this.salida = salida;
+            this.copia = copia;
+        }
+
+        @Override
+        public void write(char[] texto, int desde, int longitud) {
+            try {
+                salida.write(texto, desde, longitud);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            copia.append(texto, desde, longitud);
+        }
+
+        @Override
+        public void write(String texto, int desde, int longitud) {
+            try {
+                salida.write(texto, desde, longitud);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            copia.append(texto, desde, desde + longitud);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private record Clave(String plantilla, HotelQuery consulta) {
+    }
+
+    /**
+     * Filas ya renderizadas de una página.
+     *
+     * @param html HTML de las filas.
+     * @param siguiente Cursor de la página siguiente, o null si no hay más.
+     * @param hoteles Número de hoteles de la página.
+     */
+    private record Filas(String html, String siguiente, int hoteles) {
+    }
+}
@@ -0,0 +1,21 @@
+package org.example.hotelesapi;
+
+import java.util.List;
+
+/**
+ * Búsqueda de los hoteles más cercanos a un punto.
+ */
+public interface HotelGeoIndex {
+
+    /**
+     * Busca los hoteles más cercanos a un punto que cumplan los filtros.
+     *
+     * @param lat Latitud del punto.
+     * @param lon Longitud del punto.
+     * @param radioKm Distancia máxima en kilómetros.
+     * @param limit Número máximo de hoteles.
+     * @param filtros Filtros de provincia, modalidad, estrellas y lujo; se ignoran orden y página.
+     * @return Hoteles ordenados de más cercano a más lejano.
+     */
+    List<HotelCercano> cercanos(double lat, double lon, double radioKm, int limit, HotelQuery filtros);
+}
@@ -0,0 +1,81 @@
+package org.example.hotelesapi;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.stream.Stream;
+
+/**
+ * Migración que rellena al arrancar los campos derivados de los hoteles guardados antes
+ * de que existieran. Solo toca los documentos a los que les falta alguno, así que
+ * ejecutarla varias veces no tiene efecto. Si MongoDB falla a mitad, se avisa y el arranque
+ * continúa; los hoteles que falten se migran en el siguiente.
+ */
+@Component
+@ConditionalOnProperty(name = "hoteles.migracion.enabled", havingValue = "true", matchIfMissing = true)
+public class HotelMigration implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(HotelMigration.class);
+
+    private static final int TAMANO_LOTE = 500;
+
+    @Autowired
+    MongoTemplate mongoTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Query pendientes = new Query(new Criteria().orOperator(
+                Criteria.where("stars").exists(false),
+                Criteria.where("luxury").exists(false),
+                Criteria.where("location").exists(false)));
+
+        int migrados = 0;
+        try {
+            BulkOperations lote = nuevoLote();
+            int enLote = 0;
+            try (Stream<Hotel> hoteles = mongoTemplate.stream(pendientes, Hotel.class)) {
+                for (Hotel hotel : (Iterable<Hotel>) hoteles::iterator) {
+                    hotel.normalizar();
+                    lote.updateOne(Query.query(Criteria.where("_id").is(hotel.get_id())), camposDerivados(hotel));
+                    if (++enLote == TAMANO_LOTE) {
+                        lote.execute();
+                        migrados += enLote;
+                        lote = nuevoLote();
+                        enLote = 0;
+                    }
+                }
+            }
+            if (enLote > 0) {
+                lote.execute();
+                migrados += enLote;
+            }
+        } catch (DataAccessException e) {
+            log.warn("Migración interrumpida tras {} hoteles, se reintentará en el próximo arranque: {}",
+                    migrados, e.getMostSpecificCause().getMessage());
+            return;
+        }
+        if (migrados > 0) log.info("Migrados {} hoteles con estrellas, lujo y posición normalizados", migrados);
+    }
+
+    private BulkOperations nuevoLote() {
+        return mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Hotel.class);
+    }
+
+    private Update camposDerivados(Hotel hotel) {
+        return new Update()
+                .set("stars", hotel.getStars())
+                .set("luxury", hotel.isLuxury())
+                .set("location", hotel.getLocation());
+    }
+}
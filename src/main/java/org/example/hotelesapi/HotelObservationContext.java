@@ -0,0 +1,20 @@
+package org.example.hotelesapi;
+
+import io.micrometer.observation.Observation;
+
+/**
+ * Contexto de las observaciones de acceso a hoteles. Además de la duración lleva el número
+ * de documentos leídos del repositorio o devueltos al cliente, para poder compararlos.
+ */
+public class HotelObservationContext extends Observation.Context {
+
+    private long documentos;
+
+    public long getDocumentos() {
+        return documentos;
+    }
+
+    public void setDocumentos(long documentos) {
+        this.documentos = documentos;
+    }
+}
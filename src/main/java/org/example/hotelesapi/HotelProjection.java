@@ -0,0 +1,101 @@
+package org.example.hotelesapi;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.bson.Document;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Campos de Hotel que se leen de MongoDB y se serializan en un listado. Forma parte de la
+ * clave de caché de {@link HotelQuery}, de modo que cada vista se cachea por separado.
+ *
+ * @param campos Propiedades JSON de Hotel que se devuelven; siempre incluye _id.
+ */
+public record HotelProjection(SortedSet<String> campos) {
+
+    /**
+     * Propiedades JSON de Hotel, en el mismo formato que en MongoDB.
+     */
+    public static final SortedSet<String> CAMPOS = Collections.unmodifiableSortedSet(Arrays.stream(Hotel.class.getDeclaredFields())
+            .filter(campo -> !Modifier.isStatic(campo.getModifiers()) && !campo.isAnnotationPresent(JsonIgnore.class))
+            .map(Field::getName)
+            .collect(Collectors.toCollection(TreeSet::new)));
+
+    /**
+     * Todos los campos, como hasta ahora.
+     */
+    public static final HotelProjection FULL = new HotelProjection(CAMPOS);
+
+    /**
+     * Los campos que muestran los listados de la web.
+     */
+    public static final HotelProjection SUMMARY = new HotelProjection(new TreeSet<>(Set.of("_id", "name", "categories",
+            "provinces", "modalities", "municipalities", "establishment_address", "phone", "stars", "luxury")));
+
+    /**
+     * La posición GeoJSON no se serializa en las respuestas y solo la usa $geoNear en el servidor.
+     */
+    private static final Document SIN_POSICION = new Document("location", 0);
+
+    public HotelProjection {
+        campos = Collections.unmodifiableSortedSet(new TreeSet<>(campos));
+    }
+
+    /**
+     * Interpreta el parámetro fields de un listado.
+     *
+     * @param fields "summary", "full" o una lista de propiedades separadas por comas; null o vacío equivale a "full".
+     * @return La proyección pedida.
+     * @throws IllegalArgumentException si alguna propiedad no existe en Hotel.
+     */
+    public static HotelProjection parse(String fields) {
+        if (fields == null || fields.isBlank() || fields.equals("full")) return FULL;
+        if (fields.equals("summary")) return SUMMARY;
+        SortedSet<String> campos = new TreeSet<>(Set.of("_id"));
+        for (String campo : fields.split(",")) {
+            String nombre = campo.trim();
+            if (!CAMPOS.contains(nombre)) throw new IllegalArgumentException("Campo no válido: " + nombre);
+            campos.add(nombre);
+        }
+        return campos.equals(CAMPOS) ? FULL : new HotelProjection(campos);
+    }
+
+    /**
+     * Indica si la proyección devuelve todos los campos.
+     */
+    public boolean completa() {
+        return campos.equals(CAMPOS);
+    }
+
+    /**
+     * Campos que hay que leer de MongoDB: los pedidos más luxury y stars, que hacen falta para
+     * calcular el cursor de la página siguiente en los listados ordenados.
+     *
+     * @return Nombres de los campos.
+     */
+    public SortedSet<String> leidos() {
+        SortedSet<String> leidos = new TreeSet<>(campos);
+        leidos.add("luxury");
+        leidos.add("stars");
+        return leidos;
+    }
+
+    /**
+     * Proyección equivalente para el driver de MongoDB.
+     *
+     * @return Documento de proyección.
+     */
+    public Document documento() {
+        if (completa()) return SIN_POSICION;
+        Document proyeccion = new Document();
+        leidos().forEach(campo -> proyeccion.append(campo, 1));
+        return proyeccion;
+    }
+}
@@ -0,0 +1,252 @@
+package org.example.hotelesapi;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.StringJoiner;
+
+/**
+ * Describe una consulta de listado de hoteles. Se traduce a una única consulta de MongoDB,
+ * se usa como clave de caché y sirve para saber qué resultados quedan afectados cuando
+ * cambia un hotel.
+ *
+ * @param provincia Provincia a filtrar o null para no filtrar.
+ * @param modalidad Modalidad a filtrar o null para no filtrar.
+ * @param estrellas Número de estrellas a filtrar o null para no filtrar.
+ * @param lujo true para quedarse solo con los de gran lujo o null para no filtrar.
+ * @param ordenada true para ordenar por lujo y estrellas.
+ * @param after Cursor devuelto por la página anterior o null para empezar desde el principio.
+ * @param limit Número máximo de hoteles a devolver o null para devolverlos todos.
+ * @param campos Campos que se leen y se devuelven; null equivale a todos.
+ */
+public record HotelQuery(String provincia, String modalidad, Integer estrellas, Boolean lujo, boolean ordenada,
+                         String after, Integer limit, HotelProjection campos) {
+
+    /**
+     * Tamaño de página cuando se pide un cursor sin indicar límite.
+     */
+    public static final int LIMITE_POR_DEFECTO = 100;
+
+    /**
+     * Tamaño máximo de página.
+     */
+    public static final int LIMITE_MAXIMO = 1000;
+
+    public HotelQuery {
+        campos = Objects.requireNonNullElse(campos, HotelProjection.FULL);
+    }
+
+    public static HotelQuery todos() {
+        return new HotelQuery(null, null, null, null, false, null, null, HotelProjection.FULL);
+    }
+
+    public static HotelQuery porProvincia(String provincia) {
+        return todos().conProvincia(provincia);
+    }
+
+    public static HotelQuery porModalidad(String modalidad) {
+        return todos().conModalidad(modalidad);
+    }
+
+    public HotelQuery conProvincia(String provincia) {
+        return new HotelQuery(provincia, modalidad, estrellas, lujo, ordenada, after, limit, campos);
+    }
+
+    public HotelQuery conModalidad(String modalidad) {
+        return new HotelQuery(provincia, modalidad, estrellas, lujo, ordenada, after, limit, campos);
+    }
+
+    public HotelQuery conEstrellas(Integer estrellas) {
+        return new HotelQuery(provincia, modalidad, estrellas, lujo, ordenada, after, limit, campos);
+    }
+
+    public HotelQuery soloLujo() {
+        return new HotelQuery(provincia, modalidad, estrellas, true, ordenada, after, limit, campos);
+    }
+
+    public HotelQuery ordenadaPorEstrellas() {
+        return new HotelQuery(provincia, modalidad, estrellas, lujo, true, after, limit, campos);
+    }
+
+    public HotelQuery conCampos(HotelProjection campos) {
+        return new HotelQuery(provincia, modalidad, estrellas, lujo, ordenada, after, limit, campos);
+    }
+
+    /**
+     * Limita la consulta a una página que empieza después del cursor indicado.
+     *
+     * @param pagina Cursor y tamaño pedidos; si no trae ninguno la consulta no se pagina.
+     * @return La consulta paginada.
+     * @throws IllegalArgumentException si el cursor no tiene un formato válido.
+     */
+    public HotelQuery conPagina(Pagina pagina) {
+        if (pagina == null || (pagina.after() == null && pagina.limit() == null)) return this;
+        if (pagina.after() != null && ordenada) partesCursor(pagina.after());
+        int tamano = pagina.limit() == null ? LIMITE_POR_DEFECTO : Math.max(1, Math.min(pagina.limit(), LIMITE_MAXIMO));
+        return new HotelQuery(provincia, modalidad, estrellas, lujo, ordenada, pagina.after(), tamano, campos);
+    }
+
+    /**
+     * Indica si la consulta devuelve solo una página del resultado.
+     */
+    public boolean paginada() {
+        return limit != null;
+    }
+
+    /**
+     * Describe la forma de la consulta sin sus valores, para agrupar métricas: los filtros que
+     * usa, el orden y si va paginada, por ejemplo {@code provincia+modalidad:estrellas:cursor}.
+     *
+     * @return Forma de la consulta.
+     */
+    public String forma() {
+        StringJoiner filtros = new StringJoiner("+");
+        if (provincia != null) filtros.add("provincia");
+        if (modalidad != null) filtros.add("modalidad");
+        if (estrellas != null) filtros.add("estrellas");
+        if (lujo != null) filtros.add("lujo");
+        String forma = filtros.length() == 0 ? "todos" : filtros.toString();
+        if (ordenada) forma += ":estrellas";
+        if (after != null) forma += ":cursor";
+        else if (paginada()) forma += ":pagina";
+        return forma;
+    }
+
+    /**
+     * Calcula el cursor con el que pedir la página siguiente a la que termina en un hotel.
+     * En las consultas sin ordenar es el _id; en las ordenadas por estrellas incluye también
+     * el lujo y las estrellas, con el formato {@code lujo.estrellas._id}.
+     *
+     * @param ultimo Último hotel de la página.
+     * @return El cursor.
+     */
+    public String cursor(Hotel ultimo) {
+        if (!ordenada) return ultimo.get_id();
+        return (ultimo.isLuxury() ? 1 : 0) + "." + ultimo.getStars() + "." + ultimo.get_id();
+    }
+
+    /**
+     * Traduce la consulta a MongoDB. Los filtros y el orden usan los campos normalizados
+     * stars y luxury para que los resuelvan los índices compuestos de Hotel.
+     *
+     * @return Consulta de MongoDB equivalente.
+     */
+    public Query aQuery() {
+        Criteria criteria = aCriteria();
+        if (after != null) criteria.andOperator(criterioSiguiente());
+        Query query = new Query(criteria);
+        if (ordenada) query.with(Hotel.ORDEN_ESTRELLAS);
+        else if (paginada()) query.with(Sort.by("_id"));
+        if (paginada()) query.limit(limit);
+        if (!campos.completa()) campos.leidos().forEach(query.fields()::include);
+        return query;
+    }
+
+    /**
+     * Evalúa la consulta en memoria sobre una colección de hoteles, con los mismos filtros,
+     * orden y página que {@link #aQuery()} en MongoDB.
+     *
+     * @param hoteles Hoteles sobre los que consultar.
+     * @return Hoteles que cumplen la consulta, en orden.
+     */
+    public List<Hotel> aplicar(Collection<Hotel> hoteles) {
+        var resultado = hoteles.stream().filter(this::incluye);
+        if (after != null) resultado = resultado.filter(this::vaDetrasDelCursor);
+        if (ordenada || paginada()) resultado = resultado.sorted(comparador());
+        if (paginada()) resultado = resultado.limit(limit);
+        return resultado.toList();
+    }
+
+    /**
+     * Orden en memoria equivalente al de {@link #aQuery()}.
+     *
+     * @return Comparador de hoteles.
+     */
+    public Comparator<Hotel> comparador() {
+        return ordenada ? Hotel.COMPARADOR_ESTRELLAS : Hotel.COMPARADOR_ID;
+    }
+
+    /**
+     * Traduce solo los filtros de la consulta, sin orden ni paginación.
+     *
+     * @return Criterio de MongoDB.
+     */
+    public Criteria aCriteria() {
+        Criteria criteria = new Criteria();
+        if (provincia != null) criteria.and("provinces").is(provincia);
+        if (modalidad != null) criteria.and("modalities").is(modalidad);
+        if (lujo != null) criteria.and("luxury").is(lujo);
+        if (estrellas != null) criteria.and("stars").is(estrellas);
+        return criteria;
+    }
+
+    /**
+     * Condición de los hoteles que van detrás del cursor en el orden de la consulta.
+     *
+     * @return Criterio de MongoDB.
+     */
+    private Criteria criterioSiguiente() {
+        if (!ordenada) return Criteria.where("_id").gt(after);
+        String[] partes = partesCursor(after);
+        boolean lujoCursor = partes[0].equals("1");
+        int estrellasCursor = Integer.parseInt(partes[1]);
+        return new Criteria().orOperator(
+                Criteria.where("luxury").lt(lujoCursor),
+                Criteria.where("luxury").is(lujoCursor).and("stars").lt(estrellasCursor),
+                Criteria.where("luxury").is(lujoCursor).and("stars").is(estrellasCursor).and("_id").gt(partes[2]));
+    }
+
+    private boolean vaDetrasDelCursor(Hotel hotel) {
+        if (hotel.get_id() == null) return false;
+        if (!ordenada) return hotel.get_id().compareTo(after) > 0;
+        String[] partes = partesCursor(after);
+        boolean lujoCursor = partes[0].equals("1");
+        int estrellasCursor = Integer.parseInt(partes[1]);
+        if (hotel.isLuxury() != lujoCursor) return !hotel.isLuxury();
+        if (hotel.getStars() != estrellasCursor) return hotel.getStars() < estrellasCursor;
+        return hotel.get_id().compareTo(partes[2]) > 0;
+    }
+
+    /**
+     * Hotel ficticio en la posición del cursor de una consulta ordenada por estrellas, para
+     * buscar con {@link Hotel#COMPARADOR_ESTRELLAS} los hoteles que van detrás.
+     *
+     * @return Hotel con el lujo, las estrellas y el _id del cursor.
+     */
+    public Hotel posicionCursor() {
+        String[] partes = partesCursor(after);
+        Hotel posicion = new Hotel();
+        posicion.setLuxury(partes[0].equals("1"));
+        posicion.setStars(Integer.parseInt(partes[1]));
+        posicion.set_id(partes[2]);
+        return posicion;
+    }
+
+    private static String[] partesCursor(String cursor) {
+        String[] partes = cursor.split("\\.", 3);
+        if (partes.length != 3 || !(partes[0].equals("0") || partes[0].equals("1"))) {
+            throw new IllegalArgumentException("Cursor no válido: " + cursor);
+        }
+        Integer.parseInt(partes[1]);
+        return partes;
+    }
+
+    /**
+     * Indica si un hotel forma parte del resultado de esta consulta.
+     *
+     * @param hotel Hotel a comprobar, puede ser null.
+     * @return true si el hotel cumple los filtros de la consulta.
+     */
+    public boolean incluye(Hotel hotel) {
+        if (hotel == null) return false;
+        if (provincia != null && !Objects.equals(provincia, hotel.getProvinces())) return false;
+        if (modalidad != null && !Objects.equals(modalidad, hotel.getModalities())) return false;
+        if (lujo != null && lujo != hotel.isLuxury()) return false;
+        return estrellas == null || estrellas == hotel.getStars();
+    }
+}
@@ -0,0 +1,90 @@
+package org.example.hotelesapi;
+
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+
+import java.util.List;
+
+/**
+ * Consulta de MongoDB ya compilada para una forma de {@link HotelQuery}: qué filtros lleva,
+ * el orden y el tipo de cursor. Se prepara una vez por forma y en cada petición solo se
+ * rellenan los valores y la proyección de {@link HotelProjection}, con documentos del driver,
+ * sin construir Criteria ni pasar por el mapeo de consultas de Spring Data.
+ */
+final class HotelQueryPlan {
+
+    private static final Document ORDEN_ID = new Document("_id", 1);
+    private static final Document ORDEN_ESTRELLAS = new Document("luxury", -1).append("stars", -1).append("_id", 1);
+
+    private final boolean provincia;
+    private final boolean modalidad;
+    private final boolean estrellas;
+    private final boolean lujo;
+    private final boolean ordenada;
+    private final boolean cursor;
+    private final boolean paginada;
+    private final Document orden;
+
+    HotelQueryPlan(HotelQuery forma) {
+        this.provincia = forma.provincia() != null;
+        this.modalidad = forma.modalidad() != null;
+        this.estrellas = forma.estrellas() != null;
+        this.lujo = forma.lujo() != null;
+        this.ordenada = forma.ordenada();
+        this.cursor = forma.after() != null;
+        this.paginada = forma.paginada();
+        this.orden = ordenada ? ORDEN_ESTRELLAS : paginada ? ORDEN_ID : null;
+    }
+
+    /**
+     * Prepara la consulta con los valores de una petición de esta forma.
+     *
+     * @param coleccion Colección de hoteles.
+     * @param consulta Consulta con la misma forma que la del plan.
+     * @return Consulta lista para ejecutar.
+     */
+    FindIterable<Document> preparar(MongoCollection<Document> coleccion, HotelQuery consulta) {
+        FindIterable<Document> busqueda = coleccion.find(filtro(consulta)).projection(consulta.campos().documento());
+        if (orden != null) busqueda.sort(orden);
+        if (paginada) busqueda.limit(consulta.limit());
+        return busqueda;
+    }
+
+    /**
+     * Filtro equivalente a {@link HotelQuery#aQuery()}.
+     */
+    Document filtro(HotelQuery consulta) {
+        Document filtro = new Document();
+        if (provincia) filtro.append("provinces", consulta.provincia());
+        if (modalidad) filtro.append("modalities", consulta.modalidad());
+        if (lujo) filtro.append("luxury", consulta.lujo());
+        if (estrellas) filtro.append("stars", consulta.estrellas());
+        if (cursor) filtro.putAll(siguiente(consulta.after()));
+        return filtro;
+    }
+
+    /**
+     * Condición de los hoteles que van detrás del cursor, como en {@link HotelQuery#aQuery()}.
+     * El cursor de una consulta ordenada ya se validó al paginarla.
+     */
+    private Document siguiente(String after) {
+        if (!ordenada) return new Document("_id", new Document("$gt", id(after)));
+        String[] partes = after.split("\\.", 3);
+        boolean lujoCursor = partes[0].equals("1");
+        int estrellasCursor = Integer.parseInt(partes[1]);
+        return new Document("$or", List.of(
+                new Document("luxury", new Document("$lt", lujoCursor)),
+                new Document("luxury", lujoCursor).append("stars", new Document("$lt", estrellasCursor)),
+                new Document("luxury", lujoCursor).append("stars", estrellasCursor)
+                        .append("_id", new Document("$gt", id(partes[2])))));
+    }
+
+    /**
+     * Los _id de Hotel se guardan como ObjectId cuando tienen ese formato, igual que al mapear con Spring Data.
+     */
+    private static Object id(String id) {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+}
@@ -0,0 +1,202 @@
+package org.example.hotelesapi;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Rankings de hoteles ya ordenados por lujo y estrellas ({@link Hotel#COMPARADOR_ESTRELLAS}):
+ * uno de todo el catálogo, uno por provincia, uno por modalidad y uno por provincia y
+ * modalidad. Con ellos los listados ordenados se sirven recorriendo el ranking desde el
+ * principio o desde el cursor, sin ordenar ni consultar MongoDB: los K mejores cuestan O(K)
+ * más la búsqueda del cursor, sea cual sea el tamaño del catálogo.
+ * <p>
+ * Cada ranking es un conjunto ordenado concurrente, así que las lecturas no bloquean; cada
+ * {@link HotelCambiadoEvent} quita el hotel de sus rankings y lo vuelve a insertar en su
+ * nueva posición. Se carga al arrancar y se vuelve a cargar con cada
+ * {@link CatalogoRecargadoEvent}. Los rankings nuevos se construyen aparte y sustituyen a los
+ * anteriores de una vez; los cambios que llegan mientras se lee el catálogo se guardan y se
+ * aplican a los nuevos antes de sustituirlos, así que no se pierde ninguno. Hasta la primera
+ * carga, o si MongoDB no responde, las consultas van al repositorio.
+ */
+@Component
+public class HotelRankingIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(HotelRankingIndex.class);
+
+    @Autowired
+    HotelRepository hotelRepository;
+
+    private final boolean activo;
+
+    /**
+     * Rankings actuales, o null hasta la primera carga.
+     */
+    private volatile Rankings rankings;
+
+    /**
+     * Cambios recibidos durante una carga, para aplicarlos a los rankings nuevos; null si no
+     * hay ninguna en curso. Se protege, como los rankings, con el monitor de este objeto.
+     */
+    private List<HotelCambiadoEvent> pendientes;
+
+    /**
+     * Evita que dos cargas se solapen y compartan {@link #pendientes}.
+     */
+    private final ReentrantLock carga = new ReentrantLock();
+
+    public HotelRankingIndex(@Value("${hoteles.rankings.enabled:true}") boolean activo) {
+        this.activo = activo;
+    }
+
+    @EventListener({ApplicationReadyEvent.class, CatalogoRecargadoEvent.class})
+    public void cargar() {
+        if (!activo) return;
+        carga.lock();
+        try {
+            synchronized (this) {
+                pendientes = new ArrayList<>();
+            }
+            List<Hotel> catalogo;
+            try {
+                catalogo = hotelRepository.findAll();
+            } catch (DataAccessException e) {
+                synchronized (this) {
+                    pendientes = null;
+                }
+                log.warn("No se han podido cargar los rankings: {}", e.getMostSpecificCause().getMessage());
+                return;
+            }
+            cargar(catalogo);
+        } finally {
+            carga.unlock();
+        }
+    }
+
+    /**
+     * Construye rankings nuevos con el catálogo, les aplica los cambios recibidos mientras se
+     * leía y sustituye con ellos los actuales.
+     *
+     * @param catalogo Todos los hoteles.
+     */
+    void cargar(Collection<Hotel> catalogo) {
+        Rankings nuevos = new Rankings();
+        catalogo.forEach(nuevos::anadir);
+        synchronized (this) {
+            if (pendientes != null) pendientes.forEach(nuevos::aplicar);
+            pendientes = null;
+            rankings = nuevos;
+        }
+    }
+
+    @EventListener
+    public synchronized void hotelCambiado(HotelCambiadoEvent event) {
+        if (pendientes != null) pendientes.add(event);
+        if (rankings != null) rankings.aplicar(event);
+    }
+
+    /**
+     * Resuelve con los rankings una consulta ordenada por estrellas, filtrada como mucho por
+     * provincia, modalidad y solo gran lujo.
+     *
+     * @param consulta Consulta de listado.
+     * @return Hoteles de la consulta en orden, o null si la consulta no se puede resolver con
+     * los rankings o aún no están cargados.
+     */
+    public List<Hotel> mejores(HotelQuery consulta) {
+        Rankings actuales = rankings;
+        if (!activo || actuales == null || !consulta.ordenada() || consulta.estrellas() != null
+                || Boolean.FALSE.equals(consulta.lujo())) {
+            return null;
+        }
+        NavigableSet<Hotel> ranking = actuales.ranking(consulta.provincia(), consulta.modalidad());
+        if (ranking == null) return List.of();
+        if (consulta.after() != null) ranking = ranking.tailSet(consulta.posicionCursor(), false);
+        Stream<Hotel> mejores = ranking.stream();
+        if (consulta.lujo() != null) mejores = mejores.takeWhile(Hotel::isLuxury);
+        if (consulta.paginada()) mejores = mejores.limit(consulta.limit());
+        return mejores.toList();
+    }
+
+    /**
+     * Un juego completo de rankings. Se modifica solo con el monitor de {@link HotelRankingIndex},
+     * o antes de publicarlo.
+     */
+    private static final class Rankings {
+
+        private final NavigableSet<Hotel> todos = new ConcurrentSkipListSet<>(Hotel.COMPARADOR_ESTRELLAS);
+        private final Map<String, NavigableSet<Hotel>> porProvincia = new ConcurrentHashMap<>();
+        private final Map<String, NavigableSet<Hotel>> porModalidad = new ConcurrentHashMap<>();
+        private final Map<Par, NavigableSet<Hotel>> porProvinciaYModalidad = new ConcurrentHashMap<>();
+
+        /**
+         * Versión de cada hotel que está en los rankings, para quitarlo de su posición.
+         */
+        private final Map<String, Hotel> hoteles = new HashMap<>();
+
+        void aplicar(HotelCambiadoEvent event) {
+            if (event.anterior() != null) quitar(event.anterior().get_id());
+            if (event.actual() != null) {
+                quitar(event.actual().get_id());
+                anadir(event.actual());
+            }
+        }
+
+        NavigableSet<Hotel> ranking(String provincia, String modalidad) {
+            if (provincia != null && modalidad != null) return porProvinciaYModalidad.get(new Par(provincia, modalidad));
+            if (provincia != null) return porProvincia.get(provincia);
+            if (modalidad != null) return porModalidad.get(modalidad);
+            return todos;
+        }
+
+        void anadir(Hotel hotel) {
+            if (hotel.get_id() == null) return;
+            hoteles.put(hotel.get_id(), hotel);
+            todos.add(hotel);
+            if (hotel.getProvinces() != null) anadir(porProvincia, hotel.getProvinces(), hotel);
+            if (hotel.getModalities() != null) anadir(porModalidad, hotel.getModalities(), hotel);
+            if (hotel.getProvinces() != null && hotel.getModalities() != null) {
+                anadir(porProvinciaYModalidad, new Par(hotel.getProvinces(), hotel.getModalities()), hotel);
+            }
+        }
+
+        private void quitar(String id) {
+            Hotel hotel = id != null ? hoteles.remove(id) : null;
+            if (hotel == null) return;
+            todos.remove(hotel);
+            if (hotel.getProvinces() != null) quitar(porProvincia, hotel.getProvinces(), hotel);
+            if (hotel.getModalities() != null) quitar(porModalidad, hotel.getModalities(), hotel);
+            if (hotel.getProvinces() != null && hotel.getModalities() != null) {
+                quitar(porProvinciaYModalidad, new Par(hotel.getProvinces(), hotel.getModalities()), hotel);
+            }
+        }
+
+        private static <K> void anadir(Map<K, NavigableSet<Hotel>> rankings, K clave, Hotel hotel) {
+            rankings.computeIfAbsent(clave, c -> new ConcurrentSkipListSet<>(Hotel.COMPARADOR_ESTRELLAS)).add(hotel);
+        }
+
+        private static <K> void quitar(Map<K, NavigableSet<Hotel>> rankings, K clave, Hotel hotel) {
+            NavigableSet<Hotel> ranking = rankings.get(clave);
+            if (ranking != null && ranking.remove(hotel) && ranking.isEmpty()) rankings.remove(clave);
+        }
+    }
+
+    private record Par(String provincia, String modalidad) {
+    }
+}
@@ -0,0 +1,63 @@
+package org.example.hotelesapi;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Consultas de hoteles que no se pueden expresar como consultas derivadas del repositorio.
+ * {@link HotelRepositoryImpl} las resuelve en MongoDB y {@link InMemoryHotelRepository} en memoria.
+ */
+public interface HotelRepositoryCustom {
+
+    /**
+     * Ejecuta una consulta de listado.
+     *
+     * @param consulta Filtros, orden y página del listado.
+     * @return Hoteles que cumplen la consulta, en orden.
+     */
+    List<Hotel> buscar(HotelQuery consulta);
+
+    /**
+     * Recorre el resultado de una consulta sin cargarlo entero en memoria. El stream debe cerrarse.
+     *
+     * @param consulta Filtros, orden y página del listado.
+     * @return Hoteles que cumplen la consulta, en orden.
+     */
+    Stream<Hotel> recorrer(HotelQuery consulta);
+
+    /**
+     * Cuenta los hoteles que cumplen unos filtros por provincia, modalidad, estrellas y lujo.
+     *
+     * @param filtros Filtros de la consulta; se ignoran orden y página.
+     * @return Recuentos por faceta.
+     */
+    Facetas facetas(HotelQuery filtros);
+
+    /**
+     * Crea o actualiza cada hotel según su registration_code. Los campos null no sobrescriben
+     * los del hotel existente. Si el lote tiene varios hoteles con el mismo código solo se
+     * escribe el último.
+     *
+     * @param hoteles Hoteles a escribir, ya normalizados y sin _id.
+     * @return Hoteles insertados, actualizados y descartados, y errores con su posición en el lote.
+     */
+    EscrituraLote guardarPorCodigo(List<Hotel> hoteles);
+
+    /**
+     * Posiciones de los hoteles de un lote que hay que escribir: la última aparición de cada
+     * registration_code, en el orden del lote.
+     *
+     * @param hoteles Lote de hoteles.
+     * @return Posiciones en el lote.
+     */
+    static int[] ultimosPorCodigo(List<Hotel> hoteles) {
+        Map<String, Integer> ultimo = new HashMap<>();
+        for (int i = 0; i < hoteles.size(); i++) ultimo.put(hoteles.get(i).getRegistration_code(), i);
+        return IntStream.range(0, hoteles.size())
+                .filter(i -> ultimo.get(hoteles.get(i).getRegistration_code()) == i)
+                .toArray();
+    }
+}
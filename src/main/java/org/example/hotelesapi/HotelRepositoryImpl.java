@@ -0,0 +1,139 @@
+package org.example.hotelesapi;
+
+import com.mongodb.MongoException;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.MongoCursor;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Implementación en MongoDB de {@link HotelRepositoryCustom}.
+ */
+public class HotelRepositoryImpl implements HotelRepositoryCustom {
+
+    @Autowired
+    MongoTemplate mongoTemplate;
+
+    /**
+     * Planes de consulta por forma. Hay pocas formas posibles, así que no hace falta acotarlo.
+     */
+    private final Map<String, HotelQueryPlan> planes = new ConcurrentHashMap<>();
+
+    @Override
+    public List<Hotel> buscar(HotelQuery consulta) {
+        try (Stream<Hotel> hoteles = recorrer(consulta)) {
+            return hoteles.toList();
+        } catch (MongoException e) {
+            throw traducir(e);
+        }
+    }
+
+    /**
+     * Ejecuta el plan compilado de la forma de la consulta y convierte cada documento en un
+     * Hotel a medida que sale del cursor. Los errores al abrir el cursor se traducen a
+     * {@link DataAccessException} como los de MongoTemplate; los de la lectura posterior llegan
+     * tal cual del driver.
+     */
+    @Override
+    public Stream<Hotel> recorrer(HotelQuery consulta) {
+        HotelQueryPlan plan = planes.computeIfAbsent(consulta.forma(), f -> new HotelQueryPlan(consulta));
+        MongoCursor<Document> cursor;
+        try {
+            cursor = plan.preparar(mongoTemplate.getCollection(mongoTemplate.getCollectionName(Hotel.class)), consulta)
+                    .cursor();
+        } catch (MongoException e) {
+            throw traducir(e);
+        }
+        MongoConverter conversor = mongoTemplate.getConverter();
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(cursor, Spliterator.ORDERED), false)
+                .map(documento -> conversor.read(Hotel.class, documento))
+                .onClose(cursor::close);
+    }
+
+    /**
+     * Cuenta con una única agregación $facet, sin traer los documentos.
+     */
+    @Override
+    public Facetas facetas(HotelQuery filtros) {
+        Aggregation agregacion = Aggregation.newAggregation(
+                Aggregation.match(filtros.aCriteria()),
+                Aggregation.facet(Aggregation.count().as("n")).as("total")
+                        .and(Aggregation.group("provinces").count().as("n")).as("provincias")
+                        .and(Aggregation.group("modalities").count().as("n")).as("modalidades")
+                        .and(Aggregation.group("stars").count().as("n")).as("estrellas")
+                        .and(Aggregation.group("luxury").count().as("n")).as("lujo"));
+        Document resultado = mongoTemplate.aggregate(agregacion, Hotel.class, Document.class).getUniqueMappedResult();
+        if (resultado == null) return new Facetas(0, Map.of(), Map.of(), Map.of(), Map.of());
+        List<Document> total = resultado.getList("total", Document.class);
+        return new Facetas(
+                total.isEmpty() ? 0 : total.get(0).get("n", Number.class).longValue(),
+                recuentos(resultado, "provincias", String.class::cast),
+                recuentos(resultado, "modalidades", String.class::cast),
+                recuentos(resultado, "estrellas", v -> ((Number) v).intValue()),
+                recuentos(resultado, "lujo", Boolean.class::cast));
+    }
+
+    /**
+     * Escribe el lote como upserts no ordenados, de modo que un error en un hotel no impide
+     * escribir el resto. Los códigos repetidos se quitan antes, porque dos upserts del mismo
+     * código en un lote no ordenado no tienen orden y con el índice único uno de ellos fallaría.
+     * La posición de cada error se traduce de la operación del lote al hotel de la entrada.
+     */
+    @Override
+    public EscrituraLote guardarPorCodigo(List<Hotel> hoteles) {
+        int[] posiciones = HotelRepositoryCustom.ultimosPorCodigo(hoteles);
+        long duplicadas = hoteles.size() - posiciones.length;
+        BulkOperations lote = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Hotel.class);
+        for (int posicion : posiciones) {
+            Hotel hotel = hoteles.get(posicion);
+            Document documento = new Document();
+            mongoTemplate.getConverter().write(hotel, documento);
+            documento.remove("_id");
+            Update update = new Update();
+            documento.forEach(update::set);
+            lote.upsert(Query.query(Criteria.where("registration_code").is(hotel.getRegistration_code())), update);
+        }
+        try {
+            BulkWriteResult resultado = lote.execute();
+            return new EscrituraLote(resultado.getUpserts().size(), resultado.getMatchedCount(), duplicadas, List.of());
+        } catch (BulkOperationException e) {
+            return new EscrituraLote(e.getResult().getUpserts().size(), e.getResult().getMatchedCount(), duplicadas,
+                    e.getErrors().stream()
+                            .map(error -> new EscrituraLote.Fallo(posiciones[error.getIndex()], error.getMessage()))
+                            .toList());
+        }
+    }
+
+    private static <K> Map<K, Long> recuentos(Document resultado, String faceta, Function<Object, K> clave) {
+        Map<K, Long> recuentos = new TreeMap<>();
+        for (Document grupo : resultado.getList(faceta, Document.class)) {
+            Object valor = grupo.get("_id");
+            if (valor != null) recuentos.put(clave.apply(valor), grupo.get("n", Number.class).longValue());
+        }
+        return recuentos;
+    }
+
+    private RuntimeException traducir(MongoException e) {
+        DataAccessException traducida = mongoTemplate.getExceptionTranslator().translateExceptionIfPossible(e);
+        return traducida != null ? traducida : e;
+    }
+}
@@ -0,0 +1,151 @@
+package org.example.hotelesapi;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Caché de los cuerpos de los listados de la API, ya serializados y comprimidos, para no
+ * repetir la serialización mientras el catálogo no cambie. Guarda por separado el JSON y la
+ * codificación de {@link HotelBinaryCodec} de cada consulta. Está acotada por
+ * número de entradas y por bytes, y se invalida con cada {@link HotelCambiadoEvent} que
+ * afecta a una consulta y con cada {@link CatalogoRecargadoEvent}. Las consultas con una
+ * {@link HotelProjection} parcial se serializan solo con sus campos.
+ */
+@Component
+public class HotelResponseCache {
+
+    /**
+     * Por debajo de este tamaño no compensa comprimir el cuerpo.
+     */
+    private static final int TAMANO_MINIMO_GZIP = 1024;
+
+    private static final String FILTRO_CAMPOS = "campos";
+
+    @Autowired
+    HotelService hotelService;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    ObjectProvider<ObservationRegistry> observationRegistry;
+
+    private final TtlCache<Clave, RespuestaSerializada> respuestas;
+
+    /**
+     * Copia del ObjectMapper de la aplicación con el filtro de campos en Hotel, para no
+     * cambiar la serialización de Hotel en el resto de respuestas.
+     */
+    private volatile ObjectMapper mapperFiltrado;
+
+    public HotelResponseCache(@Value("${hoteles.respuestas.max-entradas:500}") int maxEntradas,
+                              @Value("${hoteles.respuestas.max-bytes:67108864}") long maxBytes,
+                              @Value("${hoteles.cache.ttl-segundos:600}") long ttlSegundos) {
+        this.respuestas = new TtlCache<>(maxEntradas, maxBytes, ttlSegundos, RespuestaSerializada::tamano);
+    }
+
+    /**
+     * Obtiene el cuerpo serializado de una consulta, serializándolo si no está en caché.
+     *
+     * @param consulta Filtros, orden y página del listado.
+     * @return Cuerpo JSON y su variante comprimida.
+     */
+    public RespuestaSerializada obtener(HotelQuery consulta) {
+        return respuestas.get(new Clave(consulta, false), () -> serializar(consulta, false));
+    }
+
+    /**
+     * Obtiene el cuerpo de una consulta codificado con {@link HotelBinaryCodec}, codificándolo
+     * si no está en caché.
+     *
+     * @param consulta Filtros, orden y página del listado.
+     * @return Cuerpo binario y su variante comprimida.
+     */
+    public RespuestaSerializada obtenerBinario(HotelQuery consulta) {
+        return respuestas.get(new Clave(consulta, true), () -> serializar(consulta, true));
+    }
+
+    /**
+     * Obtiene el escritor JSON de hoteles que serializa solo los campos de una proyección.
+     *
+     * @param campos Campos a serializar.
+     * @return Escritor de Jackson.
+     */
+    public ObjectWriter escritor(HotelProjection campos) {
+        if (campos.completa()) return objectMapper.writer();
+        if (mapperFiltrado == null) {
+            mapperFiltrado = objectMapper.copy().addMixIn(Hotel.class, FiltroCampos.class);
+        }
+        return mapperFiltrado.writer(new SimpleFilterProvider()
+                .addFilter(FILTRO_CAMPOS, SimpleBeanPropertyFilter.filterOutAllExcept(campos.campos())));
+    }
+
+    @EventListener
+    public void hotelCambiado(HotelCambiadoEvent event) {
+        respuestas.invalidarSi(c -> c.consulta().incluye(event.anterior()) || c.consulta().incluye(event.actual()));
+    }
+
+    @EventListener(CatalogoRecargadoEvent.class)
+    public void catalogoRecargado() {
+        respuestas.invalidarTodo();
+    }
+
+    public TtlCache.Estadisticas estadisticas() {
+        return respuestas.estadisticas();
+    }
+
+    private RespuestaSerializada serializar(HotelQuery consulta, boolean binario) {
+        List<Hotel> hoteles = hotelService.buscar(consulta);
+        String siguiente = consulta.paginada() && hoteles.size() == consulta.limit()
+                ? consulta.cursor(hoteles.get(hoteles.size() - 1))
+                : null;
+        return Observation.createNotStarted("hoteles.serializacion", observationRegistry.getIfAvailable(() -> ObservationRegistry.NOOP))
+                .lowCardinalityKeyValue("forma", consulta.forma())
+                .lowCardinalityKeyValue("formato", binario ? "binario" : "json")
+                .observe(() -> {
+                    try {
+                        byte[] cuerpo = binario
+                                ? HotelBinaryCodec.codificar(hoteles, consulta.campos())
+                                : escritor(consulta.campos()).writeValueAsBytes(hoteles);
+                        return new RespuestaSerializada(cuerpo, cuerpo.length >= TAMANO_MINIMO_GZIP ? gzip(cuerpo) : null,
+                                siguiente, hoteles.size());
+                    } catch (JsonProcessingException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    private static byte[] gzip(byte[] datos) {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream(datos.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(salida)) {
+            gzip.write(datos);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return salida.toByteArray();
+    }
+
+    private record Clave(HotelQuery consulta, boolean binario) {
+    }
+
+    @JsonFilter(FILTRO_CAMPOS)
+    private abstract static class FiltroCampos {
+    }
+}
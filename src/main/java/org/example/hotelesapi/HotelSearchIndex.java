@@ -0,0 +1,459 @@
+package org.example.hotelesapi;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Índice invertido en memoria para buscar hoteles por texto en el nombre, el municipio,
+ * la calle y la dirección, sin distinguir mayúsculas ni tildes. Un árbol de prefijos sobre
+ * el vocabulario permite completar la última palabra mientras se escribe, y otro solo con las
+ * palabras de los nombres sirve para autocompletar.
+ * Se carga al arrancar, se actualiza con cada {@link HotelCambiadoEvent}
+ * y se vuelve a cargar con cada {@link CatalogoRecargadoEvent}. Los cambios que llegan mientras
+ * se lee el catálogo se aplican también después de cargarlo, para que la lista leída no los deshaga.
+ */
+@Component
+public class HotelSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(HotelSearchIndex.class);
+
+    private static final Pattern SEPARADORES = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+
+    /**
+     * Peso de cada campo en la puntuación: una coincidencia en el nombre vale más que en la dirección.
+     */
+    private static final float PESO_NOMBRE = 4f;
+    private static final float PESO_MUNICIPIO = 2f;
+    private static final float PESO_CALLE = 1f;
+    private static final float PESO_DIRECCION = 1f;
+
+    /**
+     * Factor que se aplica a los términos que solo coinciden por prefijo con la última palabra.
+     */
+    private static final float FACTOR_PREFIJO = 0.5f;
+
+    /**
+     * Número máximo de términos en los que se expande un prefijo.
+     */
+    private static final int MAX_EXPANSIONES = 64;
+
+    /**
+     * Si hay como mucho este número de nombres por cada sugerencia pedida que empiezan por el
+     * texto, se toman directamente del índice alfabético al autocompletar.
+     */
+    private static final int NOMBRES_POR_SUGERENCIA = 32;
+
+    @Autowired
+    HotelService hotelService;
+
+    private final Map<String, Hotel> hoteles = new HashMap<>();
+    private final Map<String, Map<String, Float>> indice = new HashMap<>();
+    private final Map<String, Nombre> nombres = new HashMap<>();
+    private final NavigableMap<String, Nombre> nombresAlfabeticos = new TreeMap<>();
+    private final Map<String, List<Nombre>> indiceNombres = new HashMap<>();
+    private final Map<String, Set<String>> terminosPorHotel = new HashMap<>();
+    private final PrefixTrie vocabulario = new PrefixTrie();
+    private final PrefixTrie vocabularioNombres = new PrefixTrie();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Cambios recibidos mientras se lee el catálogo, para aplicarlos después de cargarlo; null
+     * si no hay ninguna carga en curso. Se protege con el bloqueo de escritura.
+     */
+    private List<HotelCambiadoEvent> pendientes;
+
+    /**
+     * Evita que dos cargas se solapen y compartan {@link #pendientes}.
+     */
+    private final ReentrantLock carga = new ReentrantLock();
+
+    @EventListener({ApplicationReadyEvent.class, CatalogoRecargadoEvent.class})
+    public void cargar() {
+        carga.lock();
+        try {
+            conBloqueo(() -> pendientes = new ArrayList<>());
+            List<Hotel> todos;
+            try {
+                todos = hotelService.findAll();
+            } catch (DataAccessException e) {
+                conBloqueo(() -> pendientes = null);
+                log.warn("No se ha podido cargar el índice de búsqueda: {}", e.getMostSpecificCause().getMessage());
+                return;
+            }
+            conBloqueo(() -> {
+                vaciar();
+                todos.forEach(hotel -> anadir(hotel, false));
+                indiceNombres.values().forEach(conPalabra -> conPalabra.sort(Nombre.ORDEN));
+                // Lo que cambió mientras se leía el catálogo puede no estar en la lista leída.
+                pendientes.forEach(this::aplicar);
+                pendientes = null;
+            });
+        } finally {
+            carga.unlock();
+        }
+    }
+
+    @EventListener
+    public void hotelCambiado(HotelCambiadoEvent event) {
+        conBloqueo(() -> {
+            if (pendientes != null) pendientes.add(event);
+            aplicar(event);
+        });
+    }
+
+    private void aplicar(HotelCambiadoEvent event) {
+        if (event.anterior() != null) quitar(event.anterior().get_id());
+        if (event.actual() != null) {
+            // Un cambio sin versión anterior puede ser de un hotel que ya está en el índice.
+            quitar(event.actual().get_id());
+            anadir(event.actual(), true);
+        }
+    }
+
+    private void conBloqueo(Runnable accion) {
+        lock.writeLock().lock();
+        try {
+            accion.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Busca hoteles por texto. Cada palabra suma según el campo en que aparece y lo poco
+     * frecuente que es en el catálogo; la última palabra también cuenta como prefijo.
+     *
+     * @param texto Texto buscado.
+     * @param limit Número máximo de hoteles.
+     * @return Hoteles de mayor a menor puntuación.
+     */
+    public List<Hotel> buscar(String texto, int limit) {
+        List<String> palabras = terminos(texto);
+        if (palabras.isEmpty()) return List.of();
+        lock.readLock().lock();
+        try {
+            Map<String, Float> puntuaciones = new HashMap<>();
+            for (int i = 0; i < palabras.size(); i++) {
+                String palabra = palabras.get(i);
+                puntuar(palabra, 1f, puntuaciones);
+                if (i == palabras.size() - 1) {
+                    for (String termino : vocabulario.conPrefijo(palabra, MAX_EXPANSIONES)) {
+                        if (!termino.equals(palabra)) puntuar(termino, FACTOR_PREFIJO, puntuaciones);
+                    }
+                }
+            }
+            return puntuaciones.entrySet().stream()
+                    .sorted(Map.Entry.<String, Float>comparingByValue().reversed())
+                    .limit(limit)
+                    .map(e -> hoteles.get(e.getKey()))
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Propone hoteles cuyo nombre contiene todas las palabras escritas, la última como prefijo.
+     * <p>
+     * Las listas de nombres por palabra están ordenadas por categoría, así que se recorren en
+     * ese orden y se para en cuanto ya no puede aparecer una sugerencia mejor. Si hay palabras
+     * completas se recorre la que aparece en menos nombres; si solo hay un prefijo, se mezclan
+     * las listas de todos sus términos. Los nombres que empiezan por el texto se buscan antes en
+     * el índice alfabético: si son pocos se sabe ya cuáles van primero y basta recorrer hasta
+     * completar el resto; si son muchos, se para al encontrar limit de ellos.
+     *
+     * @param prefijo Texto escrito hasta el momento.
+     * @param limit Número máximo de sugerencias.
+     * @return Sugerencias, primero las de nombre que empieza por el texto y después las de más categoría.
+     */
+    public List<Sugerencia> autocompletar(String prefijo, int limit) {
+        List<String> palabras = terminos(prefijo);
+        if (palabras.isEmpty() || limit <= 0) return List.of();
+        String ultima = palabras.get(palabras.size() - 1);
+        List<String> completas = palabras.subList(0, palabras.size() - 1);
+        String inicio = String.join(" ", palabras);
+        Seleccion seleccion;
+        lock.readLock().lock();
+        try {
+            seleccion = new Seleccion(inicio, limit, empiezanPor(inicio, (int) Math.min(Integer.MAX_VALUE, (long) limit * NOMBRES_POR_SUGERENCIA)));
+            List<Nombre> menor = null;
+            for (String palabra : completas) {
+                List<Nombre> conPalabra = indiceNombres.get(palabra);
+                if (conPalabra == null) return List.of();
+                if (menor == null || conPalabra.size() < menor.size()) menor = conPalabra;
+            }
+            if (menor != null) {
+                for (Nombre nombre : menor) {
+                    if (nombre.contiene(completas) && nombre.primeraConPrefijo(ultima) != null && seleccion.anadir(nombre)) break;
+                }
+            } else {
+                PriorityQueue<Cursor> cursores = new PriorityQueue<>(Comparator.comparing(Cursor::actual, Nombre.ORDEN));
+                for (String termino : vocabularioNombres.conPrefijo(ultima, Integer.MAX_VALUE)) {
+                    cursores.add(new Cursor(termino, indiceNombres.get(termino)));
+                }
+                while (!cursores.isEmpty()) {
+                    Cursor cursor = cursores.poll();
+                    Nombre nombre = cursor.actual();
+                    // Un nombre con varias palabras de este prefijo se cuenta solo por la primera.
+                    if (nombre.primeraConPrefijo(ultima).equals(cursor.termino) && seleccion.anadir(nombre)) break;
+                    if (cursor.avanzar()) cursores.add(cursor);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return seleccion.resultado().stream()
+                .map(n -> new Sugerencia(n.hotel().get_id(), n.hotel().getName(), n.hotel().getMunicipalities()))
+                .toList();
+    }
+
+    /**
+     * @return Los nombres que empiezan por el texto en orden de categoría, o null si hay más de max.
+     */
+    private List<Nombre> empiezanPor(String inicio, int max) {
+        List<Nombre> empiezan = new ArrayList<>();
+        for (Nombre nombre : nombresAlfabeticos.subMap(inicio, inicio + Character.MAX_VALUE).values()) {
+            if (empiezan.size() == max) return null;
+            empiezan.add(nombre);
+        }
+        empiezan.sort(Nombre.ORDEN);
+        return empiezan;
+    }
+
+    /**
+     * Pasa un texto a minúsculas y le quita las tildes y demás marcas diacríticas.
+     *
+     * @param texto Texto original, puede ser null.
+     * @return Texto normalizado.
+     */
+    static String normalizar(String texto) {
+        if (texto == null) return "";
+        String sinMarcas = MARCAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return sinMarcas.toLowerCase(Locale.ROOT);
+    }
+
+    private static List<String> terminos(String texto) {
+        return Arrays.stream(SEPARADORES.split(normalizar(texto)))
+                .filter(t -> !t.isEmpty())
+                .toList();
+    }
+
+    private void puntuar(String termino, float factor, Map<String, Float> puntuaciones) {
+        Map<String, Float> apariciones = indice.get(termino);
+        if (apariciones == null) return;
+        float idf = (float) Math.log(1 + (double) hoteles.size() / apariciones.size());
+        apariciones.forEach((id, peso) -> puntuaciones.merge(id, peso * idf * factor, Float::sum));
+    }
+
+    /**
+     * Añade un hotel a los índices.
+     *
+     * @param enOrden Si se inserta en su sitio en las listas de nombres o se añade al final para
+     *                ordenarlas todas después, como al cargar el catálogo entero.
+     */
+    private void anadir(Hotel hotel, boolean enOrden) {
+        String id = hotel.get_id();
+        if (id == null) return;
+        hoteles.put(id, hotel);
+        Map<String, Float> pesos = new HashMap<>();
+        terminos(hotel.getName()).forEach(t -> pesos.merge(t, PESO_NOMBRE, Float::sum));
+        terminos(hotel.getMunicipalities()).forEach(t -> pesos.merge(t, PESO_MUNICIPIO, Float::sum));
+        terminos(hotel.getRoad_name()).forEach(t -> pesos.merge(t, PESO_CALLE, Float::sum));
+        terminos(hotel.getEstablishment_address()).forEach(t -> pesos.merge(t, PESO_DIRECCION, Float::sum));
+        pesos.forEach((termino, peso) -> {
+            indice.computeIfAbsent(termino, t -> {
+                vocabulario.anadir(t);
+                return new HashMap<>();
+            }).put(id, peso);
+        });
+        Nombre nombre = Nombre.de(hotel);
+        nombres.put(id, nombre);
+        nombresAlfabeticos.put(nombre.clave(), nombre);
+        for (String palabra : nombre.palabras()) {
+            List<Nombre> conPalabra = indiceNombres.computeIfAbsent(palabra, t -> {
+                vocabularioNombres.anadir(t);
+                return new ArrayList<>();
+            });
+            if (enOrden) {
+                conPalabra.add(-Collections.binarySearch(conPalabra, nombre, Nombre.ORDEN) - 1, nombre);
+            } else {
+                conPalabra.add(nombre);
+            }
+        }
+        terminosPorHotel.put(id, pesos.keySet());
+    }
+
+    private void vaciar() {
+        hoteles.clear();
+        indice.clear();
+        nombres.clear();
+        nombresAlfabeticos.clear();
+        indiceNombres.clear();
+        terminosPorHotel.clear();
+        vocabulario.vaciar();
+        vocabularioNombres.vaciar();
+    }
+
+    private void quitar(String id) {
+        if (hoteles.remove(id) == null) return;
+        for (String termino : terminosPorHotel.remove(id)) {
+            Map<String, Float> apariciones = indice.get(termino);
+            apariciones.remove(id);
+            if (apariciones.isEmpty()) {
+                indice.remove(termino);
+                vocabulario.quitar(termino);
+            }
+        }
+        Nombre nombre = nombres.remove(id);
+        nombresAlfabeticos.remove(nombre.clave());
+        for (String palabra : nombre.palabras()) {
+            List<Nombre> conPalabra = indiceNombres.get(palabra);
+            conPalabra.remove(Collections.binarySearch(conPalabra, nombre, Nombre.ORDEN));
+            if (conPalabra.isEmpty()) {
+                indiceNombres.remove(palabra);
+                vocabularioNombres.quitar(palabra);
+            }
+        }
+    }
+
+    /**
+     * Nombre de un hotel preparado al indexarlo para no normalizar ni calcular nada al
+     * autocompletar.
+     *
+     * @param hotel Hotel indexado.
+     * @param normalizado Palabras del nombre normalizadas y separadas por un espacio.
+     * @param palabras Palabras distintas del nombre en orden alfabético.
+     * @param rango Posición por categoría: menor cuanto más lujo y estrellas.
+     */
+    private record Nombre(Hotel hotel, String normalizado, String[] palabras, int rango) {
+
+        /**
+         * Orden de las listas de nombres por palabra: por categoría, después por nombre y por
+         * último por id, para que dos hoteles nunca empaten.
+         */
+        static final Comparator<Nombre> ORDEN = Comparator.comparingInt(Nombre::rango)
+                .thenComparing(Nombre::normalizado)
+                .thenComparing(n -> n.hotel().get_id());
+
+        static Nombre de(Hotel hotel) {
+            List<String> terminos = terminos(hotel.getName());
+            String[] palabras = terminos.stream().distinct().sorted().toArray(String[]::new);
+            int rango = -((hotel.isLuxury() ? 100 : 0) + hotel.getStars());
+            return new Nombre(hotel, String.join(" ", terminos), palabras, rango);
+        }
+
+        /**
+         * @return Clave en el índice alfabético: el nombre normalizado y el id, separados por un
+         * carácter que va antes que cualquier letra o número.
+         */
+        String clave() {
+            return normalizado + '\0' + hotel.get_id();
+        }
+
+        boolean contiene(List<String> buscadas) {
+            for (String buscada : buscadas) {
+                if (Arrays.binarySearch(palabras, buscada) < 0) return false;
+            }
+            return true;
+        }
+
+        /**
+         * @return La primera palabra en orden alfabético que empieza por el prefijo, o null.
+         */
+        String primeraConPrefijo(String prefijo) {
+            for (String palabra : palabras) {
+                if (palabra.startsWith(prefijo)) return palabra;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Posición en la lista de nombres de un término al mezclar las de todos los términos de un prefijo.
+     */
+    private static final class Cursor {
+
+        final String termino;
+        private final List<Nombre> nombres;
+        private int posicion;
+
+        Cursor(String termino, List<Nombre> nombres) {
+            this.termino = termino;
+            this.nombres = nombres;
+        }
+
+        Nombre actual() {
+            return nombres.get(posicion);
+        }
+
+        boolean avanzar() {
+            return ++posicion < nombres.size();
+        }
+    }
+
+    /**
+     * Sugerencias elegidas al recorrer los nombres por categoría: las que empiezan por el texto
+     * y, por si no llegan al límite, las primeras que no. Las que empiezan por el texto pueden
+     * conocerse de antemano.
+     */
+    private static final class Seleccion {
+
+        private final String inicio;
+        private final int limit;
+        private final boolean conocidas;
+        private final List<Nombre> empiezan;
+        private final List<Nombre> resto = new ArrayList<>();
+
+        /**
+         * @param empiezan Nombres que empiezan por el texto en orden de categoría, o null si no se conocen.
+         */
+        Seleccion(String inicio, int limit, List<Nombre> empiezan) {
+            this.inicio = inicio;
+            this.limit = limit;
+            this.conocidas = empiezan != null;
+            this.empiezan = conocidas ? empiezan.subList(0, Math.min(limit, empiezan.size())) : new ArrayList<>();
+        }
+
+        /**
+         * @return true si ya no puede aparecer una sugerencia mejor y no hace falta seguir.
+         */
+        boolean anadir(Nombre nombre) {
+            if (nombre.normalizado().startsWith(inicio)) {
+                if (!conocidas) empiezan.add(nombre);
+            } else if (resto.size() < limit) {
+                resto.add(nombre);
+            }
+            return empiezan.size() >= limit || conocidas && resto.size() >= limit - empiezan.size();
+        }
+
+        List<Nombre> resultado() {
+            List<Nombre> resultado = new ArrayList<>(empiezan);
+            resultado.addAll(resto.subList(0, Math.min(resto.size(), limit - empiezan.size())));
+            return resultado;
+        }
+    }
+}
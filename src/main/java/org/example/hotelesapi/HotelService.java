@@ -0,0 +1,214 @@
+package org.example.hotelesapi;
+
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Acceso a los hoteles con caché de resultados. Las lecturas se sirven desde memoria
+ * mientras no caduquen y las escrituras invalidan solo las consultas afectadas.
+ * Cada escritura publica un {@link HotelCambiadoEvent} para que el resto de índices en
+ * memoria se actualicen.
+ */
+@Service
+public class HotelService {
+
+    @Autowired
+    HotelRepository hotelRepository;
+
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    HotelRankingIndex hotelRankingIndex;
+
+    @Autowired
+    ObjectProvider<CatalogSnapshot> catalogSnapshot;
+
+    private final TtlCache<HotelQuery, List<Hotel>> listas;
+    private final TtlCache<String, Optional<Hotel>> porId;
+
+    public HotelService(@Value("${hoteles.cache.max-entradas:500}") int maxEntradas,
+                        @Value("${hoteles.cache.ttl-segundos:600}") long ttlSegundos) {
+        this.listas = new TtlCache<>(maxEntradas, ttlSegundos);
+        this.porId = new TtlCache<>(maxEntradas * 10, ttlSegundos);
+    }
+
+    public List<Hotel> findAll() {
+        return buscar(HotelQuery.todos());
+    }
+
+    public List<Hotel> findHotelesByProvinces(String provinces) {
+        return buscar(HotelQuery.porProvincia(provinces));
+    }
+
+    public List<Hotel> findHotelesByModalities(String modalities) {
+        return buscar(HotelQuery.porModalidad(modalities));
+    }
+
+    /**
+     * Ejecuta una consulta de listado. Las ordenadas por estrellas se sirven de los rankings
+     * en memoria cuando pueden; justo después de arrancar, de la instantánea del catálogo si
+     * la hay; el resto va al repositorio, o a la caché si ya se hizo.
+     *
+     * @param consulta Filtros y orden del listado.
+     * @return Hoteles que cumplen la consulta.
+     */
+    public List<Hotel> buscar(HotelQuery consulta) {
+        List<Hotel> ranking = hotelRankingIndex.mejores(consulta);
+        if (ranking != null) return ranking;
+        List<Hotel> instantanea = instantanea(consulta);
+        if (instantanea != null) return instantanea;
+        return listas.get(consulta, () -> List.copyOf(hotelRepository.buscar(consulta)));
+    }
+
+    /**
+     * Recorre el resultado de una consulta directamente desde el cursor del repositorio, sin
+     * cargarlo entero en memoria ni pasar por la caché, o desde los rankings o la instantánea
+     * del catálogo si la consulta se puede resolver con ellos.
+     *
+     * @param consulta Filtros, orden y página del listado.
+     * @param accion Acción a ejecutar con cada hotel, en orden.
+     */
+    public void recorrer(HotelQuery consulta, Consumer<Hotel> accion) {
+        List<Hotel> ranking = hotelRankingIndex.mejores(consulta);
+        if (ranking == null) ranking = instantanea(consulta);
+        if (ranking != null) {
+            ranking.forEach(accion);
+            return;
+        }
+        try (Stream<Hotel> hoteles = hotelRepository.recorrer(consulta)) {
+            hoteles.forEachOrdered(accion);
+        }
+    }
+
+    public Optional<Hotel> findById(String id) {
+        CatalogSnapshot instantanea = catalogSnapshot.getIfAvailable();
+        Optional<Hotel> hotel = instantanea != null ? instantanea.findById(id) : null;
+        if (hotel != null) return hotel;
+        return porId.get(id, () -> hotelRepository.findById(id));
+    }
+
+    /**
+     * Guarda un hotel e invalida las consultas en las que estaba o pasa a estar.
+     *
+     * @param hotel Hotel a guardar.
+     * @return El hotel guardado.
+     */
+    public Hotel save(Hotel hotel) {
+        hotel.normalizar();
+        Hotel anterior = hotel.get_id() != null ? hotelRepository.findById(hotel.get_id()).orElse(null) : null;
+        Hotel guardado = hotelRepository.save(hotel);
+        invalidar(anterior, guardado);
+        eventPublisher.publishEvent(new HotelCambiadoEvent(anterior, guardado));
+        return guardado;
+    }
+
+    /**
+     * Guarda varios hoteles en una escritura en bloque e invalida las consultas en las que
+     * estaban o pasan a estar. Si todos son nuevos se insertan con una sola operación.
+     * <p>
+     * A los nuevos se les asigna el ID antes de escribirlos, de modo que si la inserción falla a
+     * medias se pueden volver a guardar sin duplicar los que sí se insertaron.
+     *
+     * @param hoteles Hoteles a guardar.
+     * @return Los hoteles guardados.
+     */
+    public List<Hotel> saveAll(List<Hotel> hoteles) {
+        hoteles.forEach(Hotel::normalizar);
+        List<String> ids = hoteles.stream().map(Hotel::get_id).filter(Objects::nonNull).toList();
+        Map<String, Hotel> anteriores = new HashMap<>();
+        if (!ids.isEmpty()) hotelRepository.findAllById(ids).forEach(h -> anteriores.put(h.get_id(), h));
+        for (Hotel hotel : hoteles) {
+            if (hotel.get_id() == null) hotel.set_id(new ObjectId().toHexString());
+        }
+        List<Hotel> guardados = ids.isEmpty() ? hotelRepository.insert(hoteles) : hotelRepository.saveAll(hoteles);
+        for (Hotel guardado : guardados) {
+            Hotel anterior = anteriores.get(guardado.get_id());
+            invalidar(anterior, guardado);
+            eventPublisher.publishEvent(new HotelCambiadoEvent(anterior, guardado));
+        }
+        return guardados;
+    }
+
+    /**
+     * Elimina un hotel e invalida las consultas en las que aparecía.
+     *
+     * @param id ID del hotel.
+     */
+    public void deleteById(String id) {
+        Hotel anterior = hotelRepository.findById(id).orElse(null);
+        hotelRepository.deleteById(id);
+        invalidar(anterior, null);
+        porId.invalidar(id);
+        if (anterior != null) eventPublisher.publishEvent(new HotelCambiadoEvent(anterior, null));
+    }
+
+    /**
+     * Elimina varios hoteles con una sola operación e invalida las consultas en las que aparecían.
+     *
+     * @param ids IDs de los hoteles.
+     */
+    public void deleteAllById(List<String> ids) {
+        List<Hotel> anteriores = hotelRepository.findAllById(ids);
+        hotelRepository.deleteAllById(ids);
+        ids.forEach(porId::invalidar);
+        for (Hotel anterior : anteriores) {
+            invalidar(anterior, null);
+            eventPublisher.publishEvent(new HotelCambiadoEvent(anterior, null));
+        }
+    }
+
+    /**
+     * Aplica un cambio de un hotel hecho por otra instancia de la aplicación: invalida las
+     * consultas afectadas y publica el {@link HotelCambiadoEvent} como si se hubiera hecho aquí.
+     *
+     * @param anterior Hotel antes del cambio o null si es nuevo.
+     * @param actual Hotel después del cambio o null si se ha eliminado.
+     */
+    public void cambioExterno(Hotel anterior, Hotel actual) {
+        invalidar(anterior, actual);
+        if (anterior != null && anterior.get_id() != null) porId.invalidar(anterior.get_id());
+        eventPublisher.publishEvent(new HotelCambiadoEvent(anterior, actual));
+    }
+
+    /**
+     * Vacía las cachés y avisa con un {@link CatalogoRecargadoEvent} tras cambios en el
+     * catálogo hechos sin pasar por este servicio, como una importación masiva.
+     */
+    public void catalogoRecargado() {
+        listas.invalidarTodo();
+        porId.invalidarTodo();
+        eventPublisher.publishEvent(new CatalogoRecargadoEvent());
+    }
+
+    /**
+     * Obtiene los contadores de las cachés.
+     *
+     * @return Estadísticas por caché.
+     */
+    public Map<String, TtlCache.Estadisticas> estadisticas() {
+        return Map.of("listas", listas.estadisticas(), "porId", porId.estadisticas());
+    }
+
+    private List<Hotel> instantanea(HotelQuery consulta) {
+        CatalogSnapshot instantanea = catalogSnapshot.getIfAvailable();
+        return instantanea != null ? instantanea.buscar(consulta) : null;
+    }
+
+    private void invalidar(Hotel anterior, Hotel actual) {
+        listas.invalidarSi(q -> q.incluye(anterior) || q.incluye(actual));
+        if (actual != null && actual.get_id() != null) porId.invalidar(actual.get_id());
+    }
+}
@@ -0,0 +1,246 @@
+package org.example.hotelesapi;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cola de escritura diferida para las altas y bajas de hoteles. Las peticiones se aceptan en
+ * cuanto la operación entra en una cola acotada en memoria; un hilo las saca en lotes de hasta
+ * {@code hoteles.escrituras.tamano-lote} y escribe cada tramo seguido de altas, o de bajas,
+ * con una sola operación en bloque. Mientras se escribe un lote se acumulan las siguientes, así
+ * que en una ráfaga los lotes crecen solos y sin ráfaga cada operación se escribe enseguida.
+ * Si un lote falla se reintentan sus operaciones una a una para que solo fallen las que no se
+ * pueden escribir.
+ * <p>
+ * El estado de cada operación se guarda durante {@code hoteles.escrituras.ttl-segundos}, igual
+ * que las claves de idempotencia: una petición que repite una clave recibe la operación de la
+ * primera en lugar de encolar otra. Al cerrar la aplicación se dejan de aceptar operaciones y se
+ * escribe lo que queda en la cola antes de cerrar la conexión con MongoDB.
+ */
+@Service
+@ConditionalOnProperty(name = "hoteles.escrituras.asincronas", havingValue = "true")
+public class HotelWriteBehindQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(HotelWriteBehindQueue.class);
+
+    @Autowired
+    HotelService hotelService;
+
+    private final BlockingQueue<Pendiente> cola;
+    private final int capacidad;
+    private final int tamanoLote;
+    private final long esperaCierreMs;
+    private final TtlCache<String, OperacionEscritura> operaciones;
+    private final TtlCache<String, Idempotencia> claves;
+    private final LongAdder completadas = new LongAdder();
+    private final LongAdder fallidas = new LongAdder();
+    private final LongAdder lotes = new LongAdder();
+    private volatile boolean aceptando = true;
+    private volatile Thread hilo;
+
+    public HotelWriteBehindQueue(@Value("${hoteles.escrituras.capacidad:10000}") int capacidad,
+                                 @Value("${hoteles.escrituras.tamano-lote:500}") int tamanoLote,
+                                 @Value("${hoteles.escrituras.max-operaciones:100000}") int maxOperaciones,
+                                 @Value("${hoteles.escrituras.ttl-segundos:3600}") long ttlSegundos,
+                                 @Value("${hoteles.escrituras.espera-cierre-segundos:30}") long esperaCierreSegundos) {
+        this.cola = new ArrayBlockingQueue<>(capacidad);
+        this.capacidad = capacidad;
+        this.tamanoLote = tamanoLote;
+        this.esperaCierreMs = TimeUnit.SECONDS.toMillis(esperaCierreSegundos);
+        this.operaciones = new TtlCache<>(maxOperaciones, ttlSegundos);
+        this.claves = new TtlCache<>(maxOperaciones, ttlSegundos);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        hilo = Thread.ofPlatform().name("escrituras-hoteles").start(this::ejecutar);
+    }
+
+    /**
+     * Deja de aceptar operaciones y espera a que se escriban las que hay en la cola.
+     */
+    @PreDestroy
+    public void detener() throws InterruptedException {
+        aceptando = false;
+        Thread escritor = hilo;
+        if (escritor == null) return;
+        escritor.join(esperaCierreMs);
+        if (escritor.isAlive()) {
+            log.warn("Quedan {} escrituras sin hacer tras esperar {} ms al cerrar", cola.size(), esperaCierreMs);
+        }
+    }
+
+    /**
+     * Encola el alta de un hotel.
+     *
+     * @param hotel Hotel a crear.
+     * @param clave Valor de la cabecera Idempotency-Key, o null.
+     * @return La operación aceptada, o la de la petición anterior con la misma clave.
+     * @throws IllegalArgumentException si la clave ya se usó con otra petición.
+     * @throws IllegalStateException si la cola está llena o cerrándose.
+     */
+    public OperacionEscritura encolarAlta(Hotel hotel, String clave) {
+        return encolar(OperacionEscritura.Tipo.ALTA, hotel, null, clave);
+    }
+
+    /**
+     * Encola la baja de un hotel.
+     *
+     * @param id ID del hotel a eliminar.
+     * @param clave Valor de la cabecera Idempotency-Key, o null.
+     * @return La operación aceptada, o la de la petición anterior con la misma clave.
+     * @throws IllegalArgumentException si la clave ya se usó con otra petición.
+     * @throws IllegalStateException si la cola está llena o cerrándose.
+     */
+    public OperacionEscritura encolarBaja(String id, String clave) {
+        return encolar(OperacionEscritura.Tipo.BAJA, null, id, clave);
+    }
+
+    /**
+     * Obtiene el estado de una operación.
+     *
+     * @param id Identificador de la operación.
+     * @return La operación, o null si no existe o ya no se guarda.
+     */
+    public OperacionEscritura operacion(String id) {
+        return operaciones.getIfPresent(id);
+    }
+
+    public Estadisticas estadisticas() {
+        return new Estadisticas(cola.size(), capacidad, completadas.sum(), fallidas.sum(), lotes.sum());
+    }
+
+    private synchronized OperacionEscritura encolar(OperacionEscritura.Tipo tipo, Hotel hotel, String id, String clave) {
+        if (!aceptando) throw new IllegalStateException("La cola de escrituras se está cerrando");
+        int huella = Objects.hash(tipo, hotel, id);
+        Idempotencia previa = clave != null ? claves.getIfPresent(clave) : null;
+        if (previa != null) {
+            if (previa.huella() != huella) {
+                throw new IllegalArgumentException("La clave de idempotencia ya se usó con otra petición");
+            }
+            OperacionEscritura operacion = operaciones.getIfPresent(previa.operacion());
+            if (operacion != null) return operacion;
+        }
+        OperacionEscritura operacion = OperacionEscritura.pendiente(UUID.randomUUID().toString(), tipo, id);
+        // Se guarda antes de encolarla para que el escritor no la complete antes de que exista.
+        operaciones.put(operacion.id(), operacion);
+        if (!cola.offer(new Pendiente(operacion, hotel))) {
+            operaciones.invalidar(operacion.id());
+            throw new IllegalStateException("La cola de escrituras está llena");
+        }
+        if (clave != null) claves.put(clave, new Idempotencia(operacion.id(), huella));
+        return operacion;
+    }
+
+    private void ejecutar() {
+        List<Pendiente> lote = new ArrayList<>(tamanoLote);
+        while (aceptando || !cola.isEmpty()) {
+            try {
+                Pendiente primera = cola.poll(100, TimeUnit.MILLISECONDS);
+                if (primera == null) continue;
+                lote.add(primera);
+                cola.drainTo(lote, tamanoLote - 1);
+                escribir(lote);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Error inesperado al escribir un lote de {} operaciones", lote.size(), e);
+            } finally {
+                lote.clear();
+            }
+        }
+    }
+
+    /**
+     * Escribe un lote por tramos seguidos del mismo tipo, para que una baja no se adelante a
+     * un alta anterior ni al revés.
+     */
+    private void escribir(List<Pendiente> lote) {
+        int desde = 0;
+        while (desde < lote.size()) {
+            OperacionEscritura.Tipo tipo = lote.get(desde).operacion().tipo();
+            int hasta = desde + 1;
+            while (hasta < lote.size() && lote.get(hasta).operacion().tipo() == tipo) hasta++;
+            List<Pendiente> tramo = lote.subList(desde, hasta);
+            try {
+                aplicar(tramo);
+                lotes.increment();
+            } catch (RuntimeException e) {
+                if (tramo.size() == 1) {
+                    fallar(tramo.get(0), e);
+                } else {
+                    log.warn("Falló un lote de {} escrituras; se reintentan una a una", tramo.size(), e);
+                    for (Pendiente pendiente : tramo) {
+                        try {
+                            aplicar(List.of(pendiente));
+                        } catch (RuntimeException error) {
+                            fallar(pendiente, error);
+                        }
+                    }
+                }
+            }
+            desde = hasta;
+        }
+    }
+
+    private void aplicar(List<Pendiente> tramo) {
+        if (tramo.get(0).operacion().tipo() == OperacionEscritura.Tipo.ALTA) {
+            hotelService.saveAll(tramo.stream().map(Pendiente::hotel).toList());
+            for (Pendiente pendiente : tramo) completar(pendiente, pendiente.hotel().get_id());
+        } else {
+            hotelService.deleteAllById(tramo.stream().map(p -> p.operacion().hotel()).distinct().toList());
+            for (Pendiente pendiente : tramo) completar(pendiente, pendiente.operacion().hotel());
+        }
+    }
+
+    private void completar(Pendiente pendiente, String hotel) {
+        completadas.increment();
+        operaciones.put(pendiente.operacion().id(), pendiente.operacion().completada(hotel));
+    }
+
+    private void fallar(Pendiente pendiente, RuntimeException error) {
+        fallidas.increment();
+        operaciones.put(pendiente.operacion().id(), pendiente.operacion().fallida(error.getMessage()));
+    }
+
+    /**
+     * Operación en la cola con el hotel que se crea, si es un alta.
+     */
+    private record Pendiente(OperacionEscritura operacion, Hotel hotel) {
+    }
+
+    /**
+     * Operación aceptada con una clave de idempotencia y huella de la petición que la usó.
+     */
+    private record Idempotencia(String operacion, int huella) {
+    }
+
+    /**
+     * Estado de la cola de escrituras.
+     *
+     * @param enCola Operaciones pendientes de escribir.
+     * @param capacidad Operaciones que caben en la cola.
+     * @param completadas Operaciones escritas desde el arranque.
+     * @param fallidas Operaciones que no se han podido escribir desde el arranque.
+     * @param lotes Escrituras en bloque hechas desde el arranque.
+     */
+    public record Estadisticas(int enCola, int capacidad, long completadas, long fallidas, long lotes) {
+    }
+}
@@ -0,0 +1,148 @@
+package org.example.hotelesapi;
+
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Repository;
+
+import java.beans.PropertyDescriptor;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * {@link HotelRepository} en memoria para el perfil offline. Las consultas de listado se
+ * evalúan con {@link HotelQuery#aplicar}, con el mismo resultado y orden que en MongoDB.
+ */
+@Repository
+@Profile("offline")
+public class InMemoryHotelRepository extends InMemoryRepository<Hotel> implements HotelRepository {
+
+    /**
+     * _id de cada hotel por registration_code, para las importaciones.
+     */
+    private final Map<String, String> idPorCodigo = new ConcurrentHashMap<>();
+
+    public InMemoryHotelRepository() {
+        super(Hotel::new, Hotel::get_id, Hotel::set_id);
+    }
+
+    /**
+     * Rechaza un registration_code que ya tiene otro hotel, como el índice único en MongoDB.
+     */
+    @Override
+    protected void antesDeGuardar(Hotel actual) {
+        String codigo = actual.getRegistration_code();
+        String otro = codigo != null ? idPorCodigo.get(codigo) : null;
+        if (otro != null && !otro.equals(actual.get_id())) {
+            throw new DuplicateKeyException("Ya existe un hotel con registration_code " + codigo + ": " + otro);
+        }
+    }
+
+    @Override
+    protected void alGuardar(Hotel anterior, Hotel actual) {
+        if (anterior != null && anterior.getRegistration_code() != null) {
+            idPorCodigo.remove(anterior.getRegistration_code(), anterior.get_id());
+        }
+        if (actual.getRegistration_code() != null) idPorCodigo.put(actual.getRegistration_code(), actual.get_id());
+    }
+
+    @Override
+    protected void alEliminar(Hotel eliminado) {
+        if (eliminado.getRegistration_code() != null) {
+            idPorCodigo.remove(eliminado.getRegistration_code(), eliminado.get_id());
+        }
+    }
+
+    @Override
+    public List<Hotel> findHotelesByProvinces(String provinces) {
+        return filtrar(hotel -> Objects.equals(provinces, hotel.getProvinces()));
+    }
+
+    @Override
+    public List<Hotel> findHotelesByModalities(String modalities) {
+        return filtrar(hotel -> Objects.equals(modalities, hotel.getModalities()));
+    }
+
+    @Override
+    public List<Hotel> buscar(HotelQuery consulta) {
+        return consulta.aplicar(entidades.values()).stream().map(this::copiar).toList();
+    }
+
+    @Override
+    public Stream<Hotel> recorrer(HotelQuery consulta) {
+        return buscar(consulta).stream();
+    }
+
+    @Override
+    public Facetas facetas(HotelQuery filtros) {
+        Map<String, Long> provincias = new TreeMap<>();
+        Map<String, Long> modalidades = new TreeMap<>();
+        Map<Integer, Long> estrellas = new TreeMap<>();
+        Map<Boolean, Long> lujo = new TreeMap<>();
+        long total = 0;
+        for (Hotel hotel : entidades.values()) {
+            if (!filtros.incluye(hotel)) continue;
+            total++;
+            if (hotel.getProvinces() != null) provincias.merge(hotel.getProvinces(), 1L, Long::sum);
+            if (hotel.getModalities() != null) modalidades.merge(hotel.getModalities(), 1L, Long::sum);
+            estrellas.merge(hotel.getStars(), 1L, Long::sum);
+            lujo.merge(hotel.isLuxury(), 1L, Long::sum);
+        }
+        return new Facetas(total, provincias, modalidades, estrellas, lujo);
+    }
+
+    /**
+     * Escribe solo el último hotel de cada código, igual que en MongoDB, y sigue con el resto
+     * del lote si uno falla.
+     */
+    @Override
+    public synchronized EscrituraLote guardarPorCodigo(List<Hotel> hoteles) {
+        int[] posiciones = HotelRepositoryCustom.ultimosPorCodigo(hoteles);
+        long insertadas = 0;
+        long actualizadas = 0;
+        List<EscrituraLote.Fallo> errores = new ArrayList<>();
+        for (int posicion : posiciones) {
+            Hotel hotel = hoteles.get(posicion);
+            String id = idPorCodigo.get(hotel.getRegistration_code());
+            Hotel existente = id != null ? entidades.get(id) : null;
+            try {
+                if (existente == null) {
+                    Hotel nuevo = copiar(hotel);
+                    nuevo.set_id(null);
+                    save(nuevo);
+                    insertadas++;
+                } else {
+                    Hotel actualizado = copiar(existente);
+                    copiarNoNulos(hotel, actualizado);
+                    actualizado.set_id(id);
+                    save(actualizado);
+                    actualizadas++;
+                }
+            } catch (DataAccessException e) {
+                errores.add(new EscrituraLote.Fallo(posicion, e.getMessage()));
+            }
+        }
+        return new EscrituraLote(insertadas, actualizadas, hoteles.size() - posiciones.length, errores);
+    }
+
+    /**
+     * Copia las propiedades no nulas, igual que el $set del upsert en MongoDB.
+     */
+    private static void copiarNoNulos(Hotel origen, Hotel destino) {
+        BeanWrapper desde = PropertyAccessorFactory.forBeanPropertyAccess(origen);
+        BeanWrapper hacia = PropertyAccessorFactory.forBeanPropertyAccess(destino);
+        for (PropertyDescriptor propiedad : desde.getPropertyDescriptors()) {
+            String nombre = propiedad.getName();
+            if (!desde.isReadableProperty(nombre) || !hacia.isWritableProperty(nombre)) continue;
+            Object valor = desde.getPropertyValue(nombre);
+            if (valor != null) hacia.setPropertyValue(nombre, valor);
+        }
+    }
+}
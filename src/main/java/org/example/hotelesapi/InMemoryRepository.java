@@ -0,0 +1,212 @@
+package org.example.hotelesapi;
+
+import org.bson.types.ObjectId;
+import org.springframework.beans.BeanUtils;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.repository.query.FluentQuery;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.StreamSupport;
+
+/**
+ * Base de los repositorios en memoria del perfil offline. Guarda las entidades en un mapa
+ * concurrente ordenado por _id y, como MongoDB, devuelve siempre copias, de modo que modificar
+ * una entidad leída no cambia la guardada hasta llamar a save. Las lecturas no bloquean; las
+ * escrituras se serializan para mantener coherentes los índices de las subclases.
+ * Las consultas por ejemplo (Example) y con orden no están soportadas.
+ *
+ * @param <T> tipo de la entidad
+ */
+public abstract class InMemoryRepository<T> implements MongoRepository<T, String> {
+
+    protected final ConcurrentSkipListMap<String, T> entidades = new ConcurrentSkipListMap<>();
+
+    private final Supplier<T> constructor;
+    private final Function<T, String> id;
+    private final BiConsumer<T, String> asignarId;
+
+    protected InMemoryRepository(Supplier<T> constructor, Function<T, String> id, BiConsumer<T, String> asignarId) {
+        this.constructor = constructor;
+        this.id = id;
+        this.asignarId = asignarId;
+    }
+
+    /**
+     * Se llama dentro de cada escritura antes de guardar, y puede impedirla lanzando una
+     * excepción, como haría un índice único.
+     */
+    protected void antesDeGuardar(T actual) {
+    }
+
+    /**
+     * Se llama dentro de cada escritura, con la versión anterior (o null) y la nueva.
+     */
+    protected void alGuardar(T anterior, T actual) {
+    }
+
+    /**
+     * Se llama dentro de cada borrado con la entidad eliminada.
+     */
+    protected void alEliminar(T eliminada) {
+    }
+
+    protected T copiar(T entidad) {
+        T copia = constructor.get();
+        BeanUtils.copyProperties(entidad, copia);
+        return copia;
+    }
+
+    /**
+     * Copias de las entidades que cumplen una condición, en orden de _id.
+     */
+    protected List<T> filtrar(Predicate<? super T> condicion) {
+        return entidades.values().stream().filter(condicion).map(this::copiar).toList();
+    }
+
+    @Override
+    public synchronized <S extends T> S save(S entidad) {
+        if (id.apply(entidad) == null) asignarId.accept(entidad, new ObjectId().toHexString());
+        T copia = copiar(entidad);
+        antesDeGuardar(copia);
+        T anterior = entidades.put(id.apply(entidad), copia);
+        alGuardar(anterior, copia);
+        return entidad;
+    }
+
+    @Override
+    public synchronized <S extends T> List<S> saveAll(Iterable<S> entidades) {
+        List<S> guardadas = new ArrayList<>();
+        for (S entidad : entidades) guardadas.add(save(entidad));
+        return guardadas;
+    }
+
+    @Override
+    public <S extends T> S insert(S entidad) {
+        return save(entidad);
+    }
+
+    @Override
+    public <S extends T> List<S> insert(Iterable<S> entidades) {
+        return saveAll(entidades);
+    }
+
+    @Override
+    public Optional<T> findById(String id) {
+        return Optional.ofNullable(entidades.get(id)).map(this::copiar);
+    }
+
+    @Override
+    public boolean existsById(String id) {
+        return entidades.containsKey(id);
+    }
+
+    @Override
+    public List<T> findAll() {
+        return filtrar(entidad -> true);
+    }
+
+    @Override
+    public List<T> findAllById(Iterable<String> ids) {
+        return StreamSupport.stream(ids.spliterator(), false)
+                .map(entidades::get)
+                .filter(entidad -> entidad != null)
+                .map(this::copiar)
+                .toList();
+    }
+
+    @Override
+    public List<T> findAll(Sort sort) {
+        if (sort.isSorted()) throw new UnsupportedOperationException("Orden no soportado en memoria: " + sort);
+        return findAll();
+    }
+
+    @Override
+    public Page<T> findAll(Pageable pagina) {
+        if (pagina.getSort().isSorted()) throw new UnsupportedOperationException("Orden no soportado en memoria: " + pagina.getSort());
+        if (pagina.isUnpaged()) return new PageImpl<>(findAll());
+        List<T> contenido = entidades.values().stream()
+                .skip(pagina.getOffset())
+                .limit(pagina.getPageSize())
+                .map(this::copiar)
+                .toList();
+        return new PageImpl<>(contenido, pagina, entidades.size());
+    }
+
+    @Override
+    public long count() {
+        return entidades.size();
+    }
+
+    @Override
+    public synchronized void deleteById(String id) {
+        T eliminada = entidades.remove(id);
+        if (eliminada != null) alEliminar(eliminada);
+    }
+
+    @Override
+    public void delete(T entidad) {
+        deleteById(id.apply(entidad));
+    }
+
+    @Override
+    public synchronized void deleteAllById(Iterable<? extends String> ids) {
+        ids.forEach(this::deleteById);
+    }
+
+    @Override
+    public synchronized void deleteAll(Iterable<? extends T> entidades) {
+        entidades.forEach(this::delete);
+    }
+
+    @Override
+    public synchronized void deleteAll() {
+        new ArrayList<>(entidades.keySet()).forEach(this::deleteById);
+    }
+
+    @Override
+    public <S extends T> Optional<S> findOne(Example<S> ejemplo) {
+        throw new UnsupportedOperationException("Consultas por ejemplo no soportadas en memoria");
+    }
+
+    @Override
+    public <S extends T> List<S> findAll(Example<S> ejemplo) {
+        throw new UnsupportedOperationException("Consultas por ejemplo no soportadas en memoria");
+    }
+
+    @Override
+    public <S extends T> List<S> findAll(Example<S> ejemplo, Sort sort) {
+        throw new UnsupportedOperationException("Consultas por ejemplo no soportadas en memoria");
+    }
+
+    @Override
+    public <S extends T> Page<S> findAll(Example<S> ejemplo, Pageable pagina) {
+        throw new UnsupportedOperationException("Consultas por ejemplo no soportadas en memoria");
+    }
+
+    @Override
+    public <S extends T> long count(Example<S> ejemplo) {
+        throw new UnsupportedOperationException("Consultas por ejemplo no soportadas en memoria");
+    }
+
+    @Override
+    public <S extends T> boolean exists(Example<S> ejemplo) {
+        throw new UnsupportedOperationException("Consultas por ejemplo no soportadas en memoria");
+    }
+
+    @Override
+    public <S extends T, R> R findBy(Example<S> ejemplo, Function<FluentQuery.FetchableFluentQuery<S>, R> consulta) {
+        throw new UnsupportedOperationException("Consultas por ejemplo no soportadas en memoria");
+    }
+}
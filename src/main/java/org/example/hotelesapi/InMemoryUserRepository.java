@@ -0,0 +1,59 @@
+package org.example.hotelesapi;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Repository;
+
+import java.util.Objects;
+
+/**
+ * {@link UserRepository} en memoria para el perfil offline. Publica los mismos eventos de
+ * guardado y borrado que MongoDB para que {@link UserCacheListener} mantenga al día la caché
+ * de tokens.
+ */
+@Repository
+@Profile("offline")
+public class InMemoryUserRepository extends InMemoryRepository<User> implements UserRepository {
+
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+
+    public InMemoryUserRepository() {
+        super(User::new, User::get_id, User::set_id);
+    }
+
+    @Override
+    protected void alGuardar(User anterior, User actual) {
+        eventPublisher.publishEvent(new AfterSaveEvent<>(copiar(actual), new Document("_id", actual.get_id()), "users"));
+    }
+
+    @Override
+    protected void alEliminar(User eliminado) {
+        eventPublisher.publishEvent(new AfterDeleteEvent<>(new Document("_id", eliminado.get_id()), User.class, "users"));
+    }
+
+    @Override
+    public User findByToken(String token) {
+        return filtrar(user -> Objects.equals(token, user.getToken())).stream().findFirst().orElse(null);
+    }
+
+    @Override
+    public Boolean existsByToken(String token) {
+        return entidades.values().stream().anyMatch(user -> Objects.equals(token, user.getToken()));
+    }
+
+    @Override
+    public Boolean existsByEmailAndUser(String email, String user) {
+        return entidades.values().stream()
+                .anyMatch(u -> Objects.equals(email, u.getEmail()) && Objects.equals(user, u.getUser()));
+    }
+
+    @Override
+    public User findByEmail(String email) {
+        return filtrar(user -> Objects.equals(email, user.getEmail())).stream().findFirst().orElse(null);
+    }
+}
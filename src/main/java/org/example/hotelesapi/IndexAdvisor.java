@@ -0,0 +1,286 @@
+package org.example.hotelesapi;
+
+import com.mongodb.MongoClientSettings;
+import com.mongodb.MongoException;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import jakarta.annotation.PreDestroy;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Asesor de índices para las consultas que la aplicación hace de verdad a MongoDB. Se queda
+ * con uno de cada {@code hoteles.indices.asesor.muestreo} comandos {@code find},
+ * {@code aggregate} y {@code count}, agrupados por forma como en {@link SlowCommandLog}, y
+ * guarda el último ejemplo de cada forma. Cada {@code hoteles.indices.asesor.intervalo-segundos}
+ * ejecuta {@code explain} con {@code executionStats} sobre cada ejemplo y anota el plan
+ * elegido, si recorre la colección entera y cuántos documentos examina por cada uno que
+ * devuelve. Para las formas que recorren la colección, o que examinan más de
+ * {@code hoteles.indices.asesor.umbral-ratio} documentos por cada uno devuelto, propone un
+ * índice con los campos de igualdad, después los del orden y por último los de rango.
+ * <p>
+ * Los ejemplos guardan los valores de la consulta para poder explicarla, pero solo se
+ * publica su forma.
+ */
+@Component
+@ConditionalOnProperty(name = "hoteles.indices.asesor.enabled", havingValue = "true", matchIfMissing = true)
+public class IndexAdvisor implements CommandListener, MongoClientSettingsBuilderCustomizer {
+
+    private static final Logger log = LoggerFactory.getLogger(IndexAdvisor.class);
+
+    private static final Set<String> COMANDOS = Set.of("find", "aggregate", "count");
+    private static final Set<String> IGUALDAD = Set.of("$eq", "$in");
+    private static final Set<String> GEO = Set.of("$near", "$nearSphere", "$geoWithin", "$geoIntersects");
+
+    /**
+     * Se pide a través de un proveedor porque el cliente de MongoDB, del que depende la
+     * plantilla, se configura con este mismo bean.
+     */
+    @Autowired
+    ObjectProvider<MongoTemplate> mongoTemplate;
+
+    private final int muestreo;
+    private final long intervaloMs;
+    private final int maxFormas;
+    private final double umbralRatio;
+    private final Map<String, Muestra> muestras = new ConcurrentHashMap<>();
+    private final Map<String, Consejo> consejos = new ConcurrentHashMap<>();
+    private volatile boolean activo = true;
+    private volatile Thread hilo;
+
+    public IndexAdvisor(@Value("${hoteles.indices.asesor.muestreo:100}") int muestreo,
+                        @Value("${hoteles.indices.asesor.intervalo-segundos:300}") long intervaloSegundos,
+                        @Value("${hoteles.indices.asesor.max-formas:200}") int maxFormas,
+                        @Value("${hoteles.indices.asesor.umbral-ratio:10}") double umbralRatio) {
+        this.muestreo = Math.max(1, muestreo);
+        this.intervaloMs = TimeUnit.SECONDS.toMillis(intervaloSegundos);
+        this.maxFormas = maxFormas;
+        this.umbralRatio = umbralRatio;
+    }
+
+    @Override
+    public void customize(MongoClientSettings.Builder builder) {
+        builder.addCommandListener(this);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        hilo = Thread.ofPlatform().daemon().name("asesor-indices").start(this::ejecutar);
+    }
+
+    @PreDestroy
+    public void detener() {
+        activo = false;
+        if (hilo != null) hilo.interrupt();
+    }
+
+    /**
+     * El comando se copia aquí porque el documento solo es válido durante el evento.
+     */
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        String nombre = event.getCommandName();
+        if (!COMANDOS.contains(nombre) || ThreadLocalRandom.current().nextInt(muestreo) != 0) return;
+        BsonDocument comando = event.getCommand();
+        BsonValue coleccion = comando.get(nombre);
+        if (coleccion == null || !coleccion.isString()) return;
+        String forma = SlowCommandLog.forma(comando, nombre).toJson();
+        String clave = coleccion.asString().getValue() + " " + forma;
+        if (!muestras.containsKey(clave) && muestras.size() >= maxFormas) return;
+        BsonDocument ejemplo = comando.clone();
+        ejemplo.keySet().removeIf(k -> k.startsWith("$") || k.equals("lsid") || k.equals("txnNumber"));
+        muestras.merge(clave, new Muestra(coleccion.asString().getValue(), nombre, forma, ejemplo, 1),
+                (previa, nueva) -> new Muestra(nueva.coleccion(), nueva.nombre(), nueva.forma(), nueva.comando(), previa.veces() + 1));
+    }
+
+    /**
+     * Obtiene el último análisis de cada forma de consulta: primero las que recorren la
+     * colección y después de más a menos documentos examinados por cada uno devuelto.
+     *
+     * @return Análisis por forma.
+     */
+    public List<Consejo> consejos() {
+        List<Consejo> lista = new ArrayList<>(consejos.values());
+        lista.sort(Comparator.comparing(Consejo::coleccionCompleta).thenComparingDouble(Consejo::ratio).reversed());
+        return lista;
+    }
+
+    private void ejecutar() {
+        while (activo) {
+            try {
+                Thread.sleep(intervaloMs);
+            } catch (InterruptedException e) {
+                return;
+            }
+            MongoTemplate plantilla = mongoTemplate.getIfAvailable();
+            if (plantilla == null) continue;
+            muestras.forEach((clave, muestra) -> consejos.put(clave, explicar(plantilla, muestra)));
+        }
+    }
+
+    private Consejo explicar(MongoTemplate plantilla, Muestra muestra) {
+        Document explicacion;
+        try {
+            explicacion = plantilla.getDb().runCommand(new Document("explain", muestra.comando())
+                    .append("verbosity", "executionStats"));
+        } catch (MongoException e) {
+            log.debug("No se ha podido explicar {} sobre {}", muestra.forma(), muestra.coleccion(), e);
+            return new Consejo(muestra.coleccion(), muestra.forma(), muestra.veces(), null, false, 0, 0, 0, null,
+                    Instant.now(), e.getMessage());
+        }
+        Document planificador = seccion(explicacion, "queryPlanner");
+        Document estadisticas = seccion(explicacion, "executionStats");
+        StringJoiner etapas = new StringJoiner(" > ");
+        if (planificador != null) {
+            Document ganador = planificador.get("winningPlan", Document.class);
+            if (ganador != null && ganador.containsKey("queryPlan")) ganador = ganador.get("queryPlan", Document.class);
+            etapas(ganador, etapas);
+        }
+        String plan = etapas.toString();
+        boolean coleccionCompleta = plan.contains("COLLSCAN");
+        long examinados = estadisticas != null ? numero(estadisticas, "totalDocsExamined") : 0;
+        long devueltos = estadisticas != null ? numero(estadisticas, "nReturned") : 0;
+        double ratio = (double) examinados / Math.max(1, devueltos);
+        Document sugerido = coleccionCompleta || ratio > umbralRatio ? sugerir(muestra) : null;
+        return new Consejo(muestra.coleccion(), muestra.forma(), muestra.veces(), plan, coleccionCompleta,
+                examinados, devueltos, ratio, sugerido != null ? sugerido.toJson() : null, Instant.now(), null);
+    }
+
+    /**
+     * Busca una sección de la explicación en su raíz o, en las agregaciones, en la etapa
+     * {@code $cursor} con la que empieza el pipeline.
+     */
+    private static Document seccion(Document explicacion, String nombre) {
+        Document seccion = explicacion.get(nombre, Document.class);
+        if (seccion != null) return seccion;
+        List<Document> etapas = explicacion.getList("stages", Document.class);
+        if (etapas == null || etapas.isEmpty()) return null;
+        Document cursor = etapas.get(0).get("$cursor", Document.class);
+        return cursor != null ? cursor.get(nombre, Document.class) : null;
+    }
+
+    private static void etapas(Document etapa, StringJoiner nombres) {
+        if (etapa == null) return;
+        String nombre = etapa.getString("stage");
+        if (nombre != null) nombres.add(etapa.containsKey("indexName") ? nombre + "(" + etapa.getString("indexName") + ")" : nombre);
+        etapas(etapa.get("inputStage", Document.class), nombres);
+        List<Document> entradas = etapa.getList("inputStages", Document.class);
+        if (entradas != null) entradas.forEach(entrada -> etapas(entrada, nombres));
+    }
+
+    private static long numero(Document documento, String clave) {
+        Object valor = documento.get(clave);
+        return valor instanceof Number n ? n.longValue() : 0;
+    }
+
+    /**
+     * Propone un índice para el filtro y el orden del ejemplo, o null si el filtro usa
+     * operadores que no se resuelven con un índice normal ({@code $or}, {@code $text},
+     * búsquedas geográficas...) o solo filtra por {@code _id}.
+     */
+    private static Document sugerir(Muestra muestra) {
+        BsonDocument comando = muestra.comando();
+        BsonDocument filtro = new BsonDocument();
+        BsonDocument orden = new BsonDocument();
+        switch (muestra.nombre()) {
+            case "find" -> {
+                filtro = comando.getDocument("filter", filtro);
+                orden = comando.getDocument("sort", orden);
+            }
+            case "count" -> filtro = comando.getDocument("query", filtro);
+            default -> {
+                for (BsonValue etapa : comando.getArray("pipeline", new BsonArray())) {
+                    if (!etapa.isDocument()) continue;
+                    BsonDocument documento = etapa.asDocument();
+                    if (documento.containsKey("$match") && filtro.isEmpty()) filtro = documento.getDocument("$match");
+                    else if (documento.containsKey("$sort")) {
+                        orden = documento.getDocument("$sort");
+                        break;
+                    } else if (!documento.containsKey("$match")) break;
+                }
+            }
+        }
+        List<String> igualdad = new ArrayList<>();
+        List<String> rango = new ArrayList<>();
+        if (!clasificar(filtro, igualdad, rango)) return null;
+        Document indice = new Document();
+        igualdad.forEach(campo -> indice.putIfAbsent(campo, 1));
+        orden.forEach((campo, sentido) -> indice.putIfAbsent(campo, sentido.isNumber() ? sentido.asNumber().intValue() : 1));
+        rango.forEach(campo -> indice.putIfAbsent(campo, 1));
+        if (indice.isEmpty() || indice.keySet().equals(Set.of("_id"))) return null;
+        return indice;
+    }
+
+    private static boolean clasificar(BsonDocument filtro, List<String> igualdad, List<String> rango) {
+        for (Map.Entry<String, BsonValue> condicion : filtro.entrySet()) {
+            String campo = condicion.getKey();
+            BsonValue valor = condicion.getValue();
+            if (campo.equals("$and") && valor.isArray()) {
+                for (BsonValue parte : valor.asArray()) {
+                    if (!parte.isDocument() || !clasificar(parte.asDocument(), igualdad, rango)) return false;
+                }
+                continue;
+            }
+            if (campo.startsWith("$")) return false;
+            if (valor.isDocument() && !valor.asDocument().isEmpty()
+                    && valor.asDocument().getFirstKey().startsWith("$")) {
+                Set<String> operadores = valor.asDocument().keySet();
+                if (operadores.stream().anyMatch(GEO::contains)) return false;
+                (IGUALDAD.containsAll(operadores) ? igualdad : rango).add(campo);
+            } else {
+                igualdad.add(campo);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Último ejemplo de una forma de consulta y cuántas veces se ha muestreado.
+     */
+    private record Muestra(String coleccion, String nombre, String forma, BsonDocument comando, long veces) {
+    }
+
+    /**
+     * Análisis de una forma de consulta.
+     *
+     * @param coleccion Colección consultada.
+     * @param forma Comando con los valores ocultos.
+     * @param muestras Veces que se ha muestreado esta forma desde el arranque.
+     * @param plan Etapas del plan elegido, de fuera a dentro, con el índice que usa cada IXSCAN.
+     * @param coleccionCompleta Si el plan recorre la colección entera (COLLSCAN).
+     * @param examinados Documentos examinados al ejecutar el ejemplo.
+     * @param devueltos Documentos devueltos.
+     * @param ratio Documentos examinados por cada devuelto.
+     * @param indiceSugerido Índice propuesto, o null si el plan es bueno o no se puede proponer uno.
+     * @param explicado Momento del análisis.
+     * @param error Motivo si no se ha podido ejecutar explain, o null.
+     */
+    public record Consejo(String coleccion, String forma, long muestras, String plan, boolean coleccionCompleta,
+                          long examinados, long devueltos, double ratio, String indiceSugerido, Instant explicado,
+                          String error) {
+    }
+}
@@ -0,0 +1,158 @@
+package org.example.hotelesapi;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver.IndexDefinitionHolder;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.repository.query.parser.Part;
+import org.springframework.data.repository.query.parser.PartTree;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Crea al arrancar los índices declarados en {@link Hotel} y {@link User}, en lugar de dejarlo
+ * a la creación automática de Spring Data, que los crea la primera vez que se usa cada entidad
+ * y hace fallar esa operación si no puede. Crear un índice que ya existe con la misma
+ * definición no tiene efecto, así que se puede ejecutar en cada arranque y en varias
+ * instancias a la vez; si existe con otra definición se avisa y se deja como está.
+ * <p>
+ * Después comprueba que cada consulta derivada de {@link HotelRepository} y
+ * {@link UserRepository} tiene un índice cuyos primeros campos son los de la consulta, y avisa
+ * de las que no, que recorrerían la colección entera. Si MongoDB no responde, la colección se
+ * anota entre los fallidos y el arranque continúa.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "hoteles.indices.enabled", havingValue = "true", matchIfMissing = true)
+public class IndexProvisioner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(IndexProvisioner.class);
+
+    private static final Map<Class<?>, Class<?>> REPOSITORIOS = Map.of(
+            Hotel.class, HotelRepository.class,
+            User.class, UserRepository.class);
+
+    @Autowired
+    MongoTemplate mongoTemplate;
+
+    private volatile Resultado resultado;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        MongoPersistentEntityIndexResolver resolutor = new MongoPersistentEntityIndexResolver(
+                (MongoMappingContext) mongoTemplate.getConverter().getMappingContext());
+        List<String> creados = new ArrayList<>();
+        List<String> existentes = new ArrayList<>();
+        List<String> fallidos = new ArrayList<>();
+        List<String> sinIndice = new ArrayList<>();
+        REPOSITORIOS.forEach((entidad, repositorio) -> {
+            try {
+                provisionar(entidad, repositorio, resolutor, creados, existentes, fallidos, sinIndice);
+            } catch (DataAccessException e) {
+                // Sin MongoDB el arranque sigue, por ejemplo sirviendo la instantánea del catálogo.
+                String coleccion = mongoTemplate.getCollectionName(entidad);
+                fallidos.add(coleccion + ": " + e.getMostSpecificCause().getMessage());
+                log.warn("No se han podido comprobar los índices de {}: {}", coleccion, e.getMostSpecificCause().getMessage());
+            }
+        });
+        resultado = new Resultado(creados, existentes, fallidos, sinIndice);
+        log.info("Índices: {} creados, {} ya existían, {} con errores", creados.size(), existentes.size(), fallidos.size());
+    }
+
+    /**
+     * Crea los índices de una entidad y comprueba las consultas de su repositorio.
+     *
+     * @throws DataAccessException si no se pueden leer los índices de la colección.
+     */
+    private void provisionar(Class<?> entidad, Class<?> repositorio, MongoPersistentEntityIndexResolver resolutor,
+                             List<String> creados, List<String> existentes, List<String> fallidos, List<String> sinIndice) {
+        IndexOperations operaciones = mongoTemplate.indexOps(entidad);
+        Set<String> previos = new HashSet<>();
+        operaciones.getIndexInfo().forEach(indice -> previos.add(indice.getName()));
+        for (IndexDefinitionHolder definicion : resolutor.resolveIndexForEntity(
+                mongoTemplate.getConverter().getMappingContext().getRequiredPersistentEntity(entidad))) {
+            String indice = definicion.getIndexOptions().getString("name");
+            String nombre = definicion.getCollection() + "." + indice;
+            try {
+                operaciones.ensureIndex(definicion);
+                (previos.contains(indice) ? existentes : creados).add(nombre);
+            } catch (DataAccessException e) {
+                fallidos.add(nombre + ": " + e.getMostSpecificCause().getMessage());
+                log.warn("No se ha podido crear el índice {}: {}", nombre, e.getMostSpecificCause().getMessage());
+            }
+        }
+        List<List<String>> indices = operaciones.getIndexInfo().stream()
+                .map(indice -> indice.getIndexFields().stream().map(IndexField::getKey).toList())
+                .toList();
+        for (Method metodo : repositorio.getDeclaredMethods()) {
+            Set<String> campos = camposConsultados(metodo.getName(), entidad);
+            if (campos != null && !cubierta(campos, indices)) {
+                sinIndice.add(repositorio.getSimpleName() + "." + metodo.getName() + " " + campos);
+                log.warn("La consulta {}.{} sobre {} no tiene índice", repositorio.getSimpleName(), metodo.getName(), campos);
+            }
+        }
+    }
+
+    /**
+     * @return Resultado de la creación de índices, o null si aún no ha terminado.
+     */
+    public Resultado resultado() {
+        return resultado;
+    }
+
+    /**
+     * Campos por los que filtra una consulta derivada del nombre de un método.
+     *
+     * @return Nombres de los campos, o null si el método no es una consulta derivada.
+     */
+    private static Set<String> camposConsultados(String metodo, Class<?> entidad) {
+        PartTree arbol;
+        try {
+            arbol = new PartTree(metodo, entidad);
+        } catch (RuntimeException e) {
+            return null;
+        }
+        Set<String> campos = new HashSet<>();
+        for (Part parte : arbol.getParts()) campos.add(parte.getProperty().toDotPath());
+        return campos.isEmpty() ? null : campos;
+    }
+
+    /**
+     * Una consulta está cubierta si algún índice empieza por todos sus campos, en cualquier orden.
+     */
+    private static boolean cubierta(Set<String> campos, List<List<String>> indices) {
+        for (List<String> indice : indices) {
+            if (indice.size() >= campos.size() && campos.containsAll(indice.subList(0, campos.size()))) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Resultado de la creación de índices al arrancar.
+     *
+     * @param creados Índices que no existían y se han creado, como colección.nombre.
+     * @param existentes Índices que ya existían.
+     * @param fallidos Índices que no se han podido crear, con el motivo.
+     * @param consultasSinIndice Consultas derivadas de los repositorios sin un índice que las cubra.
+     */
+    public record Resultado(List<String> creados, List<String> existentes, List<String> fallidos,
+                            List<String> consultasSinIndice) {
+    }
+}
@@ -1,8 +1,10 @@
 package org.example.hotelesapi;
 
 
-import jakarta.servlet.http.HttpSession;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -11,12 +13,16 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 
 @Controller
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/login")
 public class LoginController {
 
     @Autowired
     SecurityService securityService;
 
+    @Autowired
+    UserSessionService userSessionService;
+
     /**
      * Maneja la solicitud GET para la página de inicio de sesión.
      *
@@ -31,16 +37,17 @@ public class LoginController {
     /**
      * Procesa la solicitud POST para el inicio de sesión.
      *
-     * @param session la sesión HTTP
+     * @param request la petición HTTP
+     * @param response la respuesta, donde se escribe la sesión
      * @param model el modelo para la vista
      * @param login el objeto de usuario con los datos de inicio de sesión
      * @return redirige a la página principal si el inicio de sesión es exitoso, de lo contrario, vuelve a la página de inicio de sesión
      */
     @PostMapping
-    public String processLogin(HttpSession session, Model model, @ModelAttribute User login) {
+    public String processLogin(HttpServletRequest request, HttpServletResponse response, Model model, @ModelAttribute User login) {
         var result = securityService.login(login.getUser(), login.getEmail());
         if(result.isPresent()){
-            session.setAttribute("user", result.get());
+            userSessionService.iniciar(result.get(), request, response);
             return "redirect:/web/";
         } else return "login";
     }
@@ -48,13 +55,14 @@ public class LoginController {
     /**
      * Maneja la solicitud GET para cerrar sesión.
      *
-     * @param session la sesión HTTP
+     * @param request la petición HTTP
+     * @param response la respuesta, donde se borra la sesión
      * @param model el modelo para la vista
      * @return redirige a la página principal después de cerrar sesión
      */
     @GetMapping("/exit")
-    public String exit(HttpSession session, Model model) {
-        session.removeAttribute("user");
+    public String exit(HttpServletRequest request, HttpServletResponse response, Model model) {
+        userSessionService.cerrar(request, response);
         return "redirect:/web/";
     }
 
@@ -0,0 +1,36 @@
+package org.example.hotelesapi;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.Metrics;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.query.NearQuery;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Búsqueda por proximidad con $geoNear sobre el índice 2dsphere de location.
+ */
+@Component
+@Profile("!offline")
+public class MongoHotelGeoIndex implements HotelGeoIndex {
+
+    @Autowired
+    MongoTemplate mongoTemplate;
+
+    @Override
+    public List<HotelCercano> cercanos(double lat, double lon, double radioKm, int limit, HotelQuery filtros) {
+        NearQuery near = NearQuery.near(new GeoJsonPoint(lon, lat))
+                .spherical(true)
+                .maxDistance(new Distance(radioKm, Metrics.KILOMETERS))
+                .query(new Query(filtros.aCriteria()))
+                .limit(limit);
+        return mongoTemplate.geoNear(near, Hotel.class).getContent().stream()
+                .map(r -> new HotelCercano(r.getContent(), r.getDistance().in(Metrics.KILOMETERS).getValue()))
+                .toList();
+    }
+}
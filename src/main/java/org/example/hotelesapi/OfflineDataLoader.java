@@ -0,0 +1,73 @@
+package org.example.hotelesapi;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Carga los datos de arranque del perfil offline: un catálogo sintético de
+ * {@link DatosSinteticos}, o un fichero NDJSON si se indica, y opcionalmente un usuario con
+ * un token conocido para probar las rutas de escritura.
+ */
+@Component
+@Profile("offline")
+public class OfflineDataLoader implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(OfflineDataLoader.class);
+
+    @Autowired
+    HotelRepository hotelRepository;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    HotelBulkImporter hotelBulkImporter;
+
+    @Autowired
+    HotelService hotelService;
+
+    @Value("${hoteles.offline.sinteticos:10000}")
+    int sinteticos;
+
+    @Value("${hoteles.offline.semilla:42}")
+    long semilla;
+
+    @Value("${hoteles.offline.fichero:}")
+    String fichero;
+
+    @Value("${hoteles.offline.token:}")
+    String token;
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        if (!fichero.isBlank()) {
+            try (InputStream entrada = Files.newInputStream(Path.of(fichero))) {
+                ResultadoImportacion resultado = hotelBulkImporter.importarNdjson(entrada);
+                log.info("Cargados {} hoteles de {} ({} rechazados)", resultado.insertadas() + resultado.actualizadas(),
+                        fichero, resultado.rechazadas());
+            }
+        } else if (sinteticos > 0) {
+            hotelRepository.saveAll(DatosSinteticos.generar(sinteticos, semilla));
+            hotelService.catalogoRecargado();
+            log.info("Generados {} hoteles sintéticos con semilla {}", sinteticos, semilla);
+        }
+        if (!token.isBlank()) {
+            User usuario = new User();
+            usuario.setUser("offline");
+            usuario.setEmail("offline@localhost");
+            usuario.setToken(token);
+            userRepository.save(usuario);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package org.example.hotelesapi;
+
+import java.time.Instant;
+
+/**
+ * Estado de un alta o una baja aceptada por {@link HotelWriteBehindQueue}.
+ *
+ * @param id Identificador de la operación, con el que se consulta su estado.
+ * @param tipo Alta o baja.
+ * @param estado Pendiente mientras está en la cola; completada o fallida cuando se ha escrito.
+ * @param hotel ID del hotel: el que se elimina, o el asignado al nuevo hotel cuando se completa el alta.
+ * @param error Motivo del fallo, si ha fallado.
+ * @param aceptada Momento en que se aceptó.
+ * @param terminada Momento en que se escribió o falló, o null si sigue pendiente.
+ */
+public record OperacionEscritura(String id, Tipo tipo, Estado estado, String hotel, String error,
+                                 Instant aceptada, Instant terminada) {
+
+    public enum Tipo {ALTA, BAJA}
+
+    public enum Estado {PENDIENTE, COMPLETADA, FALLIDA}
+
+    static OperacionEscritura pendiente(String id, Tipo tipo, String hotel) {
+        return new OperacionEscritura(id, tipo, Estado.PENDIENTE, hotel, null, Instant.now(), null);
+    }
+
+    OperacionEscritura completada(String hotel) {
+        return new OperacionEscritura(id, tipo, Estado.COMPLETADA, hotel, null, aceptada, Instant.now());
+    }
+
+    OperacionEscritura fallida(String error) {
+        return new OperacionEscritura(id, tipo, Estado.FALLIDA, hotel, error, aceptada, Instant.now());
+    }
+}
@@ -0,0 +1,10 @@
+package org.example.hotelesapi;
+
+/**
+ * Parámetros de paginación por cursor de los listados de la API.
+ *
+ * @param after Cursor devuelto en la cabecera Link de la página anterior.
+ * @param limit Número máximo de hoteles por página.
+ */
+public record Pagina(String after, Integer limit) {
+}
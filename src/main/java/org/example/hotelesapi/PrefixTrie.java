@@ -0,0 +1,89 @@
+package org.example.hotelesapi;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Árbol de prefijos de términos. Las búsquedas devuelven los términos en orden alfabético,
+ * de modo que las palabras más cortas salen antes que sus prolongaciones. No es seguro para
+ * uso concurrente; quien lo use debe sincronizar el acceso.
+ */
+class PrefixTrie {
+
+    private final Nodo raiz = new Nodo();
+
+    /**
+     * Añade un término.
+     *
+     * @param termino Término a añadir.
+     */
+    void anadir(String termino) {
+        Nodo nodo = raiz;
+        for (int i = 0; i < termino.length(); i++) {
+            nodo = nodo.hijos.computeIfAbsent(termino.charAt(i), c -> new Nodo());
+        }
+        nodo.terminal = true;
+    }
+
+    /**
+     * Quita un término y poda las ramas que quedan vacías.
+     *
+     * @param termino Término a quitar.
+     */
+    void quitar(String termino) {
+        quitar(raiz, termino, 0);
+    }
+
+    /**
+     * Quita todos los términos.
+     */
+    void vaciar() {
+        raiz.hijos.clear();
+        raiz.terminal = false;
+    }
+
+    /**
+     * Busca los términos que empiezan por un prefijo.
+     *
+     * @param prefijo Prefijo buscado.
+     * @param max Número máximo de términos.
+     * @return Términos en orden alfabético.
+     */
+    List<String> conPrefijo(String prefijo, int max) {
+        Nodo nodo = raiz;
+        for (int i = 0; i < prefijo.length() && nodo != null; i++) {
+            nodo = nodo.hijos.get(prefijo.charAt(i));
+        }
+        List<String> terminos = new ArrayList<>();
+        if (nodo != null) recoger(nodo, new StringBuilder(prefijo), terminos, max);
+        return terminos;
+    }
+
+    private boolean quitar(Nodo nodo, String termino, int i) {
+        if (i == termino.length()) {
+            nodo.terminal = false;
+        } else {
+            Nodo hijo = nodo.hijos.get(termino.charAt(i));
+            if (hijo != null && quitar(hijo, termino, i + 1)) nodo.hijos.remove(termino.charAt(i));
+        }
+        return !nodo.terminal && nodo.hijos.isEmpty();
+    }
+
+    private void recoger(Nodo nodo, StringBuilder actual, List<String> terminos, int max) {
+        if (terminos.size() >= max) return;
+        if (nodo.terminal) terminos.add(actual.toString());
+        for (Map.Entry<Character, Nodo> hijo : nodo.hijos.entrySet()) {
+            if (terminos.size() >= max) return;
+            actual.append(hijo.getKey());
+            recoger(hijo.getValue(), actual, terminos, max);
+            actual.setLength(actual.length() - 1);
+        }
+    }
+
+    private static class Nodo {
+        final Map<Character, Nodo> hijos = new TreeMap<>();
+        boolean terminal;
+    }
+}
@@ -0,0 +1,170 @@
+package org.example.hotelesapi;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limita las peticiones antes de que lleguen al controlador, y por tanto a MongoDB o a la
+ * validación de tokens. Cada cliente tiene un cubo de tokens por IP y, si la petición lleva
+ * el parámetro token, otro por token, con límites distintos para lecturas (GET y HEAD) y
+ * escrituras; si se agota responde 429 con Retry-After. Además un
+ * {@link AdaptiveConcurrencyLimit} acota las peticiones en curso de todos los clientes y
+ * responde 503 a las que no caben.
+ * <p>
+ * Las rutas se agrupan por su primer segmento ({@code /api}, {@code /web}...). Cada grupo de
+ * {@code hoteles.limites.grupos} tiene sus propios cubos, con los límites de
+ * {@code hoteles.limites.<grupo>.*} o, si no se indican, los generales. La IP es la de
+ * {@link HttpServletRequest#getRemoteAddr()}, que detrás de un proxy de confianza es la del
+ * cliente gracias a {@code server.forward-headers-strategy}.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    private static final String INICIO = RateLimitInterceptor.class.getName() + ".inicio";
+
+    private final Map<String, Grupo> grupos = new HashMap<>();
+    private final Grupo general;
+    private final AdaptiveConcurrencyLimit concurrencia;
+    private final LongAdder rechazadasPorTasa = new LongAdder();
+    private final LongAdder rechazadasPorCarga = new LongAdder();
+
+    public RateLimitInterceptor(@Value("${hoteles.limites.lecturas.por-segundo:50}") double lecturasPorSegundo,
+                                @Value("${hoteles.limites.lecturas.rafaga:100}") int lecturasRafaga,
+                                @Value("${hoteles.limites.escrituras.por-segundo:5}") double escriturasPorSegundo,
+                                @Value("${hoteles.limites.escrituras.rafaga:20}") int escriturasRafaga,
+                                @Value("${hoteles.limites.franjas:4096}") int franjas,
+                                @Value("${hoteles.limites.concurrencia.min:16}") int concurrenciaMinima,
+                                @Value("${hoteles.limites.concurrencia.max:200}") int concurrenciaMaxima,
+                                @Value("${hoteles.limites.concurrencia.latencia-objetivo-ms:1000}") long latenciaObjetivoMs,
+                                @Value("${hoteles.limites.grupos:api,web}") List<String> grupos,
+                                Environment entorno) {
+        this.general = new Grupo(lecturasPorSegundo, lecturasRafaga, escriturasPorSegundo, escriturasRafaga, franjas);
+        for (String grupo : grupos) {
+            String prefijo = "hoteles.limites." + grupo.trim() + ".";
+            this.grupos.put(grupo.trim(), new Grupo(
+                    entorno.getProperty(prefijo + "lecturas.por-segundo", Double.class, lecturasPorSegundo),
+                    entorno.getProperty(prefijo + "lecturas.rafaga", Integer.class, lecturasRafaga),
+                    entorno.getProperty(prefijo + "escrituras.por-segundo", Double.class, escriturasPorSegundo),
+                    entorno.getProperty(prefijo + "escrituras.rafaga", Integer.class, escriturasRafaga),
+                    franjas));
+        }
+        this.concurrencia = concurrenciaMaxima > 0
+                ? new AdaptiveConcurrencyLimit(concurrenciaMinima, concurrenciaMaxima, latenciaObjetivoMs)
+                : null;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() != DispatcherType.REQUEST) return true;
+        boolean lectura = "GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod());
+        Grupo grupo = grupos.getOrDefault(grupo(request), general);
+        String token = request.getParameter("token");
+        StripedRateLimiter porIp = lectura ? grupo.lecturasPorIp : grupo.escriturasPorIp;
+        String ip = request.getRemoteAddr();
+        long espera = intentar(porIp, ip);
+        if (espera == 0 && token != null) {
+            espera = intentar(lectura ? grupo.lecturasPorToken : grupo.escriturasPorToken, token);
+            // Una petición rechazada por su token no gasta el cubo de la IP.
+            if (espera > 0 && porIp != null && ip != null) porIp.devolver(ip);
+        }
+        if (espera > 0) {
+            rechazadasPorTasa.increment();
+            rechazar(response, HttpStatus.TOO_MANY_REQUESTS, Math.max(1, TimeUnit.NANOSECONDS.toSeconds(espera + 999_999_999)));
+            return false;
+        }
+        if (concurrencia != null) {
+            if (!concurrencia.adquirir()) {
+                rechazadasPorCarga.increment();
+                rechazar(response, HttpStatus.SERVICE_UNAVAILABLE, 1);
+                return false;
+            }
+            request.setAttribute(INICIO, System.nanoTime());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(INICIO) instanceof Long inicio) {
+            request.removeAttribute(INICIO);
+            concurrencia.liberar(System.nanoTime() - inicio);
+        }
+    }
+
+    /**
+     * Obtiene el estado del límite de concurrencia y las peticiones rechazadas desde el arranque.
+     *
+     * @return Estadísticas de los límites.
+     */
+    public Estadisticas estadisticas() {
+        return new Estadisticas(concurrencia != null ? concurrencia.limite() : 0,
+                concurrencia != null ? concurrencia.enCurso() : 0,
+                rechazadasPorTasa.sum(), rechazadasPorCarga.sum());
+    }
+
+    /**
+     * Primer segmento de la ruta de la petición, sin el context path.
+     */
+    static String grupo(HttpServletRequest request) {
+        String ruta = request.getRequestURI().substring(request.getContextPath().length());
+        int fin = ruta.indexOf('/', 1);
+        return ruta.substring(ruta.startsWith("/") ? 1 : 0, fin > 0 ? fin : ruta.length());
+    }
+
+    private static StripedRateLimiter cubo(double porSegundo, int rafaga, int franjas) {
+        return porSegundo > 0 ? new StripedRateLimiter(porSegundo, rafaga, franjas) : null;
+    }
+
+    private static long intentar(StripedRateLimiter cubo, String clave) {
+        return cubo != null && clave != null ? cubo.intentar(clave) : 0;
+    }
+
+    private static void rechazar(HttpServletResponse response, HttpStatus estado, long segundos) {
+        response.setStatus(estado.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(segundos));
+    }
+
+    /**
+     * Cubos de un grupo de rutas; null si su límite está desactivado.
+     */
+    private static final class Grupo {
+
+        final StripedRateLimiter lecturasPorIp;
+        final StripedRateLimiter lecturasPorToken;
+        final StripedRateLimiter escriturasPorIp;
+        final StripedRateLimiter escriturasPorToken;
+
+        Grupo(double lecturasPorSegundo, int lecturasRafaga, double escriturasPorSegundo, int escriturasRafaga, int franjas) {
+            this.lecturasPorIp = cubo(lecturasPorSegundo, lecturasRafaga, franjas);
+            this.lecturasPorToken = cubo(lecturasPorSegundo, lecturasRafaga, franjas);
+            this.escriturasPorIp = cubo(escriturasPorSegundo, escriturasRafaga, franjas);
+            this.escriturasPorToken = cubo(escriturasPorSegundo, escriturasRafaga, franjas);
+        }
+    }
+
+    /**
+     * Estado de los límites de peticiones.
+     *
+     * @param limiteConcurrencia Peticiones simultáneas admitidas ahora, o 0 si no hay límite.
+     * @param enCurso Peticiones en curso dentro del límite.
+     * @param rechazadasPorTasa Peticiones rechazadas con 429 por agotar su cubo.
+     * @param rechazadasPorCarga Peticiones rechazadas con 503 por el límite de concurrencia.
+     */
+    public record Estadisticas(int limiteConcurrencia, int enCurso, long rechazadasPorTasa, long rechazadasPorCarga) {
+    }
+}
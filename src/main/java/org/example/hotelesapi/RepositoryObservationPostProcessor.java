@@ -0,0 +1,94 @@
+package org.example.hotelesapi;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Envuelve los repositorios de hoteles y usuarios, de MongoDB o en memoria, para observar
+ * cada llamada como {@code hoteles.repositorio} con el repositorio, el método y la forma de
+ * la consulta, y el número de documentos leídos. Los métodos que devuelven un Stream se
+ * observan hasta que se cierra.
+ */
+@Component
+public class RepositoryObservationPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<ObservationRegistry> observationRegistry;
+
+    public RepositoryObservationPostProcessor(ObjectProvider<ObservationRegistry> observationRegistry) {
+        this.observationRegistry = observationRegistry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        Class<?> tipo;
+        if (bean instanceof HotelRepository) tipo = HotelRepository.class;
+        else if (bean instanceof UserRepository) tipo = UserRepository.class;
+        else return bean;
+        String repositorio = tipo.getSimpleName();
+        ProxyFactory proxy = new ProxyFactory();
+        proxy.setTarget(bean);
+        proxy.addInterface(tipo);
+        proxy.addAdvice((MethodInterceptor) invocacion -> observar(repositorio, invocacion));
+        return proxy.getProxy();
+    }
+
+    private Object observar(String repositorio, MethodInvocation invocacion) throws Throwable {
+        if (invocacion.getMethod().getDeclaringClass() == Object.class) return invocacion.proceed();
+        String metodo = invocacion.getMethod().getName();
+        HotelObservationContext contexto = new HotelObservationContext();
+        Observation observacion = Observation.createNotStarted("hoteles.repositorio", () -> contexto,
+                        observationRegistry.getIfAvailable(() -> ObservationRegistry.NOOP))
+                .lowCardinalityKeyValue("repositorio", repositorio)
+                .lowCardinalityKeyValue("metodo", metodo)
+                .lowCardinalityKeyValue("forma", forma(metodo, invocacion.getArguments()))
+                .start();
+        try (Observation.Scope ignored = observacion.openScope()) {
+            Object resultado = invocacion.proceed();
+            if (resultado instanceof Stream<?> documentos) {
+                long[] leidos = {0};
+                return documentos.peek(d -> leidos[0]++).onClose(() -> {
+                    contexto.setDocumentos(leidos[0]);
+                    observacion.stop();
+                });
+            }
+            contexto.setDocumentos(contar(resultado));
+            observacion.stop();
+            return resultado;
+        } catch (Throwable e) {
+            observacion.error(e);
+            observacion.stop();
+            throw e;
+        }
+    }
+
+    /**
+     * Forma de la consulta de una llamada: la de su {@link HotelQuery} si la tiene, o el
+     * nombre del método en las consultas derivadas, que ya describe los filtros.
+     */
+    private static String forma(String metodo, Object[] argumentos) {
+        for (Object argumento : argumentos) {
+            if (argumento instanceof HotelQuery consulta) return consulta.forma();
+        }
+        return metodo;
+    }
+
+    private static long contar(Object resultado) {
+        if (resultado instanceof Collection<?> lista) return lista.size();
+        if (resultado instanceof Slice<?> pagina) return pagina.getNumberOfElements();
+        if (resultado instanceof Optional<?> opcional) return opcional.isPresent() ? 1 : 0;
+        if (resultado instanceof EscrituraLote lote) return lote.insertadas() + lote.actualizadas();
+        if (resultado instanceof Hotel || resultado instanceof User) return 1;
+        return 0;
+    }
+}
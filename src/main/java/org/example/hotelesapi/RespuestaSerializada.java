@@ -0,0 +1,19 @@
+package org.example.hotelesapi;
+
+/**
+ * Cuerpo ya serializado de un listado de hoteles, listo para escribirse tal cual.
+ *
+ * @param cuerpo Bytes del JSON en UTF-8 o de la codificación de {@link HotelBinaryCodec}.
+ * @param gzip Los mismos bytes comprimidos con gzip, o null si el cuerpo es demasiado pequeño para comprimirlo.
+ * @param siguiente Cursor de la página siguiente, o null si no hay más páginas.
+ * @param hoteles Número de hoteles del listado.
+ */
+public record RespuestaSerializada(byte[] cuerpo, byte[] gzip, String siguiente, int hoteles) {
+
+    /**
+     * @return Bytes que ocupa en memoria el cuerpo con sus variantes.
+     */
+    public long tamano() {
+        return cuerpo.length + (gzip != null ? gzip.length : 0);
+    }
+}
@@ -0,0 +1,26 @@
+package org.example.hotelesapi;
+
+import java.util.List;
+
+/**
+ * Resumen de una importación masiva de hoteles.
+ *
+ * @param leidas Filas leídas, sin contar la cabecera ni las líneas vacías.
+ * @param insertadas Hoteles nuevos.
+ * @param actualizadas Hoteles que ya existían con el mismo registration_code.
+ * @param duplicadas Filas descartadas porque una fila posterior del mismo lote tiene el mismo registration_code.
+ * @param rechazadas Filas que no se han podido importar.
+ * @param errores Detalle de las primeras filas rechazadas.
+ */
+public record ResultadoImportacion(long leidas, long insertadas, long actualizadas, long duplicadas, long rechazadas,
+                                   List<Rechazo> errores) {
+
+    /**
+     * Fila rechazada.
+     *
+     * @param linea Número de línea en la entrada, empezando por 1.
+     * @param motivo Motivo del rechazo.
+     */
+    public record Rechazo(long linea, String motivo) {
+    }
+}
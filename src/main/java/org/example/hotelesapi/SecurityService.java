@@ -1,8 +1,11 @@
 package org.example.hotelesapi;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 @Service
@@ -11,8 +14,35 @@ public class SecurityService {
     @Autowired
     private UserRepository userRepository;
 
+    /**
+     * Tokens válidos con el ID del usuario al que pertenecen.
+     */
+    private final TtlCache<String, String> tokensValidos;
+
+    /**
+     * Tokens rechazados recientemente, para no consultar MongoDB con cada reintento.
+     */
+    private final TtlCache<String, Boolean> tokensRechazados;
+
+    public SecurityService(@Value("${hoteles.tokens.max-entradas:10000}") int maxEntradas,
+                           @Value("${hoteles.tokens.ttl-segundos:300}") long ttlSegundos,
+                           @Value("${hoteles.tokens.ttl-rechazados-segundos:10}") long ttlRechazadosSegundos) {
+        this.tokensValidos = new TtlCache<>(maxEntradas, ttlSegundos);
+        this.tokensRechazados = new TtlCache<>(maxEntradas, ttlRechazadosSegundos);
+    }
+
     public Boolean requestValidation(String token) {
-        return userRepository.existsByToken(token);
+        if (token == null || token.isEmpty()) return false;
+        if (tokensRechazados.getIfPresent(token) != null) return false;
+        String usuario = tokensValidos.get(token, () -> {
+            User user = userRepository.findByToken(token);
+            return user == null ? null : user.get_id();
+        });
+        if (usuario == null) {
+            tokensRechazados.put(token, Boolean.TRUE);
+            return false;
+        }
+        return true;
     }
 
 
@@ -22,4 +52,45 @@ public class SecurityService {
         }
         else return Optional.empty();
     }
+
+    /**
+     * Olvida la validación en caché de un token, sea cual sea su resultado.
+     *
+     * @param token Token a invalidar.
+     */
+    public void invalidarToken(String token) {
+        tokensValidos.invalidar(token);
+        tokensRechazados.invalidar(token);
+    }
+
+    /**
+     * Olvida los tokens en caché de un usuario que ha cambiado, incluido su token anterior,
+     * y el resultado negativo que pudiera haber para el nuevo.
+     *
+     * @param user Usuario guardado.
+     */
+    public void usuarioModificado(User user) {
+        tokensValidos.invalidarSiValor(id -> Objects.equals(id, user.get_id()));
+        if (user.getToken() != null) tokensRechazados.invalidar(user.getToken());
+    }
+
+    /**
+     * Olvida los tokens en caché de un usuario eliminado.
+     *
+     * @param id ID del usuario o null si no se conoce, en cuyo caso se olvidan todos.
+     */
+    public void usuarioEliminado(String id) {
+        if (id == null) tokensValidos.invalidarTodo();
+        else tokensValidos.invalidarSiValor(id::equals);
+    }
+
+    /**
+     * Obtiene los contadores de las cachés de tokens.
+     *
+     * @return Estadísticas por caché.
+     */
+    public Map<String, TtlCache.Estadisticas> estadisticas() {
+        return Map.of("tokensValidos", tokensValidos.estadisticas(),
+                "tokensRechazados", tokensRechazados.estadisticas());
+    }
 }
@@ -0,0 +1,23 @@
+package org.example.hotelesapi;
+
+/**
+ * Datos del usuario que las páginas web necesitan mientras dura su sesión. No incluye el
+ * token de la API ni el email: lo que se guarda aquí viaja en la cookie de sesión.
+ *
+ * @param id ID del usuario en {@code users}.
+ * @param user Nombre de usuario que se muestra en la cabecera.
+ * @param expira Segundos desde epoch en que caduca la sesión.
+ */
+public record SesionUsuario(String id, String user, long expira) {
+
+    /**
+     * Crea la sesión de un usuario que acaba de iniciarla.
+     *
+     * @param user Usuario autenticado.
+     * @param expira Segundos desde epoch en que caduca la sesión.
+     * @return Sesión con los datos del usuario.
+     */
+    public static SesionUsuario de(User user, long expira) {
+        return new SesionUsuario(user.get_id(), user.getUser(), expira);
+    }
+}
@@ -0,0 +1,107 @@
+package org.example.hotelesapi;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Codifica una {@link SesionUsuario} en un valor de cookie firmado con HMAC-SHA256, que
+ * cualquier instancia con el mismo secreto puede verificar sin consultar MongoDB.
+ * <p>
+ * El valor es en base64url, sin relleno, la versión del formato, la caducidad en segundos, el
+ * ID y el nombre del usuario, seguidos de los 16 primeros bytes del HMAC de todo lo anterior.
+ * La firma se comprueba antes de leer nada del contenido.
+ */
+public class SignedSessionCodec {
+
+    private static final byte VERSION = 1;
+    private static final int BYTES_FIRMA = 16;
+    private static final String ALGORITMO = "HmacSHA256";
+
+    private final ThreadLocal<Mac> macs;
+
+    /**
+     * @param secreto Clave de la firma, de al menos 32 bytes; todas las instancias que
+     *                comparten sesiones deben usar la misma.
+     */
+    public SignedSessionCodec(byte[] secreto) {
+        if (secreto.length < 32) {
+            throw new IllegalArgumentException("El secreto de las sesiones debe tener al menos 32 bytes");
+        }
+        SecretKeySpec clave = new SecretKeySpec(secreto.clone(), ALGORITMO);
+        this.macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance(ALGORITMO);
+                mac.init(clave);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        macs.get();
+    }
+
+    /**
+     * Codifica y firma una sesión.
+     *
+     * @param sesion Sesión a codificar.
+     * @return Valor de la cookie.
+     */
+    public String codificar(SesionUsuario sesion) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream datos = new DataOutputStream(bytes)) {
+            datos.writeByte(VERSION);
+            datos.writeLong(sesion.expira());
+            datos.writeUTF(sesion.id());
+            datos.writeUTF(sesion.user() != null ? sesion.user() : "");
+            datos.write(firma(bytes.toByteArray(), bytes.size()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+    }
+
+    /**
+     * Verifica y decodifica el valor de una cookie.
+     *
+     * @param valor Valor de la cookie.
+     * @param ahora Segundos desde epoch con los que se comprueba la caducidad.
+     * @return La sesión, o vacío si el valor no está bien formado, la firma no coincide o ha caducado.
+     */
+    public Optional<SesionUsuario> decodificar(String valor, long ahora) {
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(valor);
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        int contenido = bytes.length - BYTES_FIRMA;
+        if (contenido < 1 || bytes[0] != VERSION) return Optional.empty();
+        if (!MessageDigest.isEqual(firma(bytes, contenido), Arrays.copyOfRange(bytes, contenido, bytes.length))) {
+            return Optional.empty();
+        }
+        try (DataInputStream datos = new DataInputStream(new ByteArrayInputStream(bytes, 1, contenido - 1))) {
+            long expira = datos.readLong();
+            if (expira <= ahora) return Optional.empty();
+            return Optional.of(new SesionUsuario(datos.readUTF(), datos.readUTF(), expira));
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    private byte[] firma(byte[] bytes, int longitud) {
+        Mac mac = macs.get();
+        mac.update(bytes, 0, longitud);
+        return Arrays.copyOf(mac.doFinal(), BYTES_FIRMA);
+    }
+}
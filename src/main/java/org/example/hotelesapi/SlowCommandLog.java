@@ -0,0 +1,178 @@
+package org.example.hotelesapi;
+
+import com.mongodb.MongoClientSettings;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import org.bson.BsonArray;
+import org.bson.BsonBinaryWriter;
+import org.bson.BsonDocument;
+import org.bson.BsonReader;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.RawBsonDocument;
+import org.bson.io.BasicOutputBuffer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registro de los últimos comandos de MongoDB que han tardado más de un umbral. Guarda como
+ * mucho un número fijo de comandos en un búfer circular, de modo que los nuevos sustituyen a
+ * los más antiguos, y de cada uno solo la forma: las claves del comando con los valores
+ * sustituidos por "?". La forma solo se calcula para los comandos que superan el umbral; de
+ * los demás solo se copian los bytes mientras están en curso.
+ */
+@Component
+public class SlowCommandLog implements CommandListener, MongoClientSettingsBuilderCustomizer {
+
+    private final long umbralNanos;
+    private final ComandoLento[] anillo;
+    private int siguiente;
+    private final Map<Integer, Inicio> enCurso = new ConcurrentHashMap<>();
+
+    public SlowCommandLog(@Value("${hoteles.metricas.comandos-lentos:100}") int capacidad,
+                          @Value("${hoteles.metricas.umbral-lento-ms:100}") long umbralMs) {
+        this.anillo = new ComandoLento[capacidad];
+        this.umbralNanos = TimeUnit.MILLISECONDS.toNanos(umbralMs);
+    }
+
+    @Override
+    public void customize(MongoClientSettings.Builder builder) {
+        builder.addCommandListener(this);
+    }
+
+    /**
+     * Obtiene los comandos lentos recientes, del más lento al más rápido.
+     *
+     * @param limit Número máximo de comandos.
+     * @return Comandos lentos.
+     */
+    public synchronized List<ComandoLento> comandos(int limit) {
+        List<ComandoLento> comandos = new ArrayList<>();
+        for (ComandoLento comando : anillo) {
+            if (comando != null) comandos.add(comando);
+        }
+        comandos.sort(Comparator.comparingDouble(ComandoLento::ms).reversed());
+        return comandos.subList(0, Math.min(limit, comandos.size()));
+    }
+
+    /**
+     * El documento del comando solo es válido durante el evento, así que se copian sus bytes
+     * sin decodificarlo para calcular la forma después si resulta lento.
+     */
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        if (anillo.length == 0) return;
+        BsonDocument comando = event.getCommand();
+        String nombre = event.getCommandName();
+        BsonValue coleccion = comando.get(nombre.equals("getMore") ? "collection" : nombre);
+        enCurso.put(event.getRequestId(), new Inicio(
+                coleccion != null && coleccion.isString() ? coleccion.asString().getValue() : null,
+                copiar(comando)));
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        terminar(event.getRequestId(), event.getCommandName(), event.getElapsedTime(TimeUnit.NANOSECONDS),
+                documentos(event.getResponse()), null);
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        terminar(event.getRequestId(), event.getCommandName(), event.getElapsedTime(TimeUnit.NANOSECONDS),
+                0, event.getThrowable().getMessage());
+    }
+
+    private void terminar(int peticion, String nombre, long nanos, long documentos, String error) {
+        Inicio inicio = enCurso.remove(peticion);
+        if (inicio == null || nanos < umbralNanos) return;
+        anadir(new ComandoLento(Instant.now(), nombre, inicio.coleccion(), forma(inicio.comando(), nombre).toJson(),
+                nanos / 1_000_000.0, documentos, error));
+    }
+
+    private synchronized void anadir(ComandoLento comando) {
+        anillo[siguiente] = comando;
+        siguiente = (siguiente + 1) % anillo.length;
+    }
+
+    /**
+     * Copia un documento byte a byte. Si viene del driver se lee directamente de su búfer, sin
+     * crear un objeto por cada valor.
+     */
+    static RawBsonDocument copiar(BsonDocument documento) {
+        BasicOutputBuffer bufer = new BasicOutputBuffer();
+        try (BsonBinaryWriter escritor = new BsonBinaryWriter(bufer); BsonReader lector = documento.asBsonReader()) {
+            escritor.pipe(lector);
+        }
+        return new RawBsonDocument(bufer.getInternalBuffer(), 0, bufer.getPosition());
+    }
+
+    /**
+     * Copia el comando sin los campos de sesión y de protocolo y con los valores ocultos. El
+     * nombre de la colección se conserva.
+     */
+    static BsonDocument forma(BsonDocument comando, String nombre) {
+        BsonDocument forma = new BsonDocument();
+        comando.forEach((clave, valor) -> {
+            if (clave.startsWith("$") || clave.equals("lsid") || clave.equals("txnNumber")) return;
+            forma.put(clave, clave.equals(nombre) && valor.isString() ? valor : ocultar(valor));
+        });
+        return forma;
+    }
+
+    private static BsonValue ocultar(BsonValue valor) {
+        if (valor.isDocument()) {
+            BsonDocument documento = new BsonDocument();
+            valor.asDocument().forEach((clave, v) -> documento.put(clave, ocultar(v)));
+            return documento;
+        }
+        if (valor.isArray()) {
+            BsonArray lista = valor.asArray();
+            return lista.isEmpty() ? new BsonArray() : new BsonArray(List.of(ocultar(lista.get(0))));
+        }
+        return new BsonString("?");
+    }
+
+    /**
+     * Documentos que devuelve el servidor: el lote del cursor en las lecturas o los afectados en las escrituras.
+     */
+    private static long documentos(BsonDocument respuesta) {
+        BsonDocument cursor = respuesta.getDocument("cursor", null);
+        if (cursor != null) {
+            BsonArray lote = Objects.requireNonNullElseGet(cursor.getArray("firstBatch", null),
+                    () -> cursor.getArray("nextBatch", new BsonArray()));
+            return lote.size();
+        }
+        BsonValue n = respuesta.get("n");
+        return n != null && n.isNumber() ? n.asNumber().longValue() : 0;
+    }
+
+    private record Inicio(String coleccion, RawBsonDocument comando) {
+    }
+
+    /**
+     * Comando lento de MongoDB.
+     *
+     * @param fecha Momento en que terminó.
+     * @param comando Nombre del comando.
+     * @param coleccion Colección sobre la que se ejecutó, si se conoce.
+     * @param forma Comando con los valores ocultos.
+     * @param ms Duración en milisegundos.
+     * @param documentos Documentos devueltos o afectados.
+     * @param error Mensaje de error si falló, o null.
+     */
+    public record ComandoLento(Instant fecha, String comando, String coleccion, String forma, double ms,
+                               long documentos, String error) {
+    }
+}
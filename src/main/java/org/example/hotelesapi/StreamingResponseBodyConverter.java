@@ -0,0 +1,46 @@
+package org.example.hotelesapi;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Escribe un {@link StreamingResponseBody} devuelto dentro de un {@code ResponseEntity<?>}.
+ * Spring solo lo trata como respuesta en streaming cuando el tipo declarado del cuerpo es
+ * StreamingResponseBody, así que los listados de la API, que devuelven JSON o NDJSON según
+ * la petición, necesitan este conversor. La escritura se hace en el hilo de la petición.
+ */
+public class StreamingResponseBodyConverter implements HttpMessageConverter<StreamingResponseBody> {
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return StreamingResponseBody.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public List<MediaType> getSupportedMediaTypes() {
+        return List.of(MediaType.ALL);
+    }
+
+    @Override
+    public StreamingResponseBody read(Class<? extends StreamingResponseBody> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("StreamingResponseBody solo se puede escribir", inputMessage);
+    }
+
+    @Override
+    public void write(StreamingResponseBody body, MediaType contentType, HttpOutputMessage outputMessage) throws IOException {
+        if (contentType != null) outputMessage.getHeaders().setContentType(contentType);
+        body.writeTo(outputMessage.getBody());
+    }
+}
@@ -0,0 +1,83 @@
+package org.example.hotelesapi;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Cubo de tokens por clave sin bloqueos. Cada clave cae en una franja de un array de
+ * contadores atómicos según su hash, así que la memoria es fija y no hay que limpiar claves
+ * antiguas; dos claves que comparten franja comparten también el límite, lo que con
+ * suficientes franjas solo hace el límite algo más estricto para ellas.
+ * <p>
+ * Cada franja guarda solo el instante teórico en que el cubo volvería a estar lleno
+ * (algoritmo GCRA), que se actualiza con compare-and-set.
+ */
+public class StripedRateLimiter {
+
+    private final AtomicLongArray franjas;
+    private final int mascara;
+    private final long intervaloNanos;
+    private final long toleranciaNanos;
+    private final long origen = System.nanoTime();
+
+    /**
+     * @param porSegundo Peticiones por segundo que se reponen en el cubo.
+     * @param rafaga Capacidad del cubo: peticiones seguidas que se admiten con el cubo lleno.
+     * @param franjas Número de franjas; se redondea a la potencia de dos superior.
+     */
+    public StripedRateLimiter(double porSegundo, int rafaga, int franjas) {
+        int tamano = franjas <= 1 ? 1 : Integer.highestOneBit(franjas - 1) << 1;
+        this.franjas = new AtomicLongArray(tamano);
+        this.mascara = tamano - 1;
+        this.intervaloNanos = (long) (TimeUnit.SECONDS.toNanos(1) / porSegundo);
+        this.toleranciaNanos = intervaloNanos * Math.max(0, rafaga - 1);
+    }
+
+    /**
+     * Intenta consumir un token del cubo de una clave.
+     *
+     * @param clave Cliente que hace la petición.
+     * @return 0 si se admite, o los nanosegundos que faltan para que haya un token.
+     */
+    public long intentar(String clave) {
+        return intentar(clave, System.nanoTime() - origen);
+    }
+
+    /**
+     * Igual que {@link #intentar(String)} en un instante dado.
+     *
+     * @param ahora Nanosegundos desde que se creó el limitador.
+     */
+    long intentar(String clave, long ahora) {
+        int franja = mezclar(clave.hashCode()) & mascara;
+        while (true) {
+            long lleno = franjas.get(franja);
+            long siguiente = Math.max(lleno, ahora) + intervaloNanos;
+            long espera = siguiente - ahora - intervaloNanos - toleranciaNanos;
+            if (espera > 0) return espera;
+            if (franjas.compareAndSet(franja, lleno, siguiente)) return 0;
+        }
+    }
+
+    /**
+     * Devuelve el token consumido por una llamada a {@link #intentar(String)} que admitió la
+     * petición, si al final no se atiende por otro límite.
+     *
+     * @param clave Cliente que hizo la petición.
+     */
+    public void devolver(String clave) {
+        franjas.getAndAdd(mezclar(clave.hashCode()) & mascara, -intervaloNanos);
+    }
+
+    /**
+     * Reparte los bits del hash para que claves parecidas, como IP consecutivas, no caigan
+     * en franjas vecinas.
+     */
+    private static int mezclar(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        return h ^ (h >>> 16);
+    }
+}
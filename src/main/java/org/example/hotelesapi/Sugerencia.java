@@ -0,0 +1,11 @@
+package org.example.hotelesapi;
+
+/**
+ * Hotel propuesto al autocompletar una búsqueda.
+ *
+ * @param id ID del hotel.
+ * @param nombre Nombre del hotel.
+ * @param municipio Municipio del hotel.
+ */
+public record Sugerencia(String id, String nombre, String municipio) {
+}
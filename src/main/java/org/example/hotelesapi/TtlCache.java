@@ -0,0 +1,232 @@
+package org.example.hotelesapi;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Caché en memoria acotada por número de entradas y, opcionalmente, por el peso total de los
+ * valores (por ejemplo, su tamaño en bytes), con caducidad por tiempo (TTL).
+ * Cuando se supera algún límite se expulsa la entrada usada hace más tiempo (LRU).
+ * Los valores null no se guardan. Es segura para uso concurrente.
+ *
+ * @param <K> tipo de la clave
+ * @param <V> tipo del valor
+ */
+public class TtlCache<K, V> {
+
+    private final int maxEntradas;
+    private final long maxPeso;
+    private final ToLongFunction<? super V> pesador;
+    private final long ttlNanos;
+    private final LinkedHashMap<K, Entrada<V>> entradas = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long aciertos;
+    private long fallos;
+    private long expulsiones;
+    private long invalidaciones;
+    private long peso;
+
+    /**
+     * Se incrementa en cada invalidación para descartar cargas que empezaron antes de ella.
+     */
+    private long generacion;
+
+    /**
+     * Crea una caché.
+     *
+     * @param maxEntradas número máximo de entradas.
+     * @param ttlSegundos segundos que una entrada se considera válida.
+     */
+    public TtlCache(int maxEntradas, long ttlSegundos) {
+        this(maxEntradas, maxEntradas, ttlSegundos, valor -> 1);
+    }
+
+    /**
+     * Crea una caché acotada también por peso. Los valores que pesan más que el máximo no se guardan.
+     *
+     * @param maxEntradas número máximo de entradas.
+     * @param maxPeso peso total máximo de los valores.
+     * @param ttlSegundos segundos que una entrada se considera válida.
+     * @param pesador función que calcula el peso de un valor.
+     */
+    public TtlCache(int maxEntradas, long maxPeso, long ttlSegundos, ToLongFunction<? super V> pesador) {
+        this.maxEntradas = maxEntradas;
+        this.maxPeso = maxPeso;
+        this.pesador = pesador;
+        this.ttlNanos = ttlSegundos * 1_000_000_000L;
+    }
+
+    /**
+     * Devuelve el valor asociado a la clave o lo carga con el cargador si no está o ha caducado.
+     * La carga se hace fuera del bloqueo; si mientras tanto hubo una invalidación el valor
+     * cargado se devuelve pero no se guarda.
+     *
+     * @param clave Clave buscada.
+     * @param cargador Función que obtiene el valor en caso de fallo.
+     * @return El valor en caché o el recién cargado.
+     */
+    public V get(K clave, Supplier<V> cargador) {
+        long generacionCarga;
+        synchronized (this) {
+            Entrada<V> entrada = entradas.get(clave);
+            if (entrada != null) {
+                if (entrada.caduca() - System.nanoTime() > 0) {
+                    aciertos++;
+                    return entrada.valor();
+                }
+                quitar(clave);
+                expulsiones++;
+            }
+            fallos++;
+            generacionCarga = generacion;
+        }
+        V valor = cargador.get();
+        synchronized (this) {
+            if (generacionCarga == generacion && valor != null) guardar(clave, valor);
+        }
+        return valor;
+    }
+
+    /**
+     * Devuelve el valor asociado a la clave sin cargarlo.
+     *
+     * @param clave Clave buscada.
+     * @return El valor en caché o null si no está o ha caducado.
+     */
+    public synchronized V getIfPresent(K clave) {
+        Entrada<V> entrada = entradas.get(clave);
+        if (entrada != null) {
+            if (entrada.caduca() - System.nanoTime() > 0) {
+                aciertos++;
+                return entrada.valor();
+            }
+            quitar(clave);
+            expulsiones++;
+        }
+        fallos++;
+        return null;
+    }
+
+    /**
+     * Guarda un valor, sustituyendo el que hubiera.
+     *
+     * @param clave Clave.
+     * @param valor Valor a guardar; si es null se elimina la entrada.
+     */
+    public synchronized void put(K clave, V valor) {
+        if (valor == null) quitar(clave);
+        else guardar(clave, valor);
+    }
+
+    /**
+     * Elimina la entrada de una clave.
+     *
+     * @param clave Clave a invalidar.
+     */
+    public synchronized void invalidar(K clave) {
+        generacion++;
+        if (quitar(clave) != null) invalidaciones++;
+    }
+
+    /**
+     * Elimina todas las entradas cuya clave cumpla la condición.
+     *
+     * @param condicion Condición sobre la clave.
+     */
+    public synchronized void invalidarSi(Predicate<? super K> condicion) {
+        generacion++;
+        Iterator<Map.Entry<K, Entrada<V>>> it = entradas.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<K, Entrada<V>> entrada = it.next();
+            if (condicion.test(entrada.getKey())) {
+                it.remove();
+                peso -= entrada.getValue().peso();
+                invalidaciones++;
+            }
+        }
+    }
+
+    /**
+     * Elimina todas las entradas cuyo valor cumpla la condición.
+     *
+     * @param condicion Condición sobre el valor.
+     */
+    public synchronized void invalidarSiValor(Predicate<? super V> condicion) {
+        generacion++;
+        Iterator<Entrada<V>> it = entradas.values().iterator();
+        while (it.hasNext()) {
+            Entrada<V> entrada = it.next();
+            if (condicion.test(entrada.valor())) {
+                it.remove();
+                peso -= entrada.peso();
+                invalidaciones++;
+            }
+        }
+    }
+
+    /**
+     * Vacía la caché.
+     */
+    public synchronized void invalidarTodo() {
+        generacion++;
+        invalidaciones += entradas.size();
+        entradas.clear();
+        peso = 0;
+    }
+
+    /**
+     * Obtiene los contadores de uso de la caché.
+     *
+     * @return Estadísticas actuales.
+     */
+    public synchronized Estadisticas estadisticas() {
+        return new Estadisticas(aciertos, fallos, expulsiones, invalidaciones, entradas.size(), maxEntradas, peso, maxPeso);
+    }
+
+    private void guardar(K clave, V valor) {
+        long pesoValor = pesador.applyAsLong(valor);
+        quitar(clave);
+        if (pesoValor > maxPeso) return;
+        entradas.put(clave, new Entrada<>(valor, System.nanoTime() + ttlNanos, pesoValor));
+        peso += pesoValor;
+        expulsarSobrantes();
+    }
+
+    private Entrada<V> quitar(K clave) {
+        Entrada<V> entrada = entradas.remove(clave);
+        if (entrada != null) peso -= entrada.peso();
+        return entrada;
+    }
+
+    private void expulsarSobrantes() {
+        Iterator<Map.Entry<K, Entrada<V>>> it = entradas.entrySet().iterator();
+        while ((entradas.size() > maxEntradas || peso > maxPeso) && it.hasNext()) {
+            peso -= it.next().getValue().peso();
+            it.remove();
+            expulsiones++;
+        }
+    }
+
+    private record Entrada<V>(V valor, long caduca, long peso) {
+    }
+
+    /**
+     * Contadores de una caché.
+     *
+     * @param aciertos lecturas servidas desde la caché.
+     * @param fallos lecturas que tuvieron que cargar el valor.
+     * @param expulsiones entradas eliminadas por tamaño o caducidad.
+     * @param invalidaciones entradas eliminadas por escrituras.
+     * @param entradas número de entradas actuales.
+     * @param maxEntradas número máximo de entradas.
+     * @param peso peso total de los valores actuales; igual a entradas si la caché no tiene pesador.
+     * @param maxPeso peso total máximo.
+     */
+    public record Estadisticas(long aciertos, long fallos, long expulsiones, long invalidaciones,
+                               int entradas, int maxEntradas, long peso, long maxPeso) {
+    }
+}
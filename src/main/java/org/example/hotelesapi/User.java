@@ -2,14 +2,18 @@ package org.example.hotelesapi;
 
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 @Document(collection = "users")
+@CompoundIndex(name = "email_usuario", def = "{'email': 1, 'user': 1}")
 @Data
 public class User {
     @Id
     private String _id;
     private String user;
     private String email;
+    @Indexed(unique = true, sparse = true)
     private String token;
 }
@@ -0,0 +1,31 @@
+package org.example.hotelesapi;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+
+/**
+ * Mantiene la caché de tokens de SecurityService al día cuando se guardan o eliminan
+ * usuarios desde esta aplicación.
+ */
+@Component
+public class UserCacheListener extends AbstractMongoEventListener<User> {
+
+    @Autowired
+    SecurityService securityService;
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<User> event) {
+        securityService.usuarioModificado(event.getSource());
+    }
+
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<User> event) {
+        Document filtro = event.getSource();
+        Object id = filtro.get("_id");
+        securityService.usuarioEliminado(id instanceof Document || id == null ? null : id.toString());
+    }
+}
@@ -0,0 +1,133 @@
+package org.example.hotelesapi;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Guarda quién ha iniciado sesión en la web. En el modo {@code firmada}, el de por defecto,
+ * la sesión viaja en una cookie firmada con {@link SignedSessionCodec}: ninguna instancia
+ * guarda estado, cualquiera atiende a cualquier usuario sin balanceo con afinidad y la
+ * comprobación no consulta MongoDB. Cuando a la sesión le queda menos de la mitad de su vida
+ * se vuelve a emitir la cookie, así que solo caduca tras {@code hoteles.sesion.ttl-segundos}
+ * sin visitas. En el modo {@code servlet} la sesión se guarda en la {@link HttpSession} de la
+ * instancia, como antes.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class UserSessionService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserSessionService.class);
+
+    static final String COOKIE = "hoteles_sesion";
+
+    private static final String ATRIBUTO = "user";
+
+    private final boolean firmada;
+    private final long ttlSegundos;
+    private final SignedSessionCodec codec;
+
+    public UserSessionService(@Value("${hoteles.sesion.modo:firmada}") String modo,
+                              @Value("${hoteles.sesion.secreto:}") String secreto,
+                              @Value("${hoteles.sesion.ttl-segundos:1800}") long ttlSegundos) {
+        if (!modo.equals("firmada") && !modo.equals("servlet")) {
+            throw new IllegalArgumentException("hoteles.sesion.modo debe ser firmada o servlet: " + modo);
+        }
+        this.firmada = modo.equals("firmada");
+        this.ttlSegundos = ttlSegundos;
+        if (firmada && secreto.isEmpty()) {
+            log.warn("Sin hoteles.sesion.secreto: las sesiones solo valen en esta instancia y hasta que se reinicie");
+            byte[] aleatorio = new byte[32];
+            new SecureRandom().nextBytes(aleatorio);
+            this.codec = new SignedSessionCodec(aleatorio);
+        } else {
+            this.codec = firmada ? new SignedSessionCodec(secreto.getBytes(StandardCharsets.UTF_8)) : null;
+        }
+    }
+
+    /**
+     * Inicia la sesión de un usuario autenticado.
+     *
+     * @param user Usuario que ha iniciado sesión.
+     */
+    public void iniciar(User user, HttpServletRequest request, HttpServletResponse response) {
+        SesionUsuario sesion = SesionUsuario.de(user, ahora() + ttlSegundos);
+        if (firmada) {
+            escribirCookie(request, response, codec.codificar(sesion), ttlSegundos);
+        } else {
+            request.getSession().setAttribute(ATRIBUTO, sesion);
+        }
+    }
+
+    /**
+     * Obtiene la sesión de la petición, renovando la cookie si está a mitad de su vida.
+     *
+     * @return La sesión, o vacío si no hay ninguna válida.
+     */
+    public Optional<SesionUsuario> actual(HttpServletRequest request, HttpServletResponse response) {
+        if (!firmada) {
+            HttpSession session = request.getSession(false);
+            return Optional.ofNullable(session != null ? (SesionUsuario) session.getAttribute(ATRIBUTO) : null);
+        }
+        String valor = leerCookie(request);
+        if (valor == null) return Optional.empty();
+        long ahora = ahora();
+        Optional<SesionUsuario> sesion = codec.decodificar(valor, ahora);
+        if (sesion.isPresent() && sesion.get().expira() - ahora < ttlSegundos / 2) {
+            SesionUsuario renovada = new SesionUsuario(sesion.get().id(), sesion.get().user(), ahora + ttlSegundos);
+            escribirCookie(request, response, codec.codificar(renovada), ttlSegundos);
+            return Optional.of(renovada);
+        }
+        return sesion;
+    }
+
+    /**
+     * Cierra la sesión de la petición, si la hay.
+     */
+    public void cerrar(HttpServletRequest request, HttpServletResponse response) {
+        if (firmada) {
+            if (leerCookie(request) != null) escribirCookie(request, response, "", 0);
+        } else {
+            HttpSession session = request.getSession(false);
+            if (session != null) session.removeAttribute(ATRIBUTO);
+        }
+    }
+
+    private static String leerCookie(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) return null;
+        for (Cookie cookie : cookies) {
+            if (COOKIE.equals(cookie.getName())) return cookie.getValue();
+        }
+        return null;
+    }
+
+    private static void escribirCookie(HttpServletRequest request, HttpServletResponse response, String valor, long segundos) {
+        response.addHeader(HttpHeaders.SET_COOKIE, ResponseCookie.from(COOKIE, valor)
+                .path("/")
+                .maxAge(Duration.ofSeconds(segundos))
+                .httpOnly(true)
+                .secure(request.isSecure())
+                .sameSite("Lax")
+                .build()
+                .toString());
+    }
+
+    private static long ahora() {
+        return Instant.now().getEpochSecond();
+    }
+}
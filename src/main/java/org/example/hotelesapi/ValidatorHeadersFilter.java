@@ -0,0 +1,132 @@
+package org.example.hotelesapi;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Deja en las respuestas GET de la API las cabeceras ETag y Last-Modified que pone
+ * {@link ConditionalGetInterceptor} solo si terminan con 2xx o 304. El interceptor las calcula
+ * antes de llegar al controlador, cuando aún no se sabe si la respuesta será un error; un
+ * cliente que guardara la ETag de un 400 o un 404 recibiría después 304 en lugar del hotel.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ValidatorHeadersFilter extends OncePerRequestFilter {
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(request.getContextPath() + "/api/")
+                || (!"GET".equals(request.getMethod()) && !"HEAD".equals(request.getMethod()));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        SoloEnExito respuesta = new SoloEnExito(response);
+        chain.doFilter(request, respuesta);
+        // Respuestas sin cuerpo, como los 304. Si el controlador lanza una excepción no se llega
+        // aquí y el error se responde sin ellas.
+        respuesta.aplicar();
+    }
+
+    /**
+     * Guarda las cabeceras ETag y Last-Modified hasta que se empieza a escribir la respuesta, y
+     * entonces las escribe solo si el estado es 2xx o 304.
+     */
+    private static final class SoloEnExito extends HttpServletResponseWrapper {
+
+        private final Map<String, Runnable> pendientes = new LinkedHashMap<>();
+        private boolean aplicadas;
+
+        SoloEnExito(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            if (!aplazar(name, () -> super.setHeader(name, value))) super.setHeader(name, value);
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            if (!aplazar(name, () -> super.addHeader(name, value))) super.addHeader(name, value);
+        }
+
+        @Override
+        public void setDateHeader(String name, long date) {
+            if (!aplazar(name, () -> super.setDateHeader(name, date))) super.setDateHeader(name, date);
+        }
+
+        @Override
+        public void addDateHeader(String name, long date) {
+            if (!aplazar(name, () -> super.addDateHeader(name, date))) super.addDateHeader(name, date);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            aplicar();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            aplicar();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            aplicar();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            descartar();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            descartar();
+            super.sendError(sc);
+        }
+
+        synchronized void aplicar() {
+            if (aplicadas) return;
+            aplicadas = true;
+            int estado = getStatus();
+            if ((estado >= 200 && estado < 300) || estado == HttpStatus.NOT_MODIFIED.value()) {
+                pendientes.values().forEach(Runnable::run);
+            }
+            pendientes.clear();
+        }
+
+        private synchronized void descartar() {
+            aplicadas = true;
+            pendientes.clear();
+        }
+
+        private synchronized boolean aplazar(String name, Runnable escribir) {
+            if (aplicadas || (!HttpHeaders.ETAG.equalsIgnoreCase(name) && !HttpHeaders.LAST_MODIFIED.equalsIgnoreCase(name))) {
+                return false;
+            }
+            pendientes.put(name.toLowerCase(), escribir);
+            return true;
+        }
+    }
+}
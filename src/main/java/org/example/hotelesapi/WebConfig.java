@@ -0,0 +1,37 @@
+package org.example.hotelesapi;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class WebConfig implements WebMvcConfigurer {
+
+    @Autowired
+    ConditionalGetInterceptor conditionalGetInterceptor;
+
+    @Autowired
+    HandlerObservationInterceptor handlerObservationInterceptor;
+
+    @Autowired
+    RateLimitInterceptor rateLimitInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(handlerObservationInterceptor).addPathPatterns("/api/**", "/web/**");
+        registry.addInterceptor(rateLimitInterceptor).addPathPatterns("/api/**", "/web/**");
+        registry.addInterceptor(conditionalGetInterceptor).addPathPatterns("/api/**").excludePathPatterns("/api/operaciones/**");
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(0, new StreamingResponseBodyConverter());
+        converters.add(new HotelBinaryMessageConverter());
+    }
+}
@@ -1,38 +1,60 @@
 package org.example.hotelesapi;
 
-import jakarta.servlet.http.HttpSession;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.View;
 
-import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 @Controller
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/web")
 
 public class WebController {
 
     @Autowired
-    HotelRepository hotelRepository;
+    HotelService hotelService;
+
+    @Autowired
+    HotelFacetService hotelFacetService;
+
+    @Autowired
+    HotelFragmentCache hotelFragmentCache;
+
+    @Autowired
+    UserSessionService userSessionService;
+
+    @Autowired
+    ObjectProvider<HotelWriteBehindQueue> hotelWriteBehindQueue;
+
+    /**
+     * Hoteles por página en los listados web cuando no se indica limit.
+     */
+    @Value("${hoteles.web.tamano-pagina:100}")
+    int tamanoPagina;
 
     /**
      * Muestra la página principal con el listado de hoteles.
      *
-     * @param session la sesión HTTP actual
+     * @param request la petición HTTP actual
+     * @param response la respuesta, por si hay que renovar la sesión
      * @param model el modelo para pasar datos a la vista
-     * @return el nombre de la vista a renderizar
+     * @param pagina cursor y tamaño de página opcionales
+     * @return la vista a renderizar
      */
     @GetMapping("/")
-    public String index(HttpSession session, Model model) {
-        var hoteles = hotelRepository.findAll();
+    public View index(HttpServletRequest request, HttpServletResponse response, Model model, Pagina pagina) {
         model.addAttribute("titulo", "Listado de hoteles");
-        model.addAttribute("hoteles", hoteles);
-        if(session.getAttribute("user") != null) {
-            User user = (User) session.getAttribute("user");
-            model.addAttribute("usuario", user);
-        }
-        return "index";
+        userSessionService.actual(request, response).ifPresent(usuario -> model.addAttribute("usuario", usuario));
+        return hotelFragmentCache.vista("index", paginada(HotelQuery.todos().conCampos(HotelProjection.SUMMARY), pagina));
     }
 
     /**
@@ -44,7 +66,7 @@ public class WebController {
      */
     @GetMapping("/{id}")
     public String single(Model model, @PathVariable String id) {
-        var hotel = hotelRepository.findById(id);
+        var hotel = hotelService.findById(id);
         if(hotel.isEmpty()) return "404";
 
         else {
@@ -56,12 +78,13 @@ public class WebController {
     /**
      * Muestra la página para crear un nuevo hotel.
      *
-     * @param session la sesión HTTP actual
+     * @param request la petición HTTP actual
+     * @param response la respuesta, por si hay que renovar la sesión
      * @return el nombre de la vista a renderizar o redirige a la página de login
      */
     @GetMapping("/new")
-    public String createNew(HttpSession session) {
-        if(session.getAttribute("user") != null) {
+    public String createNew(HttpServletRequest request, HttpServletResponse response) {
+        if(userSessionService.actual(request, response).isPresent()) {
             return "new";
         }else{
             return "redirect:/login";
@@ -71,14 +94,15 @@ public class WebController {
     /**
      * Procesa la creación de un nuevo hotel.
      *
-     * @param session la sesión HTTP actual
+     * @param request la petición HTTP actual
+     * @param response la respuesta, por si hay que renovar la sesión
      * @param hotel el objeto Hotel a crear
      * @return redirige a la página principal o a la página de login
      */
     @PostMapping("/new")
-    public String create(HttpSession session, @ModelAttribute Hotel hotel) {
-        if(session.getAttribute("user") != null) {
-            hotelRepository.save(hotel);
+    public String create(HttpServletRequest request, HttpServletResponse response, @ModelAttribute Hotel hotel) {
+        if(userSessionService.actual(request, response).isPresent()) {
+            if (!encolar(hotel)) hotelService.save(hotel);
             return "redirect:/web/";
         }else{
             return "redirect:/login/";
@@ -91,66 +115,23 @@ public class WebController {
      * @param provinces la provincia de los hoteles
      * @param modalities la modalidad de los hoteles
      * @param model el modelo para pasar datos a la vista
-     * @return el nombre de la vista a renderizar
+     * @param pagina cursor y tamaño de página opcionales
+     * @return la vista a renderizar
      */
     @GetMapping("/hoteles/provincia/{provinces}/modalidad/{modalities}/estrellas")
-    public String getHotelesPorProvinciaModalidadYEstrellas(
+    public View getHotelesPorProvinciaModalidadYEstrellas(
             @PathVariable String provinces,
             @PathVariable String modalities,
-            Model model) {
-
-        List<Hotel> hoteles = hotelRepository.findHotelesByProvinces(provinces);
-
-        List<Hotel> hotelesFiltrados = hoteles.stream()
-                .filter(h -> h.getModalities() != null && h.getModalities().contains(modalities))
-                .sorted((h1, h2) -> {
-                    boolean h1EsLujo = esGranLujo(h1.getCategories());
-                    boolean h2EsLujo = esGranLujo(h2.getCategories());
-
-                    if (h1EsLujo && !h2EsLujo) return -1;
-                    if (!h1EsLujo && h2EsLujo) return 1;
-
-                    int estrellas1 = extraerNumero(h1.getCategories());
-                    int estrellas2 = extraerNumero(h2.getCategories());
-                    return Integer.compare(estrellas2, estrellas1);
-                })
-                .toList();
+            Model model,
+            Pagina pagina) {
 
         model.addAttribute("titulo", "Hoteles en " + provinces + " - " + modalities + " - Ordenados por Estrellas");
-        model.addAttribute("hoteles", hotelesFiltrados);
         model.addAttribute("provincia", provinces);
         model.addAttribute("modalidad", modalities);
 
-        return "hoteles-filtrados";
-    }
-
-    /**
-     * Verifica si una categoría es de gran lujo.
-     *
-     * @param category la categoría del hotel
-     * @return true si es de gran lujo, false en caso contrario
-     */
-    private boolean esGranLujo(String category) {
-        if (category == null) return false;
-        return category.toLowerCase().contains("lujo");
-    }
-
-    /**
-     * Extrae el número de estrellas de una categoría.
-     *
-     * @param category la categoría del hotel
-     * @return el número de estrellas o -1 si no se puede extraer
-     */
-    private int extraerNumero(String category) {
-        if (category == null || category.isEmpty()) {
-            return 0;
-        }
-        String[] partes = category.split(" ");
-        try {
-            return Integer.parseInt(partes[0]);
-        } catch (NumberFormatException e) {
-            return -1;
-        }
+        return hotelFragmentCache.vista("hoteles-filtrados", paginada(
+                HotelQuery.porProvincia(provinces).conModalidad(modalities).ordenadaPorEstrellas()
+                        .conCampos(HotelProjection.SUMMARY), pagina));
     }
 
     /**
@@ -161,13 +142,10 @@ public class WebController {
      */
     @GetMapping("/hoteles/provincias")
     public String listarProvincias(Model model) {
-        List<String> provincias = hotelRepository.findAll()
-                .stream()
-                .map(Hotel::getProvinces)
-                .distinct()
-                .toList();
+        Map<String, Long> provincias = hotelFacetService.facetas(HotelQuery.todos()).provincias();
 
-        model.addAttribute("provincias", provincias);
+        model.addAttribute("provincias", provincias.keySet());
+        model.addAttribute("conteos", provincias);
         model.addAttribute("titulo", "Selecciona una Provincia");
         return "provincias";
     }
@@ -181,14 +159,11 @@ public class WebController {
      */
     @GetMapping("/hoteles/provincia/{provinces}/modalidades")
     public String listarModalidades(@PathVariable String provinces, Model model) {
-        List<String> modalidades = hotelRepository.findHotelesByProvinces(provinces)
-                .stream()
-                .map(Hotel::getModalities)
-                .filter(modalidad -> modalidad != null && !modalidad.trim().isEmpty())
-                .distinct()
-                .toList();
-
-        model.addAttribute("modalidades", modalidades);
+        Map<String, Long> modalidades = new TreeMap<>(hotelFacetService.facetas(HotelQuery.porProvincia(provinces)).modalidades());
+        modalidades.keySet().removeIf(modalidad -> modalidad.trim().isEmpty());
+
+        model.addAttribute("modalidades", modalidades.keySet());
+        model.addAttribute("conteos", modalidades);
         model.addAttribute("provincia", provinces);
         model.addAttribute("titulo", "Selecciona una Modalidad en " + provinces);
         return "modalidades";
@@ -198,18 +173,42 @@ public class WebController {
      * Muestra la lista de hoteles de gran lujo.
      *
      * @param model el modelo para pasar datos a la vista
-     * @return el nombre de la vista a renderizar
+     * @param pagina cursor y tamaño de página opcionales
+     * @return la vista a renderizar
      */
     @GetMapping("/hoteles/lujo")
-    public String getHotelesDeLujo(Model model) {
-        List<Hotel> hoteles = hotelRepository.findAll()
-                .stream()
-                .filter(h -> esGranLujo(h.getCategories()))
-                .toList();
-
+    public View getHotelesDeLujo(Model model, Pagina pagina) {
         model.addAttribute("titulo", "Hoteles Gran Lujo");
-        model.addAttribute("hoteles", hoteles);
 
-        return "hoteles-lujo";
+        return hotelFragmentCache.vista("hoteles-lujo",
+                paginada(HotelQuery.todos().soloLujo().conCampos(HotelProjection.SUMMARY), pagina));
+    }
+
+    /**
+     * Encola el alta de un hotel si las escrituras son asíncronas. Si la cola está llena el
+     * formulario no se rechaza: devuelve false para que se guarde en el momento.
+     */
+    private boolean encolar(Hotel hotel) {
+        HotelWriteBehindQueue cola = hotelWriteBehindQueue.getIfAvailable();
+        if (cola == null) return false;
+        try {
+            cola.encolarAlta(hotel, null);
+            return true;
+        } catch (IllegalStateException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Pagina un listado web. Sin limit se usa el tamaño de página de la web y, si el cursor
+     * no es válido, se vuelve a la primera página.
+     */
+    private HotelQuery paginada(HotelQuery consulta, Pagina pagina) {
+        int limit = pagina.limit() != null ? pagina.limit() : tamanoPagina;
+        try {
+            return consulta.conPagina(new Pagina(pagina.after(), limit));
+        } catch (IllegalArgumentException e) {
+            return consulta.conPagina(new Pagina(null, limit));
+        }
     }
 }
@@ -0,0 +1,291 @@
+package org.example.hotelesapi;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Controlador REST reactivo con las mismas rutas de listado que {@link ApiController}. Los
+ * hoteles se leen con el driver reactivo de MongoDB y se emiten a medida que llegan, sin
+ * ocupar un hilo por petición mientras se espera a la base de datos. Solo se activa cuando la
+ * aplicación arranca como aplicación web reactiva (perfil reactive).
+ */
+@RestController
+@RequestMapping("/api")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveApiController {
+
+    @Autowired
+    ReactiveHotelRepository hotelRepository;
+
+    @Autowired
+    HotelService hotelService;
+
+    @Autowired
+    SecurityService securityService;
+
+    @Autowired
+    HotelGeoIndex hotelGeoIndex;
+
+    @Autowired
+    HotelSearchIndex hotelSearchIndex;
+
+    @Autowired
+    HotelFacetService hotelFacetService;
+
+    @Autowired
+    HotelResponseCache hotelResponseCache;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @GetMapping("/hoteles")
+    public Mono<ResponseEntity<?>> all(Pagina pagina, ServerWebExchange exchange) {
+        return listar(HotelQuery.todos(), pagina, exchange);
+    }
+
+    @GetMapping("/hoteles/consulta")
+    public Mono<ResponseEntity<?>> consulta(@RequestParam(required = false) String provincia,
+                                            @RequestParam(required = false) String modalidad,
+                                            @RequestParam(required = false) Integer estrellas,
+                                            @RequestParam(required = false) Boolean lujo,
+                                            @RequestParam(defaultValue = "id") String orden,
+                                            Pagina pagina, ServerWebExchange exchange) {
+        if (!orden.equals("id") && !orden.equals("estrellas")) return Mono.just(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
+        return listar(new HotelQuery(provincia, modalidad, estrellas, lujo, orden.equals("estrellas"), null, null,
+                HotelProjection.FULL), pagina, exchange);
+    }
+
+    @GetMapping("/hoteles/id/{id}")
+    public Mono<ResponseEntity<Hotel>> findById(@PathVariable String id) {
+        return hotelRepository.findById(id)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
+    @GetMapping("/hoteles/provincia/{provinces}")
+    public Mono<ResponseEntity<?>> findByProvinces(@PathVariable String provinces, Pagina pagina, ServerWebExchange exchange) {
+        return listar(HotelQuery.porProvincia(provinces), pagina, exchange);
+    }
+
+    @GetMapping("/hoteles/estrellas")
+    public Mono<ResponseEntity<?>> getHotelesOrdenadosPorEstrellas(Pagina pagina, ServerWebExchange exchange) {
+        return listar(HotelQuery.todos().ordenadaPorEstrellas(), pagina, exchange);
+    }
+
+    @GetMapping("/hoteles/estrellas/{estrellas}")
+    public Mono<ResponseEntity<?>> getHotelesPorEstrellas(@PathVariable int estrellas, Pagina pagina, ServerWebExchange exchange) {
+        return listar(HotelQuery.todos().conEstrellas(estrellas), pagina, exchange);
+    }
+
+    @GetMapping("/hoteles/provincia/{provinces}/estrellas/{estrellas}")
+    public Mono<ResponseEntity<?>> getHotelesPorProvinciaYEstrellas(@PathVariable String provinces, @PathVariable int estrellas, Pagina pagina, ServerWebExchange exchange) {
+        return listar(HotelQuery.porProvincia(provinces).conEstrellas(estrellas), pagina, exchange);
+    }
+
+    @GetMapping("/hoteles/provincia/{provinces}/estrellas")
+    public Mono<ResponseEntity<?>> getHotelesPorProvinciaOrdenadosPorEstrellas(@PathVariable String provinces, Pagina pagina, ServerWebExchange exchange) {
+        return listar(HotelQuery.porProvincia(provinces).ordenadaPorEstrellas(), pagina, exchange);
+    }
+
+    @GetMapping("/hoteles/lujo")
+    public Mono<ResponseEntity<?>> getHotelesDeLujo(Pagina pagina, ServerWebExchange exchange) {
+        return listar(HotelQuery.todos().soloLujo(), pagina, exchange);
+    }
+
+    @GetMapping("/hoteles/provincia/{provinces}/lujo")
+    public Mono<ResponseEntity<?>> getHotelesDeLujoPorProvincia(@PathVariable String provinces, Pagina pagina, ServerWebExchange exchange) {
+        return listar(HotelQuery.porProvincia(provinces).soloLujo(), pagina, exchange);
+    }
+
+    @GetMapping("/hoteles/modalidad/{modalities}")
+    public Mono<ResponseEntity<?>> getHotelesPorModalidad(@PathVariable String modalities, Pagina pagina, ServerWebExchange exchange) {
+        return listar(HotelQuery.porModalidad(modalities), pagina, exchange);
+    }
+
+    @GetMapping("/hoteles/modalidad/{modalities}/estrellas")
+    public Mono<ResponseEntity<?>> getHotelesPorModalidadOrdenadosPorEstrellas(@PathVariable String modalities, Pagina pagina, ServerWebExchange exchange) {
+        return listar(HotelQuery.porModalidad(modalities).ordenadaPorEstrellas(), pagina, exchange);
+    }
+
+    @GetMapping("/hoteles/modalidad/{modalities}/estrellas/{estrellas}")
+    public Mono<ResponseEntity<?>> getHotelesPorModalidadYEstrellas(@PathVariable String modalities, @PathVariable int estrellas, Pagina pagina, ServerWebExchange exchange) {
+        return listar(HotelQuery.porModalidad(modalities).conEstrellas(estrellas), pagina, exchange);
+    }
+
+    @GetMapping("/hoteles/provincia/{provinces}/modalidad/{modalities}")
+    public Mono<ResponseEntity<?>> getHotelesPorProvinciaYModalidad(@PathVariable String provinces, @PathVariable String modalities, Pagina pagina, ServerWebExchange exchange) {
+        return listar(HotelQuery.porProvincia(provinces).conModalidad(modalities), pagina, exchange);
+    }
+
+    @GetMapping("/hoteles/provincia/{provinces}/modalidad/{modalities}/estrellas/{estrellas}")
+    public Mono<ResponseEntity<?>> getHotelesPorProvinciaModalidadYEstrellas(@PathVariable String provinces, @PathVariable String modalities, @PathVariable int estrellas, Pagina pagina, ServerWebExchange exchange) {
+        return listar(HotelQuery.porProvincia(provinces).conModalidad(modalities).conEstrellas(estrellas), pagina, exchange);
+    }
+
+    @GetMapping("/hoteles/provincia/{provinces}/modalidad/{modalities}/estrellas")
+    public Mono<ResponseEntity<?>> getHotelesPorProvinciaModalidadYEstrellas(@PathVariable String provinces, @PathVariable String modalities, Pagina pagina, ServerWebExchange exchange) {
+        return listar(HotelQuery.porProvincia(provinces).conModalidad(modalities).ordenadaPorEstrellas(), pagina, exchange);
+    }
+
+    @GetMapping("/hoteles/provincia/{provinces}/modalidad/{modalities}/lujo")
+    public Mono<ResponseEntity<?>> getHotelesPorProvinciaModalidadYLujo(@PathVariable String provinces, @PathVariable String modalities, Pagina pagina, ServerWebExchange exchange) {
+        return listar(HotelQuery.porProvincia(provinces).conModalidad(modalities).soloLujo(), pagina, exchange);
+    }
+
+    @GetMapping("/hoteles/cerca")
+    public Mono<ResponseEntity<List<HotelCercano>>> cerca(@RequestParam double lat, @RequestParam double lon,
+                                                          @RequestParam(defaultValue = "10") double radio,
+                                                          @RequestParam(defaultValue = "10") int limit,
+                                                          @RequestParam(required = false) String provincia,
+                                                          @RequestParam(required = false) String modalidad,
+                                                          @RequestParam(required = false) Integer estrellas) {
+        if (lat < -90 || lat > 90 || lon < -180 || lon > 180 || radio <= 0 || limit <= 0) {
+            return Mono.just(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
+        }
+        HotelQuery filtros = HotelQuery.todos().conProvincia(provincia).conModalidad(modalidad).conEstrellas(estrellas);
+        return bloqueante(() -> ResponseEntity.ok(
+                hotelGeoIndex.cercanos(lat, lon, radio, Math.min(limit, HotelQuery.LIMITE_MAXIMO), filtros)));
+    }
+
+    @GetMapping("/hoteles/facetas")
+    public Mono<Facetas> facetas(@RequestParam(required = false) String provincia,
+                                 @RequestParam(required = false) String modalidad,
+                                 @RequestParam(required = false) Integer estrellas,
+                                 @RequestParam(required = false) Boolean lujo) {
+        return bloqueante(() -> hotelFacetService.facetas(new HotelQuery(provincia, modalidad, estrellas, lujo, false, null, null, HotelProjection.FULL)));
+    }
+
+    @GetMapping("/hoteles/buscar/texto")
+    public List<Hotel> buscarTexto(@RequestParam String q, @RequestParam(defaultValue = "20") int limit) {
+        return hotelSearchIndex.buscar(q, Math.max(1, Math.min(limit, HotelQuery.LIMITE_MAXIMO)));
+    }
+
+    @GetMapping("/hoteles/autocompletar")
+    public List<Sugerencia> autocompletar(@RequestParam String prefijo, @RequestParam(defaultValue = "10") int limit) {
+        return hotelSearchIndex.autocompletar(prefijo, Math.max(1, Math.min(limit, 50)));
+    }
+
+    /**
+     * Elimina un hotel por su ID. La escritura pasa por {@link HotelService} para invalidar
+     * las cachés y avisar a los índices en memoria.
+     *
+     * @param id ID del hotel.
+     * @param token Token de seguridad.
+     * @return ResponseEntity con el estado de la operación.
+     */
+    @DeleteMapping("/hoteles/{id}")
+    public Mono<ResponseEntity<Void>> delete(@PathVariable String id, @RequestParam String token) {
+        return bloqueante(() -> {
+            if (!securityService.requestValidation(token)) return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
+            hotelService.deleteById(id);
+            return new ResponseEntity<>(HttpStatus.OK);
+        });
+    }
+
+    /**
+     * Crea un nuevo hotel a través de {@link HotelService}.
+     *
+     * @param hotel Objeto Hotel a crear.
+     * @return ResponseEntity con el hotel creado.
+     */
+    @PostMapping("/")
+    public Mono<ResponseEntity<Hotel>> create(@RequestBody Hotel hotel) {
+        return bloqueante(() -> new ResponseEntity<>(hotelService.save(hotel), HttpStatus.CREATED));
+    }
+
+    /**
+     * Responde con el resultado de una consulta de listado tal como llega del driver. Con
+     * application/x-ndjson cada hotel se envía en cuanto se lee. Si se pide una página en JSON,
+     * o el formato binario de {@link HotelBinaryCodec}, se reúne antes de responder, que como
+     * mucho son {@link HotelQuery#LIMITE_MAXIMO} hoteles, para poder añadir la cabecera Link con
+     * la siguiente. El parámetro fields elige los campos que se leen y se devuelven, como en
+     * {@link ApiController}.
+     *
+     * @param consulta Filtros y orden del listado.
+     * @param pagina Cursor y tamaño de página pedidos.
+     * @param exchange Petición en curso.
+     * @return ResponseEntity con los hoteles o BAD_REQUEST si el cursor o los campos no son válidos.
+     */
+    private Mono<ResponseEntity<?>> listar(HotelQuery consulta, Pagina pagina, ServerWebExchange exchange) {
+        HotelQuery paginada;
+        try {
+            paginada = consulta.conPagina(pagina)
+                    .conCampos(HotelProjection.parse(exchange.getRequest().getQueryParams().getFirst("fields")));
+        } catch (IllegalArgumentException e) {
+            return Mono.just(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
+        }
+        Flux<Hotel> hoteles = hotelRepository.buscar(paginada);
+        boolean ndjson = acepta(exchange, MediaType.APPLICATION_NDJSON);
+        if (!ndjson && acepta(exchange, HotelBinaryCodec.MEDIA_TYPE)) {
+            return hoteles.collectList().map(lista -> conSiguiente(paginada, lista, exchange)
+                    .contentType(HotelBinaryCodec.MEDIA_TYPE)
+                    .body(HotelBinaryCodec.codificar(lista, paginada.campos())));
+        }
+        if (!paginada.paginada() || ndjson) {
+            return Mono.just(ResponseEntity.ok().body(proyectar(hoteles, paginada.campos())));
+        }
+        return hoteles.collectList().map(lista -> conSiguiente(paginada, lista, exchange)
+                .body(proyectar(Flux.fromIterable(lista), paginada.campos())));
+    }
+
+    /**
+     * Añade la cabecera Link con la página siguiente si la página leída está completa.
+     */
+    private static ResponseEntity.BodyBuilder conSiguiente(HotelQuery paginada, List<Hotel> lista, ServerWebExchange exchange) {
+        var respuesta = ResponseEntity.ok();
+        if (paginada.paginada() && lista.size() == paginada.limit()) {
+            String siguiente = UriComponentsBuilder.fromUri(exchange.getRequest().getURI())
+                    .replaceQueryParam("after", paginada.cursor(lista.get(lista.size() - 1)))
+                    .replaceQueryParam("limit", paginada.limit())
+                    .toUriString();
+            respuesta.header(HttpHeaders.LINK, "<" + siguiente + ">; rel=\"next\"");
+        }
+        return respuesta;
+    }
+
+    /**
+     * Deja en cada hotel solo los campos de la proyección, serializándolo con el mismo escritor
+     * que la caché de respuestas. Con todos los campos los hoteles se devuelven tal cual.
+     */
+    private Flux<?> proyectar(Flux<Hotel> hoteles, HotelProjection campos) {
+        if (campos.completa()) return hoteles;
+        ObjectWriter escritor = hotelResponseCache.escritor(campos);
+        return hoteles.map(hotel -> {
+            try {
+                return objectMapper.readTree(escritor.writeValueAsBytes(hotel));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private static boolean acepta(ServerWebExchange exchange, MediaType tipo) {
+        return exchange.getRequest().getHeaders().getAccept().stream()
+                .anyMatch(tipo::equalsTypeAndSubtype);
+    }
+
+    /**
+     * Ejecuta una llamada bloqueante (MongoTemplate, cachés con carga síncrona) fuera de los
+     * hilos del servidor.
+     */
+    private static <T> Mono<T> bloqueante(Callable<T> llamada) {
+        return Mono.fromCallable(llamada).subscribeOn(Schedulers.boundedElastic());
+    }
+}
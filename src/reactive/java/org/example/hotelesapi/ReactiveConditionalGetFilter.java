@@ -0,0 +1,52 @@
+package org.example.hotelesapi;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * Equivalente de {@link ConditionalGetInterceptor} para el modo reactivo: responde 304 a las
+ * peticiones GET de la API cuya ETag o fecha siguen vigentes sin llegar al controlador, y quita
+ * la ETag y Last-Modified de las respuestas que terminan en error.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveConditionalGetFilter implements WebFilter {
+
+    @Autowired
+    CatalogVersion catalogVersion;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (!request.getPath().value().startsWith("/api/")
+                || (request.getMethod() != HttpMethod.GET && request.getMethod() != HttpMethod.HEAD)) {
+            return chain.filter(exchange);
+        }
+        ServerHttpResponse response = exchange.getResponse();
+        response.getHeaders().add(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        response.getHeaders().setCacheControl("no-cache");
+        HttpHeaders cabeceras = request.getHeaders();
+        long version = catalogVersion.version();
+        String etag = catalogVersion.etag(version, request.getPath().value(), request.getURI().getRawQuery(),
+                cabeceras.getFirst(HttpHeaders.ACCEPT), cabeceras.getFirst(HttpHeaders.ACCEPT_ENCODING));
+        if (exchange.checkNotModified(etag, catalogVersion.modificado())) return response.setComplete();
+        // Como en ValidatorHeadersFilter, un error no lleva ETag ni Last-Modified.
+        response.beforeCommit(() -> {
+            if (response.getStatusCode() != null && !response.getStatusCode().is2xxSuccessful()) {
+                response.getHeaders().remove(HttpHeaders.ETAG);
+                response.getHeaders().remove(HttpHeaders.LAST_MODIFIED);
+            }
+            return Mono.empty();
+        });
+        return chain.filter(exchange);
+    }
+}
@@ -0,0 +1,9 @@
+package org.example.hotelesapi;
+
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+/**
+ * Versión reactiva de {@link HotelRepository} para el modo de despliegue reactivo.
+ */
+public interface ReactiveHotelRepository extends ReactiveMongoRepository<Hotel, String>, ReactiveHotelRepositoryCustom {
+}
@@ -0,0 +1,14 @@
+package org.example.hotelesapi;
+
+import reactor.core.publisher.Flux;
+
+public interface ReactiveHotelRepositoryCustom {
+
+    /**
+     * Ejecuta una consulta de listado y emite los hoteles a medida que llegan del driver.
+     *
+     * @param consulta Filtros, orden y página del listado.
+     * @return Hoteles que cumplen la consulta, en orden.
+     */
+    Flux<Hotel> buscar(HotelQuery consulta);
+}
@@ -0,0 +1,25 @@
+package org.example.hotelesapi;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+
+public class ReactiveHotelRepositoryImpl implements ReactiveHotelRepositoryCustom {
+
+    /**
+     * Documentos por lote del cursor en las consultas sin paginar. Sin tamaño de lote el driver
+     * reactivo pide a MongoDB tantos documentos como demanda el suscriptor, y un listado grande
+     * acaba en decenas de getMore.
+     */
+    private static final int TAMANO_LOTE = HotelQuery.LIMITE_MAXIMO;
+
+    @Autowired
+    ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @Override
+    public Flux<Hotel> buscar(HotelQuery consulta) {
+        Query query = consulta.aQuery().cursorBatchSize(consulta.paginada() ? consulta.limit() : TAMANO_LOTE);
+        return reactiveMongoTemplate.find(query, Hotel.class);
+    }
+}
@@ -0,0 +1,21 @@
+package org.example.hotelesapi;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Servidor del modo reactivo. Como Tomcat sigue en el classpath para el modo servlet, Spring Boot
+ * lo elegiría también para WebFlux y las peticiones pasarían por el adaptador de servlets; con
+ * esta fábrica se sirven con Reactor Netty.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveServerConfig {
+
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
@@ -0,0 +1,24 @@
+package org.example.hotelesapi;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class CatalogChangeSubscriberTest {
+
+    @Test
+    void escribirHotelesNoConsultaMongoDbDesdeElHiloDeLaPeticion() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        CatalogChangeSubscriber suscriptor = new CatalogChangeSubscriber("nodo", 8080, 100, 1000, false);
+        suscriptor.mongoTemplate = mongoTemplate;
+        Hotel hotel = new Hotel();
+        hotel.set_id("1");
+
+        for (int i = 0; i < 10; i++) suscriptor.hotelCambiado(new HotelCambiadoEvent(null, hotel));
+        suscriptor.catalogoRecargado();
+
+        verifyNoInteractions(mongoTemplate);
+    }
+}
@@ -0,0 +1,33 @@
+package org.example.hotelesapi;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CatalogVersionTest {
+
+    private final CatalogVersion catalogVersion = new CatalogVersion();
+
+    @Test
+    void variantesConElMismoHashTienenEtagsDistintas() {
+        // "Aa" y "BB" tienen el mismo hashCode.
+        assertThat(catalogVersion.etag(1, "/api/hoteles", "q=Aa"))
+                .isNotEqualTo(catalogVersion.etag(1, "/api/hoteles", "q=BB"));
+    }
+
+    @Test
+    void unaParteQueFaltaNoEquivaleAUnaVaciaNiSeMezclaConLaSiguiente() {
+        assertThat(catalogVersion.etag(1, "/api/hoteles", null, "gzip"))
+                .isNotEqualTo(catalogVersion.etag(1, "/api/hoteles", "", "gzip"))
+                .isNotEqualTo(catalogVersion.etag(1, "/api/hoteles", "gzip", null));
+        assertThat(catalogVersion.etag(1, "ab", "c")).isNotEqualTo(catalogVersion.etag(1, "a", "bc"));
+    }
+
+    @Test
+    void laMismaVarianteTieneLaMismaEtagMientrasNoCambiaLaVersion() {
+        assertThat(catalogVersion.etag(1, "/api/hoteles", "limit=10"))
+                .isEqualTo(catalogVersion.etag(1, "/api/hoteles", "limit=10"))
+                .isNotEqualTo(catalogVersion.etag(2, "/api/hoteles", "limit=10"))
+                .startsWith("\"1-");
+    }
+}
@@ -0,0 +1,58 @@
+package org.example.hotelesapi;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GridHotelGeoIndexTest {
+
+    private final GridHotelGeoIndex indice = new GridHotelGeoIndex(0.1);
+
+    @Test
+    void encuentraLosHotelesAlOtroLadoDelAntimeridiano() {
+        anadir("este", 0, 179.95);
+        anadir("oeste", 0, -179.95);
+
+        assertThat(ids(indice.cercanos(0, 179.99, 20, 10, HotelQuery.todos()))).containsExactly("este", "oeste");
+        assertThat(ids(indice.cercanos(0, -179.99, 20, 10, HotelQuery.todos()))).containsExactly("oeste", "este");
+    }
+
+    @Test
+    void unRadioQueLlegaAlPoloAbarcaTodasLasLongitudes() {
+        anadir("1", 89.9, 0);
+        anadir("2", 89.9, 180);
+
+        assertThat(ids(indice.cercanos(89.95, 90, 50, 10, HotelQuery.todos()))).containsExactlyInAnyOrder("1", "2");
+    }
+
+    @Test
+    void unRadioEnormeDevuelveLosMasCercanosDeTodoElCatalogo() {
+        anadir("madrid", 40.42, -3.70);
+        anadir("sidney", -33.87, 151.21);
+        anadir("lima", -12.05, -77.04);
+
+        assertThat(ids(indice.cercanos(40.42, -3.70, 1e9, 2, HotelQuery.todos()))).containsExactly("madrid", "lima");
+    }
+
+    @Test
+    void noDevuelveLosHotelesFueraDelRadio() {
+        anadir("cerca", 43.36, -5.85);
+        anadir("lejos", 43.46, -3.80);
+
+        assertThat(ids(indice.cercanos(43.36, -5.84, 10, 10, HotelQuery.todos()))).containsExactly("cerca");
+    }
+
+    private void anadir(String id, double lat, double lon) {
+        Hotel hotel = new Hotel();
+        hotel.set_id(id);
+        hotel.setLocation(new GeoJsonPoint(lon, lat));
+        indice.hotelCambiado(new HotelCambiadoEvent(null, hotel));
+    }
+
+    private static List<String> ids(List<HotelCercano> cercanos) {
+        return cercanos.stream().map(cercano -> cercano.hotel().get_id()).toList();
+    }
+}
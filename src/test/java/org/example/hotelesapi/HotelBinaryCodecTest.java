@@ -0,0 +1,149 @@
+package org.example.hotelesapi;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HotelBinaryCodecTest {
+
+    @Test
+    void codificarYDecodificarConservaLosHoteles() throws IOException {
+        Hotel primero = hotel("1", "Hotel Uno", "HOTEL 3 ESTRELLAS", "Asturias", -3, false);
+        Hotel segundo = hotel("2", "Hostal Dos", "HOTEL 5 ESTRELLAS GRAN LUJO", "Asturias", 5, true);
+        segundo.setPhone(null);
+
+        List<Hotel> leidos = HotelBinaryCodec.decodificar(ByteBuffer.wrap(
+                HotelBinaryCodec.codificar(List.of(primero, segundo), HotelProjection.FULL)));
+
+        assertThat(leidos).containsExactly(primero, segundo);
+    }
+
+    @Test
+    void codificarConservaEnterosExtremos() throws IOException {
+        Hotel minimo = hotel("1", "a", null, null, Integer.MIN_VALUE, false);
+        Hotel maximo = hotel("2", "b", null, null, Integer.MAX_VALUE, false);
+
+        List<Hotel> leidos = HotelBinaryCodec.decodificar(ByteBuffer.wrap(
+                HotelBinaryCodec.codificar(List.of(minimo, maximo), HotelProjection.FULL)));
+
+        assertThat(leidos).extracting(Hotel::getStars).containsExactly(Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    @Test
+    void decodificarIgnoraLosCamposQueNoSePidieron() throws IOException {
+        Hotel hotel = hotel("1", "Hotel Uno", "HOTEL 3 ESTRELLAS", "Asturias", 3, false);
+
+        Hotel leido = HotelBinaryCodec.decodificar(ByteBuffer.wrap(
+                HotelBinaryCodec.codificar(List.of(hotel), HotelProjection.SUMMARY))).get(0);
+
+        assertThat(leido.get_id()).isEqualTo("1");
+        assertThat(leido.getName()).isEqualTo("Hotel Uno");
+        assertThat(leido.getHolder()).isNull();
+    }
+
+    @Test
+    void decodificarRechazaCadaTruncamiento() {
+        byte[] completo = HotelBinaryCodec.codificar(
+                List.of(hotel("1", "Hotel Uno", "HOTEL 3 ESTRELLAS", "Asturias", 3, false)), HotelProjection.FULL);
+
+        for (int longitud = 0; longitud < completo.length; longitud++) {
+            byte[] truncado = Arrays.copyOf(completo, longitud);
+            assertThatThrownBy(() -> HotelBinaryCodec.decodificar(ByteBuffer.wrap(truncado)))
+                    .as("truncado a %d bytes", longitud)
+                    .isInstanceOf(IOException.class);
+        }
+    }
+
+    @Test
+    void decodificarRechazaUnEsquemaConDemasiadosCampos() {
+        byte[] hostil = {'H', 'T', 'L', 1, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07};
+
+        assertThatThrownBy(() -> HotelBinaryCodec.decodificar(ByteBuffer.wrap(hostil)))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("campos");
+    }
+
+    @Test
+    void decodificarRechazaUnVarintDeMasDe32Bits() {
+        byte[] hostil = {'H', 'T', 'L', 1, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x7F};
+
+        assertThatThrownBy(() -> HotelBinaryCodec.decodificar(ByteBuffer.wrap(hostil)))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("32 bits");
+    }
+
+    @Test
+    void decodificarRechazaUnaLongitudMayorQueMaxValue() {
+        // Un campo con nombre de longitud 2^31, que como int sería negativa.
+        byte[] hostil = {'H', 'T', 'L', 1, 1, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0x08};
+
+        assertThatThrownBy(() -> HotelBinaryCodec.decodificar(ByteBuffer.wrap(hostil)))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("fuera de rango");
+    }
+
+    @Test
+    void decodificarRechazaUnaLongitudMayorQueLoQueQueda() {
+        byte[] hostil = {'H', 'T', 'L', 1, 1, (byte) 0xFF, (byte) 0xFF, 0x03, 'n'};
+
+        assertThatThrownBy(() -> HotelBinaryCodec.decodificar(ByteBuffer.wrap(hostil)))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("bytes restantes");
+    }
+
+    @Test
+    void decodificarRechazaUnaReferenciaAlDiccionarioInexistente() {
+        byte[] hostil = {'H', 'T', 'L', 1, 1, 9, 'p', 'r', 'o', 'v', 'i', 'n', 'c', 'e', 's', 'D', 1, 5, 0};
+
+        assertThatThrownBy(() -> HotelBinaryCodec.decodificar(ByteBuffer.wrap(hostil)))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("diccionario");
+    }
+
+    @Test
+    void elConversorDevuelveNotReadableSiElCuerpoNoEsValido() {
+        HotelBinaryMessageConverter conversor = new HotelBinaryMessageConverter();
+        byte[] hostil = {'H', 'T', 'L', 1, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07};
+
+        assertThatThrownBy(() -> conversor.read(Hotel.class, null, mensaje(hostil)))
+                .isInstanceOf(HttpMessageNotReadableException.class);
+    }
+
+    private static HttpInputMessage mensaje(byte[] cuerpo) {
+        return new HttpInputMessage() {
+            @Override
+            public InputStream getBody() {
+                return new ByteArrayInputStream(cuerpo);
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return new HttpHeaders();
+            }
+        };
+    }
+
+    private static Hotel hotel(String id, String nombre, String categoria, String provincia, int estrellas, boolean lujo) {
+        Hotel hotel = new Hotel();
+        hotel.set_id(id);
+        hotel.setName(nombre);
+        hotel.setCategories(categoria);
+        hotel.setProvinces(provincia);
+        hotel.setPhone("985000000");
+        hotel.setHolder("Titular");
+        hotel.setStars(estrellas);
+        hotel.setLuxury(lujo);
+        return hotel;
+    }
+}
@@ -0,0 +1,102 @@
+package org.example.hotelesapi;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class HotelBulkImporterTest {
+
+    private InMemoryHotelRepository repositorio;
+    private HotelBulkImporter importador;
+
+    @BeforeEach
+    void crearImportador() {
+        repositorio = new InMemoryHotelRepository();
+        importador = new HotelBulkImporter(3);
+        importador.hotelRepository = repositorio;
+        importador.objectMapper = new ObjectMapper();
+        importador.hotelService = mock(HotelService.class);
+    }
+
+    @Test
+    void elUltimoHotelDeCadaCodigoEnUnLoteGana() throws IOException {
+        ResultadoImportacion resultado = importador.importarCsv(entrada("""
+                registration_code;name;phone
+                A;Primero;985000001
+                A;Segundo;
+                B;Otro;985000002
+                """));
+
+        assertThat(resultado.insertadas()).isEqualTo(2);
+        assertThat(resultado.duplicadas()).isEqualTo(1);
+        assertThat(repositorio.findAll()).hasSize(2);
+        Hotel a = repositorio.findAll().stream().filter(h -> "A".equals(h.getRegistration_code())).findFirst().orElseThrow();
+        assertThat(a.getName()).isEqualTo("Segundo");
+        assertThat(a.getPhone()).isNull();
+    }
+
+    @Test
+    void unCodigoRepetidoEnOtroLoteActualizaElHotel() throws IOException {
+        ResultadoImportacion resultado = importador.importarNdjson(entrada("""
+                {"registration_code": "A", "name": "Primero", "phone": "985000001"}
+                {"registration_code": "B", "name": "Otro"}
+                {"registration_code": "C", "name": "Otro más"}
+                {"registration_code": "A", "name": "Segundo"}
+                """));
+
+        assertThat(resultado.insertadas()).isEqualTo(3);
+        assertThat(resultado.actualizadas()).isEqualTo(1);
+        assertThat(resultado.duplicadas()).isZero();
+        Hotel a = repositorio.findAll().stream().filter(h -> "A".equals(h.getRegistration_code())).findFirst().orElseThrow();
+        assertThat(a.getName()).isEqualTo("Segundo");
+        assertThat(a.getPhone()).isEqualTo("985000001");
+    }
+
+    @Test
+    void lasFilasRechazadasIndicanSuLinea() throws IOException {
+        ResultadoImportacion resultado = importador.importarNdjson(entrada("""
+                {"registration_code": "A", "name": "Primero"}
+
+                {"name": "Sin código"}
+                no es json
+                """));
+
+        assertThat(resultado.rechazadas()).isEqualTo(2);
+        assertThat(resultado.errores()).extracting(ResultadoImportacion.Rechazo::linea).containsExactly(3L, 4L);
+    }
+
+    @Test
+    void ultimosPorCodigoConservaElOrdenDelLote() {
+        List<Hotel> lote = List.of(hotel("A"), hotel("B"), hotel("A"), hotel("C"), hotel("B"));
+
+        assertThat(HotelRepositoryCustom.ultimosPorCodigo(lote)).containsExactly(2, 3, 4);
+    }
+
+    @Test
+    void elRepositorioEnMemoriaRechazaUnCodigoDeOtroHotel() {
+        repositorio.save(hotel("A"));
+
+        assertThatThrownBy(() -> repositorio.save(hotel("A"))).isInstanceOf(DuplicateKeyException.class);
+        assertThat(repositorio.findAll()).hasSize(1);
+    }
+
+    private static Hotel hotel(String codigo) {
+        Hotel hotel = new Hotel();
+        hotel.setRegistration_code(codigo);
+        return hotel;
+    }
+
+    private static ByteArrayInputStream entrada(String texto) {
+        return new ByteArrayInputStream(texto.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,29 @@
+package org.example.hotelesapi;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class HotelMigrationTest {
+
+    @Test
+    void unFalloDeMongoDbNoInterrumpeElArranque() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), eq(Hotel.class))).thenReturn(mock(BulkOperations.class));
+        when(mongoTemplate.stream(any(Query.class), eq(Hotel.class)))
+                .thenThrow(new DataAccessResourceFailureException("Timed out"));
+        HotelMigration migracion = new HotelMigration();
+        migracion.mongoTemplate = mongoTemplate;
+
+        assertThatCode(() -> migracion.run(new DefaultApplicationArguments())).doesNotThrowAnyException();
+    }
+}
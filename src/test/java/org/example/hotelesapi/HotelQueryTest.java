@@ -0,0 +1,133 @@
+package org.example.hotelesapi;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HotelQueryTest {
+
+    @Test
+    void recorrerLasPaginasDevuelveCadaHotelUnaVezEnOrden() {
+        List<Hotel> hoteles = hoteles();
+
+        for (HotelQuery consulta : List.of(HotelQuery.todos(), HotelQuery.todos().ordenadaPorEstrellas(),
+                HotelQuery.porProvincia("Asturias").ordenadaPorEstrellas())) {
+            List<Hotel> esperados = hoteles.stream().filter(consulta::incluye).sorted(consulta.comparador()).toList();
+
+            assertThat(recorrer(consulta, hoteles, 3)).as(consulta.forma()).containsExactlyElementsOf(esperados);
+        }
+    }
+
+    @Test
+    void elCursorOrdenadoIncluyeLujoEstrellasEId() {
+        HotelQuery consulta = HotelQuery.todos().ordenadaPorEstrellas();
+
+        assertThat(consulta.cursor(hotel("h7", "Asturias", 4, true))).isEqualTo("1.4.h7");
+        assertThat(consulta.cursor(hotel("h7", "Asturias", -1, false))).isEqualTo("0.-1.h7");
+        assertThat(HotelQuery.todos().cursor(hotel("h7", "Asturias", 4, true))).isEqualTo("h7");
+    }
+
+    @Test
+    void posicionCursorDevuelveLoMismoQueAplicarSobreUnConjuntoOrdenado() {
+        List<Hotel> hoteles = hoteles();
+        NavigableSet<Hotel> ranking = new TreeSet<>(Hotel.COMPARADOR_ESTRELLAS);
+        ranking.addAll(hoteles);
+
+        for (Hotel ultimo : hoteles) {
+            HotelQuery consulta = HotelQuery.todos().ordenadaPorEstrellas()
+                    .conPagina(new Pagina(HotelQuery.todos().ordenadaPorEstrellas().cursor(ultimo), 1000));
+
+            assertThat(ranking.tailSet(consulta.posicionCursor(), false))
+                    .as("después de %s", ultimo.get_id())
+                    .containsExactlyElementsOf(consulta.aplicar(hoteles));
+        }
+    }
+
+    @Test
+    void aQueryConCursorOrdenadoContinuaPorLujoEstrellasEId() {
+        HotelQuery consulta = HotelQuery.porProvincia("Asturias").ordenadaPorEstrellas().conPagina(new Pagina("1.4.h7", 10));
+
+        Document filtro = consulta.aQuery().getQueryObject();
+
+        assertThat(filtro.get("provinces")).isEqualTo("Asturias");
+        assertThat(filtro.toJson()).contains(
+                "{\"luxury\": {\"$lt\": true}}",
+                "{\"luxury\": true, \"stars\": {\"$lt\": 4}}",
+                "{\"luxury\": true, \"stars\": 4, \"_id\": {\"$gt\": \"h7\"}}");
+        assertThat(consulta.aQuery().getSortObject()).isEqualTo(Document.parse("{\"luxury\": -1, \"stars\": -1, \"_id\": 1}"));
+        assertThat(consulta.aQuery().getLimit()).isEqualTo(10);
+    }
+
+    @Test
+    void conPaginaAcotaElLimite() {
+        HotelQuery todos = HotelQuery.todos();
+
+        assertThat(todos.conPagina(null)).isSameAs(todos);
+        assertThat(todos.conPagina(new Pagina(null, null))).isSameAs(todos);
+        assertThat(todos.conPagina(new Pagina("h1", null)).limit()).isEqualTo(HotelQuery.LIMITE_POR_DEFECTO);
+        assertThat(todos.conPagina(new Pagina(null, 0)).limit()).isEqualTo(1);
+        assertThat(todos.conPagina(new Pagina(null, 5000)).limit()).isEqualTo(HotelQuery.LIMITE_MAXIMO);
+    }
+
+    @Test
+    void conPaginaRechazaCursoresOrdenadosMalFormados() {
+        HotelQuery ordenada = HotelQuery.todos().ordenadaPorEstrellas();
+
+        for (String cursor : List.of("h7", "2.4.h7", "1.cuatro.h7", "1.4")) {
+            assertThatThrownBy(() -> ordenada.conPagina(new Pagina(cursor, 10)))
+                    .as(cursor)
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+        assertThat(ordenada.conPagina(new Pagina("1.4.id.con.puntos", 10)).posicionCursor().get_id()).isEqualTo("id.con.puntos");
+    }
+
+    @Test
+    void formaDescribeFiltrosOrdenYPaginacion() {
+        assertThat(HotelQuery.todos().forma()).isEqualTo("todos");
+        assertThat(HotelQuery.porProvincia("Asturias").conEstrellas(4).ordenadaPorEstrellas()
+                .conPagina(new Pagina("1.4.h7", null)).forma()).isEqualTo("provincia+estrellas:estrellas:cursor");
+        assertThat(HotelQuery.porModalidad("Hotel").soloLujo().conPagina(new Pagina(null, 10)).forma())
+                .isEqualTo("modalidad+lujo:pagina");
+    }
+
+    /**
+     * Pide páginas con {@link HotelQuery#aplicar} siguiendo el cursor del último hotel de cada una.
+     */
+    private static List<Hotel> recorrer(HotelQuery consulta, List<Hotel> hoteles, int tamano) {
+        List<Hotel> leidos = new ArrayList<>();
+        String after = null;
+        while (true) {
+            List<Hotel> pagina = consulta.conPagina(new Pagina(after, tamano)).aplicar(hoteles);
+            leidos.addAll(pagina);
+            if (pagina.size() < tamano) return leidos;
+            after = consulta.cursor(pagina.get(pagina.size() - 1));
+        }
+    }
+
+    /**
+     * Hoteles con lujo y estrellas repetidos, para que el orden dependa también del _id.
+     */
+    private static List<Hotel> hoteles() {
+        List<Hotel> hoteles = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            hoteles.add(hotel("h" + (char) ('a' + (i * 7) % 20), i % 2 == 0 ? "Asturias" : "Cantabria", i % 4 - 1, i % 5 == 0));
+        }
+        return hoteles;
+    }
+
+    private static Hotel hotel(String id, String provincia, int estrellas, boolean lujo) {
+        Hotel hotel = new Hotel();
+        hotel.set_id(id);
+        hotel.setProvinces(provincia);
+        hotel.setStars(estrellas);
+        hotel.setLuxury(lujo);
+        return hotel;
+    }
+}
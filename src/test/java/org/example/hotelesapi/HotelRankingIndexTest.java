@@ -0,0 +1,93 @@
+package org.example.hotelesapi;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class HotelRankingIndexTest {
+
+    private final HotelRepository repositorio = mock(HotelRepository.class);
+    private final HotelRankingIndex indice = crearIndice();
+
+    @Test
+    void unCambioMientrasSeLeeElCatalogoAlArrancarNoSePierde() {
+        Hotel antiguo = hotel("1", 3, false);
+        Hotel actual = hotel("1", 5, true);
+        Hotel nuevo = hotel("2", 4, false);
+        when(repositorio.findAll()).thenAnswer(invocacion -> {
+            // Cambios hechos después de leer el catálogo y antes de sustituir los rankings.
+            indice.hotelCambiado(new HotelCambiadoEvent(antiguo, actual));
+            indice.hotelCambiado(new HotelCambiadoEvent(null, nuevo));
+            return List.of(antiguo);
+        });
+
+        indice.cargar();
+
+        assertThat(indice.mejores(ordenada())).containsExactly(actual, nuevo);
+    }
+
+    @Test
+    void unCambioMientrasSeRecargaSeAplicaALosRankingsNuevos() {
+        Hotel primero = hotel("1", 3, false);
+        Hotel segundo = hotel("2", 4, false);
+        indice.cargar(List.of(primero, segundo));
+        when(repositorio.findAll()).thenAnswer(invocacion -> {
+            indice.hotelCambiado(new HotelCambiadoEvent(segundo, null));
+            // Mientras tanto los rankings anteriores siguen sirviendo y ya tienen el cambio.
+            assertThat(indice.mejores(ordenada())).containsExactly(primero);
+            return List.of(primero, segundo);
+        });
+
+        indice.cargar();
+
+        assertThat(indice.mejores(ordenada())).containsExactly(primero);
+    }
+
+    @Test
+    void sinMongoDbLasConsultasVanAlRepositorio() {
+        when(repositorio.findAll()).thenThrow(new DataAccessResourceFailureException("Timed out"));
+
+        indice.cargar();
+
+        assertThat(indice.mejores(ordenada())).isNull();
+        indice.hotelCambiado(new HotelCambiadoEvent(null, hotel("1", 3, false)));
+        assertThat(indice.mejores(ordenada())).isNull();
+    }
+
+    @Test
+    void unaRecargaFallidaConservaLosRankingsAnteriores() {
+        Hotel hotel = hotel("1", 3, false);
+        indice.cargar(List.of(hotel));
+        when(repositorio.findAll()).thenThrow(new DataAccessResourceFailureException("Timed out"));
+
+        indice.cargar();
+        Hotel cambiado = hotel("1", 4, false);
+        indice.hotelCambiado(new HotelCambiadoEvent(hotel, cambiado));
+
+        assertThat(indice.mejores(ordenada())).containsExactly(cambiado);
+    }
+
+    private HotelRankingIndex crearIndice() {
+        HotelRankingIndex indice = new HotelRankingIndex(true);
+        indice.hotelRepository = repositorio;
+        return indice;
+    }
+
+    private static HotelQuery ordenada() {
+        return HotelQuery.todos().ordenadaPorEstrellas();
+    }
+
+    private static Hotel hotel(String id, int estrellas, boolean lujo) {
+        Hotel hotel = new Hotel();
+        hotel.set_id(id);
+        hotel.setProvinces("Asturias");
+        hotel.setStars(estrellas);
+        hotel.setLuxury(lujo);
+        return hotel;
+    }
+}
@@ -0,0 +1,127 @@
+package org.example.hotelesapi;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class HotelSearchIndexTest {
+
+    private HotelSearchIndex indice;
+
+    @BeforeEach
+    void crearIndice() {
+        indice = new HotelSearchIndex();
+    }
+
+    @Test
+    void autocompletarDevuelveHastaElLimiteAunqueHayaMuchosTerminos() {
+        // 79 nombres "Hotel 12xx" distintos: más términos con el prefijo "12" de los que se expandían antes.
+        for (int i = 0; i < 79; i++) anadir("h" + i, "Hotel " + (1200 + i), i % 5, false);
+        for (int i = 0; i < 100; i++) anadir("o" + i, "Hotel " + (3000 + i), 5, true);
+
+        assertThat(indice.autocompletar("hotel 12", 50)).hasSize(50);
+        assertThat(indice.autocompletar("hotel 12", 100)).hasSize(79);
+    }
+
+    @Test
+    void autocompletarConUnSoloPrefijoNoRepiteHoteles() {
+        anadir("1", "Hostal Hospedería", 1, false);
+        anadir("2", "Casa Hostal", 2, false);
+
+        assertThat(indice.autocompletar("hos", 10)).extracting(Sugerencia::id).containsExactly("1", "2");
+    }
+
+    @Test
+    void autocompletarOrdenaPorInicioYDespuesPorCategoria() {
+        anadir("1", "Gran Hotel Mar", 5, true);
+        anadir("2", "Hotel Mar", 2, false);
+        anadir("3", "Hotel Marina", 4, false);
+        anadir("4", "Hotel Montaña", 5, false);
+
+        List<Sugerencia> sugerencias = indice.autocompletar("hotel mar", 10);
+
+        assertThat(sugerencias).extracting(Sugerencia::id).containsExactly("3", "2", "1");
+    }
+
+    @Test
+    void autocompletarNoDistingueTildesNiMayusculas() {
+        anadir("1", "Hotel Montaña", 3, false);
+
+        assertThat(indice.autocompletar("MONTANA", 10)).extracting(Sugerencia::nombre).containsExactly("Hotel Montaña");
+    }
+
+    @Test
+    void autocompletarOlvidaLosNombresAnteriores() {
+        Hotel anterior = anadir("1", "Hotel Playa", 3, false);
+        Hotel actual = hotel("1", "Hotel Puerto", 3, false);
+        indice.hotelCambiado(new HotelCambiadoEvent(anterior, actual));
+
+        assertThat(indice.autocompletar("playa", 10)).isEmpty();
+        assertThat(indice.autocompletar("puer", 10)).extracting(Sugerencia::id).containsExactly("1");
+
+        indice.hotelCambiado(new HotelCambiadoEvent(actual, null));
+
+        assertThat(indice.autocompletar("hotel", 10)).isEmpty();
+    }
+
+    @Test
+    void unCambioSinVersionAnteriorNoDuplicaElHotel() {
+        anadir("1", "Hotel Playa", 3, false);
+        indice.hotelCambiado(new HotelCambiadoEvent(null, hotel("1", "Hotel Puerto", 3, false)));
+
+        assertThat(indice.autocompletar("hotel", 10)).extracting(Sugerencia::nombre).containsExactly("Hotel Puerto");
+    }
+
+    @Test
+    void unCambioMientrasSeLeeElCatalogoNoSePierde() {
+        Hotel antiguo = hotel("1", "Hotel Playa", 3, false);
+        Hotel actual = hotel("1", "Hotel Puerto", 3, false);
+        Hotel nuevo = hotel("2", "Hotel Mar", 4, false);
+        HotelService servicio = mock(HotelService.class);
+        when(servicio.findAll()).thenAnswer(invocacion -> {
+            // Cambios hechos después de leer el catálogo y antes de cargarlo en el índice.
+            indice.hotelCambiado(new HotelCambiadoEvent(antiguo, actual));
+            indice.hotelCambiado(new HotelCambiadoEvent(null, nuevo));
+            return List.of(antiguo);
+        });
+        indice.hotelService = servicio;
+
+        indice.cargar();
+
+        assertThat(indice.autocompletar("hotel", 10)).extracting(Sugerencia::nombre)
+                .containsExactlyInAnyOrder("Hotel Puerto", "Hotel Mar");
+    }
+
+    @Test
+    void sinMongoDbLaCargaNoFalla() {
+        HotelService servicio = mock(HotelService.class);
+        when(servicio.findAll()).thenThrow(new DataAccessResourceFailureException("Timed out"));
+        indice.hotelService = servicio;
+        anadir("1", "Hotel Playa", 3, false);
+
+        indice.cargar();
+
+        assertThat(indice.autocompletar("playa", 10)).extracting(Sugerencia::id).containsExactly("1");
+    }
+
+    private Hotel anadir(String id, String nombre, int estrellas, boolean lujo) {
+        Hotel hotel = hotel(id, nombre, estrellas, lujo);
+        indice.hotelCambiado(new HotelCambiadoEvent(null, hotel));
+        return hotel;
+    }
+
+    private static Hotel hotel(String id, String nombre, int estrellas, boolean lujo) {
+        Hotel hotel = new Hotel();
+        hotel.set_id(id);
+        hotel.setName(nombre);
+        hotel.setStars(estrellas);
+        hotel.setLuxury(lujo);
+        return hotel;
+    }
+}
@@ -0,0 +1,37 @@
+package org.example.hotelesapi;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class IndexProvisionerTest {
+
+    @Test
+    void sinMongoDbElArranqueContinuaYLasColeccionesQuedanComoFallidas() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        IndexOperations operaciones = mock(IndexOperations.class);
+        when(mongoTemplate.getConverter())
+                .thenReturn(new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext()));
+        when(mongoTemplate.indexOps(any(Class.class))).thenReturn(operaciones);
+        when(mongoTemplate.getCollectionName(Hotel.class)).thenReturn("hoteles");
+        when(mongoTemplate.getCollectionName(User.class)).thenReturn("users");
+        when(operaciones.getIndexInfo()).thenThrow(new DataAccessResourceFailureException("Timed out"));
+        IndexProvisioner provisioner = new IndexProvisioner();
+        provisioner.mongoTemplate = mongoTemplate;
+
+        provisioner.run(new DefaultApplicationArguments());
+
+        assertThat(provisioner.resultado().fallidos()).containsExactlyInAnyOrder("hoteles: Timed out", "users: Timed out");
+        assertThat(provisioner.resultado().creados()).isEmpty();
+    }
+}
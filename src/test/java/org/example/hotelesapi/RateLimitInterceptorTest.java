@@ -0,0 +1,70 @@
+package org.example.hotelesapi;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitInterceptorTest {
+
+    @Test
+    void cadaGrupoDeRutasTieneSusPropiosCubos() {
+        RateLimitInterceptor limites = limites(new MockEnvironment().withProperty("hoteles.limites.web.lecturas.rafaga", "1"));
+
+        assertThat(admitida(limites, "/web/hoteles")).isTrue();
+        assertThat(admitida(limites, "/web/hoteles")).isFalse();
+        assertThat(admitida(limites, "/api/hoteles")).isTrue();
+        assertThat(admitida(limites, "/api/hoteles")).isTrue();
+    }
+
+    @Test
+    void unGrupoSinLimitesPropiosUsaLosGenerales() {
+        RateLimitInterceptor limites = limites(new MockEnvironment());
+
+        assertThat(admitida(limites, "/api/hoteles")).isTrue();
+        assertThat(admitida(limites, "/api/hoteles")).isTrue();
+        assertThat(admitida(limites, "/api/hoteles")).isFalse();
+    }
+
+    @Test
+    void unaPeticionRechazadaPorSuTokenNoGastaElCuboDeLaIp() {
+        RateLimitInterceptor limites = limites(new MockEnvironment());
+        admitida(limites, "10.0.0.1", "a");
+        admitida(limites, "10.0.0.1", "a");
+
+        for (int i = 0; i < 5; i++) assertThat(admitida(limites, "10.0.0.2", "a")).isFalse();
+
+        assertThat(admitida(limites, "10.0.0.2", "b")).isTrue();
+        assertThat(admitida(limites, "10.0.0.2", "b")).isTrue();
+    }
+
+    @Test
+    void elGrupoEsElPrimerSegmentoSinElContextPath() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/app/api/hoteles/1");
+        request.setContextPath("/app");
+
+        assertThat(RateLimitInterceptor.grupo(request)).isEqualTo("api");
+        assertThat(RateLimitInterceptor.grupo(new MockHttpServletRequest("GET", "/web"))).isEqualTo("web");
+    }
+
+    private static RateLimitInterceptor limites(MockEnvironment entorno) {
+        return new RateLimitInterceptor(1, 2, 1, 2, 16, 0, 0, 1000, List.of("api", "web"), entorno);
+    }
+
+    private static boolean admitida(RateLimitInterceptor limites, String ruta) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", ruta);
+        request.setRemoteAddr("10.0.0.1");
+        return limites.preHandle(request, new MockHttpServletResponse(), null);
+    }
+
+    private static boolean admitida(RateLimitInterceptor limites, String ip, String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/hoteles");
+        request.setRemoteAddr(ip);
+        request.setParameter("token", token);
+        return limites.preHandle(request, new MockHttpServletResponse(), null);
+    }
+}
@@ -0,0 +1,94 @@
+package org.example.hotelesapi;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SignedSessionCodecTest {
+
+    private static final long AHORA = 1_800_000_000L;
+
+    private final SignedSessionCodec codec = new SignedSessionCodec(secreto("a"));
+
+    @Test
+    void decodificarDevuelveLaSesionCodificada() {
+        SesionUsuario sesion = new SesionUsuario("66a1f0c2", "María", AHORA + 60);
+
+        assertThat(codec.decodificar(codec.codificar(sesion), AHORA)).contains(sesion);
+    }
+
+    @Test
+    void unUsuarioSinNombreSeDecodificaComoVacio() {
+        SesionUsuario sesion = new SesionUsuario("66a1f0c2", null, AHORA + 60);
+
+        assertThat(codec.decodificar(codec.codificar(sesion), AHORA)).contains(new SesionUsuario("66a1f0c2", "", AHORA + 60));
+    }
+
+    @Test
+    void decodificarRechazaUnContenidoModificado() {
+        byte[] bytes = bytes(codec.codificar(new SesionUsuario("66a1f0c2", "maria", AHORA + 60)));
+        // El último byte del nombre, justo antes de la firma.
+        bytes[bytes.length - 17] = 'o';
+
+        assertThat(codec.decodificar(valor(bytes), AHORA)).isEmpty();
+    }
+
+    @Test
+    void decodificarRechazaUnaCaducidadAmpliada() {
+        byte[] bytes = bytes(codec.codificar(new SesionUsuario("66a1f0c2", "maria", AHORA - 1)));
+        bytes[1] = 0x7F;
+
+        assertThat(codec.decodificar(valor(bytes), AHORA)).isEmpty();
+    }
+
+    @Test
+    void decodificarRechazaUnaFirmaModificada() {
+        byte[] bytes = bytes(codec.codificar(new SesionUsuario("66a1f0c2", "maria", AHORA + 60)));
+        bytes[bytes.length - 1] ^= 1;
+
+        assertThat(codec.decodificar(valor(bytes), AHORA)).isEmpty();
+    }
+
+    @Test
+    void decodificarRechazaUnaSesionCaducada() {
+        String valor = codec.codificar(new SesionUsuario("66a1f0c2", "maria", AHORA));
+
+        assertThat(codec.decodificar(valor, AHORA - 1)).isPresent();
+        assertThat(codec.decodificar(valor, AHORA)).isEmpty();
+    }
+
+    @Test
+    void decodificarRechazaUnaSesionFirmadaConOtroSecreto() {
+        String valor = new SignedSessionCodec(secreto("b")).codificar(new SesionUsuario("66a1f0c2", "maria", AHORA + 60));
+
+        assertThat(codec.decodificar(valor, AHORA)).isEmpty();
+    }
+
+    @Test
+    void decodificarRechazaValoresMalFormados() {
+        assertThat(codec.decodificar("", AHORA)).isEmpty();
+        assertThat(codec.decodificar("no es base64!", AHORA)).isEmpty();
+        assertThat(codec.decodificar(valor(new byte[16]), AHORA)).isEmpty();
+    }
+
+    @Test
+    void elSecretoDebeTenerAlMenos32Bytes() {
+        assertThatThrownBy(() -> new SignedSessionCodec(new byte[31])).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static byte[] secreto(String relleno) {
+        return relleno.repeat(32).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] bytes(String valor) {
+        return Base64.getUrlDecoder().decode(valor);
+    }
+
+    private static String valor(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
@@ -0,0 +1,65 @@
+package org.example.hotelesapi;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionDescription;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import org.bson.BsonDocument;
+import org.bson.ByteBuf;
+import org.bson.RawBsonDocument;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlowCommandLogTest {
+
+    private static final ConnectionDescription CONEXION =
+            new ConnectionDescription(new ServerId(new ClusterId(), new ServerAddress()));
+
+    @Test
+    void laFormaSeCalculaAlTerminarAunqueElDocumentoOriginalYaNoSeaValido() {
+        SlowCommandLog registro = new SlowCommandLog(10, 100);
+        ByteBuf original = RawBsonDocument.parse("""
+                {"find": "hoteles", "filter": {"provinces": "Asturias", "stars": {"$gte": 3}},
+                 "sort": {"_id": 1}, "lsid": {"id": 1}, "$db": "turismo"}""").getByteBuffer();
+        byte[] bytes = new byte[original.remaining()];
+        original.get(bytes);
+        RawBsonDocument comando = new RawBsonDocument(bytes);
+
+        registro.commandStarted(new CommandStartedEvent(null, 1, 7, CONEXION, "turismo", "find", comando));
+        Arrays.fill(bytes, (byte) 0);
+        registro.commandSucceeded(new CommandSucceededEvent(null, 1, 7, CONEXION, "turismo", "find",
+                BsonDocument.parse("{\"cursor\": {\"firstBatch\": [{}, {}]}, \"ok\": 1}"), TimeUnit.MILLISECONDS.toNanos(250)));
+
+        SlowCommandLog.ComandoLento lento = registro.comandos(10).get(0);
+        assertThat(lento.coleccion()).isEqualTo("hoteles");
+        assertThat(lento.documentos()).isEqualTo(2);
+        assertThat(BsonDocument.parse(lento.forma())).isEqualTo(BsonDocument.parse("""
+                {"find": "hoteles", "filter": {"provinces": "?", "stars": {"$gte": "?"}}, "sort": {"_id": "?"}}"""));
+    }
+
+    @Test
+    void losComandosRapidosNoSeGuardan() {
+        SlowCommandLog registro = new SlowCommandLog(10, 100);
+        BsonDocument comando = BsonDocument.parse("{\"count\": \"hoteles\"}");
+
+        registro.commandStarted(new CommandStartedEvent(null, 1, 8, CONEXION, "turismo", "count", comando));
+        registro.commandSucceeded(new CommandSucceededEvent(null, 1, 8, CONEXION, "turismo", "count",
+                BsonDocument.parse("{\"n\": 5, \"ok\": 1}"), TimeUnit.MILLISECONDS.toNanos(5)));
+
+        assertThat(registro.comandos(10)).isEmpty();
+    }
+
+    @Test
+    void copiarConservaElDocumento() {
+        BsonDocument documento = BsonDocument.parse("{\"a\": [1, 2], \"b\": {\"c\": \"d\"}}");
+
+        assertThat(SlowCommandLog.copiar(documento)).isEqualTo(documento);
+        assertThat(SlowCommandLog.copiar(RawBsonDocument.parse(documento.toJson()))).isEqualTo(documento);
+    }
+}
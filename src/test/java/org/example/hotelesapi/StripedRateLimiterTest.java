@@ -0,0 +1,81 @@
+package org.example.hotelesapi;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StripedRateLimiterTest {
+
+    private static final long SEGUNDO = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void admiteLaRafagaYDespuesUnaPeticionPorIntervalo() {
+        StripedRateLimiter cubo = new StripedRateLimiter(10, 5, 16);
+
+        for (int i = 0; i < 5; i++) assertThat(cubo.intentar("a", 0)).isZero();
+        assertThat(cubo.intentar("a", 0)).isEqualTo(SEGUNDO / 10);
+        assertThat(cubo.intentar("a", SEGUNDO / 10 - 1)).isEqualTo(1);
+        assertThat(cubo.intentar("a", SEGUNDO / 10)).isZero();
+        assertThat(cubo.intentar("a", SEGUNDO / 10)).isEqualTo(SEGUNDO / 10);
+    }
+
+    @Test
+    void unaPeticionRechazadaNoGastaTokens() {
+        StripedRateLimiter cubo = new StripedRateLimiter(1, 1, 16);
+
+        assertThat(cubo.intentar("a", 0)).isZero();
+        for (int i = 0; i < 10; i++) assertThat(cubo.intentar("a", SEGUNDO / 2)).isEqualTo(SEGUNDO / 2);
+        assertThat(cubo.intentar("a", SEGUNDO)).isZero();
+    }
+
+    @Test
+    void devolverRestituyeElTokenConsumido() {
+        StripedRateLimiter cubo = new StripedRateLimiter(1, 2, 16);
+        cubo.intentar("a", 0);
+        cubo.intentar("a", 0);
+
+        cubo.devolver("a");
+
+        assertThat(cubo.intentar("a", 0)).isZero();
+        assertThat(cubo.intentar("a", 0)).isPositive();
+    }
+
+    @Test
+    void elCuboNoAcumulaMasQueLaRafaga() {
+        StripedRateLimiter cubo = new StripedRateLimiter(10, 3, 16);
+        long tarde = 3600 * SEGUNDO;
+
+        for (int i = 0; i < 3; i++) assertThat(cubo.intentar("a", tarde)).isZero();
+        assertThat(cubo.intentar("a", tarde)).isPositive();
+    }
+
+    @Test
+    void sinRafagaAdmiteExactamenteLaTasa() {
+        StripedRateLimiter cubo = new StripedRateLimiter(4, 1, 16);
+        int admitidas = 0;
+        for (long ahora = 0; ahora < 10 * SEGUNDO; ahora += SEGUNDO / 100) {
+            if (cubo.intentar("a", ahora) == 0) admitidas++;
+        }
+
+        assertThat(admitidas).isEqualTo(40);
+    }
+
+    @Test
+    void cadaClaveTieneSuPropioCubo() {
+        StripedRateLimiter cubo = new StripedRateLimiter(1, 1, 1 << 16);
+
+        assertThat(cubo.intentar("10.0.0.1", 0)).isZero();
+        assertThat(cubo.intentar("10.0.0.1", 0)).isPositive();
+        assertThat(cubo.intentar("10.0.0.2", 0)).isZero();
+    }
+
+    @Test
+    void lasClavesQueCompartenFranjaCompartenLimite() {
+        StripedRateLimiter cubo = new StripedRateLimiter(1, 1, 1);
+
+        assertThat(cubo.intentar("a", 0)).isZero();
+        assertThat(cubo.intentar("b", 0)).isPositive();
+    }
+}
@@ -0,0 +1,111 @@
+package org.example.hotelesapi;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TtlCacheTest {
+
+    private final TtlCache<String, String> cache = new TtlCache<>(10, 60);
+
+    @Test
+    void getGuardaLoCargadoSiNadieInvalidaMientras() {
+        assertThat(cache.get("a", () -> "uno")).isEqualTo("uno");
+        assertThat(cache.get("a", () -> "dos")).isEqualTo("uno");
+        assertThat(cache.estadisticas().aciertos()).isEqualTo(1);
+        assertThat(cache.estadisticas().fallos()).isEqualTo(1);
+    }
+
+    @Test
+    void unaCargaQueEmpezoAntesDeInvalidarLaClaveNoSeGuarda() {
+        cargaInvalidada(c -> c.invalidar("a"));
+    }
+
+    @Test
+    void unaCargaQueEmpezoAntesDeInvalidarOtraClaveTampocoSeGuarda() {
+        // La generación es de toda la caché: basta cualquier invalidación.
+        cargaInvalidada(c -> c.invalidar("b"));
+    }
+
+    @Test
+    void unaCargaQueEmpezoAntesDeInvalidarPorCondicionNoSeGuarda() {
+        cargaInvalidada(c -> c.invalidarSi(clave -> clave.startsWith("a")));
+        cargaInvalidada(c -> c.invalidarSiValor(valor -> true));
+    }
+
+    @Test
+    void unaCargaQueEmpezoAntesDeVaciarLaCacheNoSeGuarda() {
+        cargaInvalidada(TtlCache::invalidarTodo);
+    }
+
+    @Test
+    void unaCargaConcurrenteConUnaInvalidacionNoDejaElValorAntiguo() throws Exception {
+        CountDownLatch cargando = new CountDownLatch(1);
+        CountDownLatch invalidada = new CountDownLatch(1);
+        CompletableFuture<String> lectura = CompletableFuture.supplyAsync(() -> cache.get("a", () -> {
+            cargando.countDown();
+            try {
+                invalidada.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "antiguo";
+        }));
+
+        cargando.await(5, TimeUnit.SECONDS);
+        cache.invalidar("a");
+        invalidada.countDown();
+
+        assertThat(lectura.get(5, TimeUnit.SECONDS)).isEqualTo("antiguo");
+        assertThat(cache.get("a", () -> "nuevo")).isEqualTo("nuevo");
+    }
+
+    @Test
+    void losValoresNullNoSeGuardan() {
+        assertThat(cache.get("a", () -> null)).isNull();
+        assertThat(cache.get("a", () -> "uno")).isEqualTo("uno");
+    }
+
+    @Test
+    void lasEntradasCaducadasSeVuelvenACargar() {
+        TtlCache<String, String> sinTtl = new TtlCache<>(10, 0);
+        sinTtl.get("a", () -> "uno");
+
+        assertThat(sinTtl.get("a", () -> "dos")).isEqualTo("dos");
+        assertThat(sinTtl.estadisticas().expulsiones()).isEqualTo(1);
+    }
+
+    @Test
+    void alSuperarElPesoSeExpulsaLaMenosUsada() {
+        TtlCache<String, String> pesada = new TtlCache<>(10, 10, 60, String::length);
+        pesada.put("a", "aaaa");
+        pesada.put("b", "bbbb");
+        pesada.getIfPresent("a");
+        pesada.put("c", "cccc");
+
+        assertThat(pesada.getIfPresent("b")).isNull();
+        assertThat(pesada.getIfPresent("a")).isEqualTo("aaaa");
+        assertThat(pesada.estadisticas().peso()).isEqualTo(8);
+
+        pesada.put("d", "d".repeat(11));
+        assertThat(pesada.getIfPresent("d")).isNull();
+    }
+
+    private void cargaInvalidada(Consumer<TtlCache<String, String>> invalidacion) {
+        cache.put("a", "previo");
+        cache.invalidarTodo();
+
+        String leido = cache.get("a", () -> {
+            invalidacion.accept(cache);
+            return "antiguo";
+        });
+
+        assertThat(leido).isEqualTo("antiguo");
+        assertThat(cache.getIfPresent("a")).isNull();
+    }
+}
@@ -0,0 +1,110 @@
+package org.example.hotelesapi;
+
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UserSessionServiceTest {
+
+    private static final String SECRETO = "s".repeat(32);
+
+    private final UserSessionService servicio = new UserSessionService("firmada", SECRETO, 1800);
+
+    @Test
+    void laCookieDeUnaInstanciaValeEnOtraConElMismoSecreto() {
+        MockHttpServletResponse respuesta = new MockHttpServletResponse();
+        servicio.iniciar(usuario(), new MockHttpServletRequest(), respuesta);
+        Cookie cookie = respuesta.getCookie(UserSessionService.COOKIE);
+
+        MockHttpServletRequest peticion = new MockHttpServletRequest();
+        peticion.setCookies(cookie);
+        UserSessionService otra = new UserSessionService("firmada", SECRETO, 1800);
+
+        assertThat(cookie.isHttpOnly()).isTrue();
+        assertThat(otra.actual(peticion, new MockHttpServletResponse()))
+                .map(SesionUsuario::user).contains("maria");
+    }
+
+    @Test
+    void unaCookieConOtroSecretoNoEsValida() {
+        MockHttpServletResponse respuesta = new MockHttpServletResponse();
+        new UserSessionService("firmada", "o".repeat(32), 1800).iniciar(usuario(), new MockHttpServletRequest(), respuesta);
+        MockHttpServletRequest peticion = new MockHttpServletRequest();
+        peticion.setCookies(respuesta.getCookie(UserSessionService.COOKIE));
+
+        assertThat(servicio.actual(peticion, new MockHttpServletResponse())).isEmpty();
+    }
+
+    @Test
+    void laCookieSeRenuevaPasadaLaMitadDeSuVida() {
+        long ahora = Instant.now().getEpochSecond();
+        SignedSessionCodec codec = new SignedSessionCodec(SECRETO.getBytes(StandardCharsets.UTF_8));
+        MockHttpServletRequest peticion = new MockHttpServletRequest();
+        peticion.setCookies(new Cookie(UserSessionService.COOKIE, codec.codificar(new SesionUsuario("1", "maria", ahora + 600))));
+        MockHttpServletResponse respuesta = new MockHttpServletResponse();
+
+        SesionUsuario sesion = servicio.actual(peticion, respuesta).orElseThrow();
+
+        assertThat(sesion.expira()).isGreaterThanOrEqualTo(ahora + 1800);
+        assertThat(respuesta.getHeader(HttpHeaders.SET_COOKIE)).startsWith(UserSessionService.COOKIE + "=");
+    }
+
+    @Test
+    void laCookieNoSeRenuevaAntesDeLaMitadDeSuVida() {
+        MockHttpServletResponse inicio = new MockHttpServletResponse();
+        servicio.iniciar(usuario(), new MockHttpServletRequest(), inicio);
+        MockHttpServletRequest peticion = new MockHttpServletRequest();
+        peticion.setCookies(inicio.getCookie(UserSessionService.COOKIE));
+        MockHttpServletResponse respuesta = new MockHttpServletResponse();
+
+        assertThat(servicio.actual(peticion, respuesta)).isPresent();
+        assertThat(respuesta.getHeader(HttpHeaders.SET_COOKIE)).isNull();
+    }
+
+    @Test
+    void cerrarBorraLaCookie() {
+        MockHttpServletRequest peticion = new MockHttpServletRequest();
+        peticion.setCookies(new Cookie(UserSessionService.COOKIE, "x"));
+        MockHttpServletResponse respuesta = new MockHttpServletResponse();
+
+        servicio.cerrar(peticion, respuesta);
+
+        assertThat(respuesta.getCookie(UserSessionService.COOKIE).getMaxAge()).isZero();
+    }
+
+    @Test
+    void enModoServletLaSesionSeGuardaEnLaHttpSession() {
+        UserSessionService servlet = new UserSessionService("servlet", "", 1800);
+        MockHttpServletRequest peticion = new MockHttpServletRequest();
+        MockHttpServletResponse respuesta = new MockHttpServletResponse();
+
+        servlet.iniciar(usuario(), peticion, respuesta);
+
+        assertThat(respuesta.getCookie(UserSessionService.COOKIE)).isNull();
+        assertThat(servlet.actual(peticion, respuesta)).map(SesionUsuario::id).contains("1");
+    }
+
+    @Test
+    void unaConfiguracionNoValidaNoArranca() {
+        assertThatThrownBy(() -> new UserSessionService("firmada", "corto", 1800))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new UserSessionService("otro", SECRETO, 1800))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static User usuario() {
+        User user = new User();
+        user.set_id("1");
+        user.setUser("maria");
+        user.setToken("token-secreto");
+        return user;
+    }
+}
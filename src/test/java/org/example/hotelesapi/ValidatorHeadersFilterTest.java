@@ -0,0 +1,63 @@
+package org.example.hotelesapi;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ValidatorHeadersFilterTest {
+
+    private static final String ETAG = "\"1-abc\"";
+
+    private final ValidatorHeadersFilter filtro = new ValidatorHeadersFilter();
+
+    @Test
+    void unaRespuestaCorrectaLlevaEtagYLastModified() throws Exception {
+        MockHttpServletResponse respuesta = filtrar(new MockHttpServletRequest("GET", "/api/hoteles"), 200);
+
+        assertThat(respuesta.getHeader(HttpHeaders.ETAG)).isEqualTo(ETAG);
+        assertThat(respuesta.getHeader(HttpHeaders.LAST_MODIFIED)).isNotNull();
+    }
+
+    @Test
+    void unErrorNoLlevaEtagNiLastModified() throws Exception {
+        for (int estado : new int[]{400, 404, 500}) {
+            MockHttpServletResponse respuesta = filtrar(new MockHttpServletRequest("GET", "/api/hoteles/id/x"), estado);
+
+            assertThat(respuesta.getHeader(HttpHeaders.ETAG)).as("%d", estado).isNull();
+            assertThat(respuesta.getHeader(HttpHeaders.LAST_MODIFIED)).as("%d", estado).isNull();
+        }
+    }
+
+    @Test
+    void unaRespuestaNoModificadaLlevaLaEtag() throws Exception {
+        MockHttpServletRequest peticion = new MockHttpServletRequest("GET", "/api/hoteles");
+        peticion.addHeader(HttpHeaders.IF_NONE_MATCH, ETAG);
+        MockHttpServletResponse respuesta = new MockHttpServletResponse();
+
+        filtro.doFilter(peticion, respuesta, (req, res) ->
+                new ServletWebRequest(peticion, (HttpServletResponse) res).checkNotModified(ETAG, 1000));
+
+        assertThat(respuesta.getStatus()).isEqualTo(304);
+        assertThat(respuesta.getHeader(HttpHeaders.ETAG)).isEqualTo(ETAG);
+    }
+
+    /**
+     * Pone las cabeceras como el interceptor, antes de que el controlador fije el estado, y
+     * escribe después el cuerpo.
+     */
+    private MockHttpServletResponse filtrar(MockHttpServletRequest peticion, int estado) throws Exception {
+        MockHttpServletResponse respuesta = new MockHttpServletResponse();
+        filtro.doFilter(peticion, respuesta, (req, res) -> {
+            HttpServletResponse http = (HttpServletResponse) res;
+            new ServletWebRequest(peticion, http).checkNotModified(ETAG, 1000);
+            http.setStatus(estado);
+            http.getOutputStream().write("{}".getBytes());
+        });
+        return respuesta;
+    }
+}